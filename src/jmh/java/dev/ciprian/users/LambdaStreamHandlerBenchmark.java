@@ -0,0 +1,52 @@
+package dev.ciprian.users;
+
+import com.amazonaws.serverless.proxy.internal.testutils.AwsProxyRequestBuilder;
+import com.amazonaws.serverless.proxy.internal.testutils.MockLambdaContext;
+import com.amazonaws.xray.AWSXRay;
+import com.amazonaws.xray.strategy.IgnoreErrorContextMissingStrategy;
+import dev.ciprian.users.config.ReloadableHttpClient;
+import dev.ciprian.users.priming.CognitoStandInHttpClient;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+
+/**
+ * A full login through {@link LambdaStreamHandler#handleRequest}, from the API Gateway event to the proxy response.
+ * Cognito is answered by {@link CognitoStandInHttpClient}, so the SDK still marshals the request and unmarshals the
+ * response but nothing leaves the process.
+ */
+@State(Scope.Benchmark)
+public class LambdaStreamHandlerBenchmark {
+
+    private static final String USER = """
+            {"email":"email","username":"username","password":"password"}""";
+
+    LambdaStreamHandler handler;
+    MockLambdaContext context;
+    byte[] event;
+
+    @Setup
+    public void setUp() throws IOException {
+        System.setProperty("aws.accessKeyId", "benchmark");
+        System.setProperty("aws.secretAccessKey", "benchmark");
+        System.setProperty("cognito.rate-limits.user-authentication", String.valueOf(Integer.MAX_VALUE));
+        AWSXRay.getGlobalRecorder().setContextMissingStrategy(new IgnoreErrorContextMissingStrategy());
+
+        handler = new LambdaStreamHandler();
+        LambdaStreamHandler.applicationContext().getBean(ReloadableHttpClient.class).setStandIn(new CognitoStandInHttpClient());
+        context = new MockLambdaContext();
+        event = new AwsProxyRequestBuilder("/users/login", "POST").json().body(USER).buildStream().readAllBytes();
+    }
+
+    @Benchmark
+    public byte[] login() throws IOException {
+        var outputStream = new ByteArrayOutputStream();
+        handler.handleRequest(new ByteArrayInputStream(event), outputStream, context);
+        return outputStream.toByteArray();
+    }
+}
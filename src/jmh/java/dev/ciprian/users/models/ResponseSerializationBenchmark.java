@@ -0,0 +1,44 @@
+package dev.ciprian.users.models;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+
+/**
+ * Cost of writing the response bodies: a successful login and a failed registration.
+ */
+@State(Scope.Benchmark)
+public class ResponseSerializationBenchmark {
+
+    ObjectMapper objectMapper;
+    AccessResponse accessResponse;
+    GenericResponse errorResponse;
+
+    @Setup
+    public void setUp() {
+        objectMapper = Jackson2ObjectMapperBuilder.json().build();
+
+        accessResponse = new AccessResponse(true);
+        accessResponse.setTokenType("Bearer");
+        accessResponse.setExpiresInSeconds(3600);
+        accessResponse.setAccessToken("a".repeat(1024));
+        accessResponse.setIdToken("i".repeat(1024));
+        accessResponse.setRefreshToken("r".repeat(1024));
+
+        errorResponse = new GenericResponse(false, "Could not create user");
+    }
+
+    @Benchmark
+    public byte[] accessResponse() throws JsonProcessingException {
+        return objectMapper.writeValueAsBytes(accessResponse);
+    }
+
+    @Benchmark
+    public byte[] errorResponse() throws JsonProcessingException {
+        return objectMapper.writeValueAsBytes(errorResponse);
+    }
+}
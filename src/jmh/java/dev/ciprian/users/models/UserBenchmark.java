@@ -0,0 +1,54 @@
+package dev.ciprian.users.models;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import dev.ciprian.users.validation.PrecomputedValidator;
+import jakarta.validation.ConstraintViolation;
+import jakarta.validation.Validation;
+import jakarta.validation.Validator;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+import java.util.Set;
+
+/**
+ * Cost of turning a request body into a validated {@link User}, as the controllers do for every request.
+ */
+@State(Scope.Benchmark)
+public class UserBenchmark {
+
+    private static final byte[] USER = """
+            {"firstName":"First name","lastName":"Last name","email":"email","username":"username","password":"password"}"""
+            .getBytes(StandardCharsets.UTF_8);
+
+    ObjectMapper objectMapper;
+    Validator validator;
+    PrecomputedValidator precomputedValidator;
+
+    @Setup
+    public void setUp() {
+        objectMapper = Jackson2ObjectMapperBuilder.json().build();
+        validator = Validation.buildDefaultValidatorFactory().getValidator();
+        precomputedValidator = new PrecomputedValidator();
+    }
+
+    @Benchmark
+    public User deserialize() throws IOException {
+        return objectMapper.readValue(USER, User.class);
+    }
+
+    @Benchmark
+    public Set<ConstraintViolation<User>> deserializeAndValidate() throws IOException {
+        return validator.validate(objectMapper.readValue(USER, User.class));
+    }
+
+    @Benchmark
+    public List<String> deserializeAndValidatePrecomputed() throws IOException {
+        return precomputedValidator.validate(objectMapper.readValue(USER, User.class));
+    }
+}
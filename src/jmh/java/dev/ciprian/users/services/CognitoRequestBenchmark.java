@@ -0,0 +1,39 @@
+package dev.ciprian.users.services;
+
+import dev.ciprian.users.config.CognitoProperties;
+import dev.ciprian.users.models.User;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import software.amazon.awssdk.services.cognitoidentityprovider.model.AdminCreateUserRequest;
+import software.amazon.awssdk.services.cognitoidentityprovider.model.AdminInitiateAuthRequest;
+
+/**
+ * Cost of building the Cognito request objects, before the SDK marshals them.
+ */
+@State(Scope.Benchmark)
+public class CognitoRequestBenchmark {
+
+    CognitoProperties cognitoProperties;
+    User user;
+
+    @Setup
+    public void setUp() {
+        cognitoProperties = new CognitoProperties();
+        cognitoProperties.setRegion("eu-central-1");
+        cognitoProperties.setUserPoolId("eu-central-1_benchmark");
+        cognitoProperties.setClientId("benchmark");
+        user = new User("First name", "Last name", "email", "username", "password");
+    }
+
+    @Benchmark
+    public AdminCreateUserRequest adminCreateUserRequest() {
+        return RegisterService.adminCreateUserRequest(cognitoProperties, user);
+    }
+
+    @Benchmark
+    public AdminInitiateAuthRequest adminInitiateAuthRequest() {
+        return LoginService.adminInitiateAuthRequest(cognitoProperties, user);
+    }
+}
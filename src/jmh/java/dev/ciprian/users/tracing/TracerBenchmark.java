@@ -0,0 +1,80 @@
+package dev.ciprian.users.tracing;
+
+import com.amazonaws.xray.AWSXRay;
+import com.amazonaws.xray.entities.Segment;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+
+/**
+ * Tracing overhead of one service call. {@code subsegment} is the pattern the services used before the tracing
+ * layer: an unconditional subsegment with a username annotation, ended and then closed. {@code tracer} is the same
+ * work through {@link XRayTracer}, and {@code noop} is {@link NoopTracer} with tracing disabled.
+ */
+@State(Scope.Thread)
+public class TracerBenchmark {
+
+    private static final String NAME = "Create user";
+    private static final String USERNAME = "username";
+
+    @Param({"true", "false"})
+    boolean sampled;
+
+    Tracer xRayTracer;
+    Tracer noopTracer;
+    Segment segment;
+
+    @Setup(Level.Trial)
+    public void setUpTracers() {
+        xRayTracer = new XRayTracer(new TracingProperties());
+        noopTracer = new NoopTracer();
+    }
+
+    // a fresh segment per iteration keeps the recorded subsegments from piling up
+    @Setup(Level.Iteration)
+    public void setUpSegment() {
+        segment = AWSXRay.beginSegment("TracerBenchmark");
+        segment.setSampled(sampled);
+    }
+
+    @TearDown(Level.Iteration)
+    public void tearDownSegment() {
+        AWSXRay.clearTraceEntity();
+    }
+
+    @Benchmark
+    public void subsegment() {
+        try (var subsegment = AWSXRay.beginSubsegment(NAME)) {
+            subsegment.putAnnotation("username", USERNAME);
+
+            try {
+                work();
+            } finally {
+                subsegment.end();
+            }
+        }
+    }
+
+    @Benchmark
+    public void tracer() {
+        try (var span = xRayTracer.startSpan(NAME)) {
+            span.putAnnotation("username", USERNAME);
+            work();
+        }
+    }
+
+    @Benchmark
+    public void noop() {
+        try (var span = noopTracer.startSpan(NAME)) {
+            span.putAnnotation("username", USERNAME);
+            work();
+        }
+    }
+
+    private static void work() {
+    }
+}
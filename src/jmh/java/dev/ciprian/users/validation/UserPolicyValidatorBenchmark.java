@@ -0,0 +1,45 @@
+package dev.ciprian.users.validation;
+
+import dev.ciprian.users.config.CognitoClients;
+import dev.ciprian.users.config.CognitoProperties;
+import dev.ciprian.users.models.User;
+import dev.ciprian.users.ratelimit.CognitoRateLimiter;
+import dev.ciprian.users.tenancy.Tenants;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+import java.util.List;
+
+/**
+ * Cost of checking a registration against the configured password policy, which replaces a create and a failed
+ * set password call for users Cognito would refuse.
+ */
+@State(Scope.Benchmark)
+public class UserPolicyValidatorBenchmark {
+
+    private static final User VALID_USER = new User("First name", "Last name", "user@example.com", "username", "Password-1");
+    private static final User WEAK_PASSWORD_USER = new User("First name", "Last name", "user@example.com", "username", "password");
+
+    UserPolicyValidator userPolicyValidator;
+
+    @Setup
+    public void setUp() {
+        var cognitoProperties = new CognitoProperties();
+        cognitoProperties.setRegion("eu-central-1");
+        var cognitoClients = new CognitoClients(null, null, region -> null);
+        userPolicyValidator = new UserPolicyValidator(cognitoProperties, cognitoClients, new Tenants(cognitoProperties),
+                new CognitoRateLimiter(cognitoProperties));
+    }
+
+    @Benchmark
+    public List<String> validUser() {
+        return userPolicyValidator.validate(VALID_USER);
+    }
+
+    @Benchmark
+    public List<String> weakPassword() {
+        return userPolicyValidator.validate(WEAK_PASSWORD_USER);
+    }
+}
@@ -0,0 +1,121 @@
+package dev.ciprian.users.loadtest;
+
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.net.URI;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadLocalRandom;
+
+/**
+ * Local HTTP server speaking the Cognito JSON protocol for the admin operations the app uses. Every call waits for
+ * the configured latency, then fails with a throttling error or an internal error at the configured rates, and
+ * otherwise answers with a successful, canned result.
+ */
+public final class CognitoStandInServer implements AutoCloseable {
+
+    private static final String TARGET_HEADER = "X-Amz-Target";
+    private static final String TARGET_PREFIX = "AWSCognitoIdentityProviderService.";
+    private static final String CONTENT_TYPE = "application/x-amz-json-1.1";
+    private static final String EMPTY_RESULT = "{}";
+    private static final String CREATE_USER_RESULT = """
+            {"User":{"Username":"load-test","Enabled":true,"UserStatus":"FORCE_CHANGE_PASSWORD"}}""";
+    private static final String AUTHENTICATION_RESULT = """
+            {"AuthenticationResult":{"AccessToken":"load-test","ExpiresIn":3600,"IdToken":"load-test",\
+            "RefreshToken":"load-test","TokenType":"Bearer"}}""";
+
+    private final HttpServer server;
+    private final Behaviour behaviour;
+
+    private CognitoStandInServer(HttpServer server, Behaviour behaviour) {
+        this.server = server;
+        this.behaviour = behaviour;
+    }
+
+    public static CognitoStandInServer start(Behaviour behaviour) throws IOException {
+        var server = HttpServer.create(new InetSocketAddress(InetAddress.getLoopbackAddress(), 0), 0);
+        var standIn = new CognitoStandInServer(server, behaviour);
+
+        server.setExecutor(Executors.newVirtualThreadPerTaskExecutor());
+        server.createContext("/", standIn::handle);
+        server.start();
+        return standIn;
+    }
+
+    public URI endpoint() {
+        return URI.create("http://localhost:" + server.getAddress().getPort());
+    }
+
+    @Override
+    public void close() {
+        server.stop(0);
+    }
+
+    private void handle(HttpExchange exchange) throws IOException {
+        try (exchange) {
+            exchange.getRequestBody().transferTo(OutputStream.nullOutputStream());
+            sleep(behaviour.latency());
+
+            var random = ThreadLocalRandom.current().nextDouble();
+
+            if (random < behaviour.throttleRate()) {
+                error(exchange, 400, "TooManyRequestsException", "Rate exceeded");
+                return;
+            }
+
+            if (random < behaviour.throttleRate() + behaviour.errorRate()) {
+                error(exchange, 500, "InternalErrorException", "Internal error");
+                return;
+            }
+
+            var target = exchange.getRequestHeaders().getFirst(TARGET_HEADER);
+            var operation = target != null && target.startsWith(TARGET_PREFIX) ? target.substring(TARGET_PREFIX.length()) : "";
+
+            switch (operation) {
+                case "AdminCreateUser" -> respond(exchange, 200, CREATE_USER_RESULT);
+                case "AdminSetUserPassword", "AdminUpdateUserAttributes" -> respond(exchange, 200, EMPTY_RESULT);
+                case "AdminInitiateAuth" -> respond(exchange, 200, AUTHENTICATION_RESULT);
+                default -> error(exchange, 400, "UnknownOperationException", "Unknown operation: " + target);
+            }
+        }
+    }
+
+    private static void error(HttpExchange exchange, int status, String type, String message) throws IOException {
+        exchange.getResponseHeaders().add("x-amzn-ErrorType", type);
+        respond(exchange, status, """
+                {"__type":"%s","message":"%s"}""".formatted(type, message));
+    }
+
+    private static void respond(HttpExchange exchange, int status, String body) throws IOException {
+        var bytes = body.getBytes(StandardCharsets.UTF_8);
+        exchange.getResponseHeaders().add("Content-Type", CONTENT_TYPE);
+        exchange.sendResponseHeaders(status, bytes.length);
+        exchange.getResponseBody().write(bytes);
+    }
+
+    private static void sleep(Duration duration) {
+        if (duration.isZero()) {
+            return;
+        }
+
+        try {
+            Thread.sleep(duration);
+        } catch (InterruptedException exception) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    /**
+     * @param latency      time every call waits before answering
+     * @param errorRate    share of calls, from 0 to 1, answered with an internal error
+     * @param throttleRate share of calls, from 0 to 1, answered with a throttling error
+     */
+    public record Behaviour(Duration latency, double errorRate, double throttleRate) {
+    }
+}
@@ -0,0 +1,205 @@
+package dev.ciprian.users.loadtest;
+
+import com.amazonaws.serverless.proxy.internal.testutils.MockLambdaContext;
+import com.amazonaws.xray.AWSXRay;
+import com.amazonaws.xray.strategy.IgnoreErrorContextMissingStrategy;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import dev.ciprian.users.LambdaStreamHandler;
+import dev.ciprian.users.ratelimit.QuotaCategory;
+import org.springframework.core.io.Resource;
+import org.springframework.core.io.support.PathMatchingResourcePatternResolver;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Replays recorded API Gateway proxy events through {@link LambdaStreamHandler} against a {@link CognitoStandInServer}
+ * and reports latency percentiles, throughput and status codes. Run with {@code ./gradlew loadTest}. It reads these
+ * settings from {@code -P} properties:
+ * <ul>
+ *     <li>{@code loadtest.concurrency}: concurrent callers, default 8</li>
+ *     <li>{@code loadtest.requests}: measured requests, default 10000</li>
+ *     <li>{@code loadtest.warmup}: unmeasured requests sent first, default 1000</li>
+ *     <li>{@code loadtest.events}: location pattern of the recorded events, default {@code classpath:events/*.json}</li>
+ *     <li>{@code loadtest.cognito.latency-millis}, {@code loadtest.cognito.error-rate},
+ *     {@code loadtest.cognito.throttle-rate}: stand-in behaviour, default 20, 0 and 0</li>
+ * </ul>
+ * {@code cognito.*} properties are passed to the app, for example to change the transport. The client-side rate limits
+ * are lifted so the stand-in's latency is measured rather than the limiter, except for the categories set with
+ * {@code -Pcognito.rate-limits.*}.
+ */
+public final class LoadTest {
+
+    private LoadTest() {
+    }
+
+    public static void main(String[] args) throws Exception {
+        var concurrency = Integer.getInteger("loadtest.concurrency", 8);
+        var requests = Integer.getInteger("loadtest.requests", 10_000);
+        var warmup = Integer.getInteger("loadtest.warmup", 1_000);
+        var events = events(System.getProperty("loadtest.events", "classpath:events/*.json"));
+        var behaviour = new CognitoStandInServer.Behaviour(
+                Duration.ofMillis(Long.getLong("loadtest.cognito.latency-millis", 20)),
+                Double.parseDouble(System.getProperty("loadtest.cognito.error-rate", "0")),
+                Double.parseDouble(System.getProperty("loadtest.cognito.throttle-rate", "0")));
+
+        var rateLimits = liftRateLimits();
+
+        try (var server = CognitoStandInServer.start(behaviour)) {
+            System.setProperty("cognito.endpoint", server.endpoint().toString());
+            System.setProperty("aws.accessKeyId", "load-test");
+            System.setProperty("aws.secretAccessKey", "load-test");
+            AWSXRay.getGlobalRecorder().setContextMissingStrategy(new IgnoreErrorContextMissingStrategy());
+
+            var handler = new LambdaStreamHandler();
+            run(handler, events, concurrency, warmup, null);
+
+            var result = new Result(requests);
+            var start = System.nanoTime();
+            run(handler, events, concurrency, requests, result);
+            var elapsed = Duration.ofNanos(System.nanoTime() - start);
+
+            result.print(events.size(), concurrency, elapsed, behaviour, rateLimits);
+        }
+
+        System.exit(0);
+    }
+
+    private static void run(LambdaStreamHandler handler, List<byte[]> events, int concurrency, int requests, Result result) {
+        var next = new AtomicInteger();
+        var objectMapper = new ObjectMapper();
+
+        try (var executor = Executors.newFixedThreadPool(concurrency)) {
+            for (var worker = 0; worker < concurrency; worker++) {
+                executor.execute(() -> {
+                    var context = new MockLambdaContext();
+                    int index;
+
+                    while ((index = next.getAndIncrement()) < requests) {
+                        var outputStream = new ByteArrayOutputStream();
+                        var start = System.nanoTime();
+
+                        try {
+                            handler.handleRequest(new ByteArrayInputStream(events.get(index % events.size())), outputStream, context);
+                        } catch (IOException | RuntimeException exception) {
+                            // counted instead of ending the worker, which would leave its share of requests unsent
+                            if (result != null) {
+                                result.fail(index, System.nanoTime() - start, exception);
+                            }
+                            continue;
+                        }
+
+                        if (result != null) {
+                            result.record(index, System.nanoTime() - start, statusCode(objectMapper, outputStream));
+                        }
+                    }
+                });
+            }
+        }
+    }
+
+    /**
+     * Sets every rate limit not given on the command line to the largest value and returns the limits in effect.
+     */
+    private static Map<String, String> liftRateLimits() {
+        var rateLimits = new LinkedHashMap<String, String>();
+
+        for (var category : QuotaCategory.values()) {
+            var name = category.name().toLowerCase(Locale.ROOT).replace('_', '-');
+            var property = "cognito.rate-limits." + name;
+
+            if (System.getProperty(property) == null) {
+                System.setProperty(property, String.valueOf(Integer.MAX_VALUE));
+            }
+
+            rateLimits.put(name, System.getProperty(property));
+        }
+
+        return rateLimits;
+    }
+
+    private static int statusCode(ObjectMapper objectMapper, ByteArrayOutputStream outputStream) {
+        try {
+            return objectMapper.readTree(outputStream.toByteArray()).path("statusCode").asInt();
+        } catch (IOException exception) {
+            return -1;
+        }
+    }
+
+    private static List<byte[]> events(String locationPattern) throws IOException {
+        var events = new ArrayList<byte[]>();
+
+        for (Resource resource : new PathMatchingResourcePatternResolver().getResources(locationPattern)) {
+            try (var inputStream = resource.getInputStream()) {
+                events.add(inputStream.readAllBytes());
+            }
+        }
+
+        if (events.isEmpty()) {
+            throw new IllegalArgumentException("No events found at " + locationPattern);
+        }
+
+        return events;
+    }
+
+    private static final class Result {
+
+        private final long[] latencies;
+        private final Map<Integer, LongAdder> statusCodes = new ConcurrentHashMap<>();
+        private final LongAdder failures = new LongAdder();
+        private volatile Exception firstFailure;
+
+        Result(int requests) {
+            this.latencies = new long[requests];
+        }
+
+        void record(int index, long latencyNanos, int statusCode) {
+            latencies[index] = latencyNanos;
+            statusCodes.computeIfAbsent(statusCode, code -> new LongAdder()).increment();
+        }
+
+        void fail(int index, long latencyNanos, Exception exception) {
+            latencies[index] = latencyNanos;
+            failures.increment();
+
+            if (firstFailure == null) {
+                firstFailure = exception;
+            }
+        }
+
+        void print(int events, int concurrency, Duration elapsed, CognitoStandInServer.Behaviour behaviour,
+                   Map<String, String> rateLimits) {
+            var sorted = latencies.clone();
+            Arrays.sort(sorted);
+
+            System.out.printf("events: %d, concurrency: %d, requests: %d, cognito: %s%n", events, concurrency, sorted.length, behaviour);
+            System.out.printf("rate limits: %s%n", rateLimits);
+            System.out.printf("throughput: %.1f req/s%n", sorted.length / (elapsed.toNanos() / 1e9));
+            System.out.printf("latency p50: %.2f ms, p90: %.2f ms, p99: %.2f ms, max: %.2f ms%n",
+                    percentile(sorted, 0.50), percentile(sorted, 0.90), percentile(sorted, 0.99), sorted[sorted.length - 1] / 1e6);
+            new TreeMap<>(statusCodes).forEach((code, count) -> System.out.printf("status %d: %d%n", code, count.sum()));
+
+            if (failures.sum() > 0) {
+                System.out.printf("failed: %d, first: %s%n", failures.sum(), firstFailure);
+            }
+        }
+
+        private static double percentile(long[] sorted, double percentile) {
+            var index = (int) Math.ceil(percentile * sorted.length) - 1;
+            return sorted[Math.max(0, index)] / 1e6;
+        }
+    }
+}
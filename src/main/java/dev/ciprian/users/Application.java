@@ -1,12 +1,17 @@
 package dev.ciprian.users;
 
 import dev.ciprian.users.config.CognitoProperties;
+import dev.ciprian.users.config.NativeHints;
+import dev.ciprian.users.metrics.MetricsProperties;
+import dev.ciprian.users.tracing.TracingProperties;
 import org.springframework.boot.SpringApplication;
 import org.springframework.boot.autoconfigure.SpringBootApplication;
 import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.context.annotation.ImportRuntimeHints;
 
 @SpringBootApplication
-@EnableConfigurationProperties({CognitoProperties.class})
+@EnableConfigurationProperties({CognitoProperties.class, TracingProperties.class, MetricsProperties.class})
+@ImportRuntimeHints(NativeHints.class)
 public class Application {
 
 	public static void main(String[] args) {
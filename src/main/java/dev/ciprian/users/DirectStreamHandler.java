@@ -0,0 +1,72 @@
+package dev.ciprian.users;
+
+import com.amazonaws.services.lambda.runtime.Context;
+import com.amazonaws.services.lambda.runtime.RequestStreamHandler;
+import com.amazonaws.xray.AWSXRay;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import dev.ciprian.users.config.ReloadableHttpClient;
+import dev.ciprian.users.controllers.DirectDispatcher;
+import dev.ciprian.users.keepwarm.KeepWarmResponder;
+import dev.ciprian.users.metrics.InvocationMetrics;
+import dev.ciprian.users.startup.AotMode;
+import dev.ciprian.users.startup.StartupTimeline;
+import org.springframework.boot.WebApplicationType;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ApplicationContext;
+import org.springframework.context.ConfigurableApplicationContext;
+
+import java.io.BufferedInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+
+/**
+ * Alternative to {@link LambdaStreamHandler} that skips the servlet container emulation: Spring only does dependency
+ * injection and API Gateway events are routed by {@link DirectDispatcher}. Enable it by pointing the function handler
+ * at {@code dev.ciprian.users.DirectStreamHandler::handleRequest}.
+ */
+public class DirectStreamHandler implements RequestStreamHandler {
+
+    private static final ConfigurableApplicationContext applicationContext;
+    private static final DirectDispatcher dispatcher;
+    private static final ObjectMapper objectMapper;
+    private static final InvocationMetrics invocationMetrics;
+    private static final KeepWarmResponder keepWarmResponder;
+
+    static {
+        var startupTimeline = StartupTimeline.get();
+        startupTimeline.start();
+        // the generated bean definitions are those of the servlet context, which this handler does not start
+        AotMode.disable();
+
+        applicationContext = startupTimeline.time("lambda.handler.init",
+                () -> new SpringApplicationBuilder(Application.class).web(WebApplicationType.NONE).run());
+        dispatcher = applicationContext.getBean(DirectDispatcher.class);
+        objectMapper = applicationContext.getBean(ObjectMapper.class);
+        invocationMetrics = applicationContext.getBean(InvocationMetrics.class);
+        keepWarmResponder = new KeepWarmResponder(objectMapper, applicationContext.getBean(ReloadableHttpClient.class));
+        startupTimeline.time("xray.recorder.init", AWSXRay::getGlobalRecorder);
+        startupTimeline.complete(applicationContext);
+    }
+
+    @Override
+    public void handleRequest(InputStream inputStream, OutputStream outputStream, Context context) throws IOException {
+        var start = System.nanoTime();
+        var input = new BufferedInputStream(inputStream);
+
+        if (keepWarmResponder.answer(input, outputStream)) {
+            return;
+        }
+
+        try {
+            StartupTimeline.get().reportOnce(objectMapper);
+            dispatcher.dispatch(input, outputStream);
+        } finally {
+            invocationMetrics.flush("DirectStreamHandler", System.nanoTime() - start);
+        }
+    }
+
+    static ApplicationContext applicationContext() {
+        return applicationContext;
+    }
+}
@@ -6,29 +6,87 @@ import com.amazonaws.serverless.proxy.model.AwsProxyResponse;
 import com.amazonaws.serverless.proxy.spring.SpringBootLambdaContainerHandler;
 import com.amazonaws.services.lambda.runtime.Context;
 import com.amazonaws.services.lambda.runtime.RequestStreamHandler;
+import com.amazonaws.xray.AWSXRay;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import dev.ciprian.users.config.CognitoConfig;
+import dev.ciprian.users.config.CognitoProperties;
+import dev.ciprian.users.config.ReloadableCredentialsProvider;
+import dev.ciprian.users.config.ReloadableHttpClient;
+import dev.ciprian.users.keepwarm.KeepWarmResponder;
+import dev.ciprian.users.metrics.InvocationMetrics;
+import dev.ciprian.users.priming.PrimingResource;
+import dev.ciprian.users.startup.AotMode;
+import dev.ciprian.users.startup.StartupTimeline;
+import org.crac.Core;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
+import org.springframework.context.ApplicationContext;
+import org.springframework.web.context.support.WebApplicationContextUtils;
 
+import java.io.BufferedInputStream;
 import java.io.IOException;
 import java.io.InputStream;
 import java.io.OutputStream;
+import java.time.Instant;
+import java.util.Map;
 
 public class LambdaStreamHandler implements RequestStreamHandler {
 
     private static final SpringBootLambdaContainerHandler<AwsProxyRequest, AwsProxyResponse> handler;
+    private static final ApplicationContext applicationContext;
+    private static final PrimingResource primingResource;
+    private static final ObjectMapper objectMapper;
+    private static final InvocationMetrics invocationMetrics;
+    private static final KeepWarmResponder keepWarmResponder;
     private static final Logger log = LoggerFactory.getLogger(LambdaStreamHandler.class);
 
     static {
+        var startupTimeline = StartupTimeline.get();
+        startupTimeline.start();
+        var aot = AotMode.configure();
+        var handlerStart = Instant.now();
+
         try {
             handler = SpringBootLambdaContainerHandler.getAwsProxyHandler(Application.class);
         } catch (ContainerInitializationException exception) {
             log.error("Could not initialize lambda handler: {}", exception.getMessage());
             throw new RuntimeException("Could not initialize - retrying", exception);
         }
+
+        startupTimeline.record("lambda.handler.init", handlerStart, Instant.now(), Map.of("aot", String.valueOf(aot)));
+        applicationContext = WebApplicationContextUtils.getRequiredWebApplicationContext(handler.getServletContext());
+        objectMapper = applicationContext.getBean(ObjectMapper.class);
+        invocationMetrics = applicationContext.getBean(InvocationMetrics.class);
+        keepWarmResponder = new KeepWarmResponder(objectMapper, applicationContext.getBean(ReloadableHttpClient.class));
+        startupTimeline.time("xray.recorder.init", AWSXRay::getGlobalRecorder);
+
+        // the CRaC global context only keeps weak references, hence the static field
+        primingResource = new PrimingResource(handler,
+                applicationContext.getBean(ReloadableHttpClient.class),
+                applicationContext.getBean(ReloadableCredentialsProvider.class),
+                CognitoConfig.cognitoEndpoint(applicationContext.getBean(CognitoProperties.class)));
+        Core.getGlobalContext().register(primingResource);
+        startupTimeline.complete(applicationContext);
     }
 
     @Override
     public void handleRequest(InputStream inputStream, OutputStream outputStream, Context context) throws IOException {
-        handler.proxyStream(inputStream, outputStream, context);
+        var start = System.nanoTime();
+        var input = new BufferedInputStream(inputStream);
+
+        if (keepWarmResponder.answer(input, outputStream)) {
+            return;
+        }
+
+        try {
+            StartupTimeline.get().reportOnce(objectMapper);
+            handler.proxyStream(input, outputStream, context);
+        } finally {
+            invocationMetrics.flush("LambdaStreamHandler", System.nanoTime() - start);
+        }
+    }
+
+    static ApplicationContext applicationContext() {
+        return applicationContext;
     }
 }
@@ -0,0 +1,69 @@
+package dev.ciprian.users;
+
+import com.amazonaws.services.lambda.runtime.RequestStreamHandler;
+import com.amazonaws.xray.AWSXRay;
+import com.amazonaws.xray.strategy.IgnoreErrorContextMissingStrategy;
+import dev.ciprian.users.config.ReloadableHttpClient;
+import dev.ciprian.users.priming.CognitoStandInHttpClient;
+import dev.ciprian.users.priming.SyntheticRequests;
+import org.springframework.context.ApplicationContext;
+import org.springframework.http.MediaType;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.util.List;
+
+/**
+ * Entry point of the AppCDS training run ({@code ./gradlew buildCdsZip}). Starts both handlers and pushes the
+ * requests of every endpoint through them against the local Cognito stand-in, so the class load trace and the
+ * archive cover what a function loads up to its first responses. The archive is written when the JVM exits.
+ */
+public final class TrainingRun {
+
+    private static final String USER = """
+            {"firstName":"Training","lastName":"Training","email":"training@example.com","username":"training",\
+            "password":"Training-1"}""";
+
+    private static final List<Request> REQUESTS = List.of(
+            new Request("/users/register", MediaType.APPLICATION_JSON_VALUE, USER),
+            new Request("/users/login", MediaType.APPLICATION_JSON_VALUE, USER),
+            new Request("/users/login", MediaType.APPLICATION_JSON_VALUE, "{}"),
+            new Request("/users/refresh", MediaType.APPLICATION_JSON_VALUE, "{\"refreshToken\":\"training\"}"),
+            new Request("/users/verify", MediaType.APPLICATION_JSON_VALUE, "{\"token\":\"training\"}"),
+            new Request("/users/bulk/register", MediaType.APPLICATION_NDJSON_VALUE, USER + "\n"),
+            new Request("/users/unknown", MediaType.APPLICATION_JSON_VALUE, "{}"));
+
+    private TrainingRun() {
+    }
+
+    public static void main(String[] args) throws IOException {
+        System.setProperty("aws.accessKeyId", "training");
+        System.setProperty("aws.secretAccessKey", "training");
+        AWSXRay.getGlobalRecorder().setContextMissingStrategy(new IgnoreErrorContextMissingStrategy());
+
+        var lambdaStreamHandler = new LambdaStreamHandler();
+        standIn(LambdaStreamHandler.applicationContext());
+        var directStreamHandler = new DirectStreamHandler();
+        standIn(DirectStreamHandler.applicationContext());
+
+        for (var request : REQUESTS) {
+            send(lambdaStreamHandler, request);
+            send(directStreamHandler, request);
+        }
+
+        // runs the shutdown hooks, -XX:ArchiveClassesAtExit dumps the archive after them
+        System.exit(0);
+    }
+
+    private static void send(RequestStreamHandler handler, Request request) throws IOException {
+        var event = SyntheticRequests.post(request.path(), request.contentType(), request.body());
+        handler.handleRequest(event, new ByteArrayOutputStream(), SyntheticRequests.context());
+    }
+
+    private static void standIn(ApplicationContext applicationContext) {
+        applicationContext.getBean(ReloadableHttpClient.class).setStandIn(new CognitoStandInHttpClient());
+    }
+
+    private record Request(String path, String contentType, String body) {
+    }
+}
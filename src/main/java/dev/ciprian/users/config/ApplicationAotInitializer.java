@@ -0,0 +1,21 @@
+package dev.ciprian.users.config;
+
+import org.springframework.aot.AotDetector;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.context.aot.AotApplicationContextInitializer;
+
+/**
+ * Points Spring at the AOT generated initializer of {@code Application}. Spring Boot derives its name from the class
+ * holding {@code main}, which under the Lambda runtime is the runtime client and not our application.
+ */
+public class ApplicationAotInitializer implements AotApplicationContextInitializer<ConfigurableApplicationContext> {
+
+    private static final String GENERATED_INITIALIZER = "dev.ciprian.users.Application__ApplicationContextInitializer";
+
+    @Override
+    public void initialize(ConfigurableApplicationContext applicationContext) {
+        if (AotDetector.useGeneratedArtifacts()) {
+            AotApplicationContextInitializer.forInitializerClasses(GENERATED_INITIALIZER).initialize(applicationContext);
+        }
+    }
+}
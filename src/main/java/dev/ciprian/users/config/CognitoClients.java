@@ -0,0 +1,33 @@
+package dev.ciprian.users.config;
+
+import org.springframework.lang.Nullable;
+import software.amazon.awssdk.services.cognitoidentityprovider.CognitoIdentityProviderClient;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Function;
+
+/**
+ * One Cognito client per region, shared by every tenant in that region. The default region's client is the one
+ * built at startup, clients for other regions are built the first time a tenant needs them and share its HTTP client
+ * and credentials.
+ */
+public class CognitoClients {
+
+    private final Map<String, CognitoIdentityProviderClient> clients;
+    private final Function<String, CognitoIdentityProviderClient> clientFactory;
+
+    public CognitoClients(@Nullable String defaultRegion, @Nullable CognitoIdentityProviderClient defaultClient,
+                          Function<String, CognitoIdentityProviderClient> clientFactory) {
+        this.clients = new ConcurrentHashMap<>();
+        this.clientFactory = clientFactory;
+
+        if (defaultRegion != null && defaultClient != null) {
+            clients.put(defaultRegion, defaultClient);
+        }
+    }
+
+    public CognitoIdentityProviderClient forRegion(String region) {
+        return clients.computeIfAbsent(region, clientFactory);
+    }
+}
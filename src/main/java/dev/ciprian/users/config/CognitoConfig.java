@@ -1,13 +1,28 @@
 package dev.ciprian.users.config;
 
+import dev.ciprian.users.metrics.CognitoMetricsInterceptor;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
+import org.springframework.util.ClassUtils;
+import software.amazon.awssdk.auth.credentials.DefaultCredentialsProvider;
+import software.amazon.awssdk.core.client.config.ClientOverrideConfiguration;
+import software.amazon.awssdk.core.retry.RetryPolicy;
+import software.amazon.awssdk.core.retry.RetryUtils;
+import software.amazon.awssdk.core.retry.conditions.AndRetryCondition;
+import software.amazon.awssdk.core.retry.conditions.RetryCondition;
+import software.amazon.awssdk.http.nio.netty.NettyNioAsyncHttpClient;
 import software.amazon.awssdk.regions.Region;
+import software.amazon.awssdk.services.cognitoidentityprovider.CognitoIdentityProviderAsyncClient;
 import software.amazon.awssdk.services.cognitoidentityprovider.CognitoIdentityProviderClient;
 
+import java.net.URI;
+
 @Configuration
 public class CognitoConfig {
 
+    private static final String NETTY_CLIENT = "software.amazon.awssdk.http.nio.netty.NettyNioAsyncHttpClient";
+
     private final CognitoProperties cognitoProperties;
 
     public CognitoConfig(CognitoProperties cognitoProperties) {
@@ -15,9 +30,94 @@ public class CognitoConfig {
     }
 
     @Bean
-    public CognitoIdentityProviderClient cognitoIdentityProviderClient() {
-        return CognitoIdentityProviderClient.builder()
+    public ReloadableHttpClient cognitoHttpClient() {
+        var transport = cognitoProperties.getTransport();
+        var warmUpEndpoint = transport.isWarmUp() ? cognitoEndpoint(cognitoProperties) : null;
+        var httpClient = new ReloadableHttpClient(() -> CognitoHttpClientFactory.create(transport), warmUpEndpoint);
+
+        httpClient.warmUp();
+        return httpClient;
+    }
+
+    @Bean
+    public ReloadableCredentialsProvider cognitoCredentialsProvider() {
+        return new ReloadableCredentialsProvider(() -> DefaultCredentialsProvider.builder().build());
+    }
+
+    @Bean
+    public CognitoIdentityProviderClient cognitoIdentityProviderClient(ReloadableHttpClient cognitoHttpClient,
+                                                                       ReloadableCredentialsProvider cognitoCredentialsProvider,
+                                                                       CognitoMetricsInterceptor cognitoMetricsInterceptor) {
+        return cognitoClient(cognitoProperties.getRegion(), cognitoHttpClient, cognitoCredentialsProvider,
+                cognitoMetricsInterceptor);
+    }
+
+    @Bean
+    public CognitoClients cognitoClients(CognitoIdentityProviderClient cognitoIdentityProviderClient,
+                                         ReloadableHttpClient cognitoHttpClient,
+                                         ReloadableCredentialsProvider cognitoCredentialsProvider,
+                                         CognitoMetricsInterceptor cognitoMetricsInterceptor) {
+        return new CognitoClients(cognitoProperties.getRegion(), cognitoIdentityProviderClient,
+                region -> cognitoClient(region, cognitoHttpClient, cognitoCredentialsProvider, cognitoMetricsInterceptor));
+    }
+
+    @Bean
+    @ConditionalOnProperty(prefix = "cognito", name = "async-enabled", havingValue = "true")
+    public CognitoIdentityProviderAsyncClient cognitoIdentityProviderAsyncClient(CognitoMetricsInterceptor cognitoMetricsInterceptor) {
+        if (!ClassUtils.isPresent(NETTY_CLIENT, CognitoConfig.class.getClassLoader())) {
+            throw new IllegalStateException("cognito.async-enabled=true needs the Netty client, build the function "
+                    + "with -PasyncClient");
+        }
+
+        // with the CRT client on the classpath there are two async implementations, so pick Netty explicitly
+        var builder = CognitoIdentityProviderAsyncClient.builder()
                 .region(Region.of(cognitoProperties.getRegion()))
-                .build();
+                .httpClientBuilder(NettyNioAsyncHttpClient.builder())
+                .overrideConfiguration(overrideConfiguration(cognitoProperties, cognitoMetricsInterceptor));
+
+        if (cognitoProperties.getEndpoint() != null) {
+            builder.endpointOverride(cognitoProperties.getEndpoint());
+        }
+
+        return builder.build();
+    }
+
+    private CognitoIdentityProviderClient cognitoClient(String region, ReloadableHttpClient cognitoHttpClient,
+                                                        ReloadableCredentialsProvider cognitoCredentialsProvider,
+                                                        CognitoMetricsInterceptor cognitoMetricsInterceptor) {
+        var builder = CognitoIdentityProviderClient.builder()
+                .region(Region.of(region))
+                .httpClient(cognitoHttpClient)
+                .credentialsProvider(cognitoCredentialsProvider)
+                .overrideConfiguration(overrideConfiguration(cognitoProperties, cognitoMetricsInterceptor));
+
+        if (cognitoProperties.getEndpoint() != null) {
+            builder.endpointOverride(cognitoProperties.getEndpoint());
+        }
+
+        return builder.build();
+    }
+
+    public static URI cognitoEndpoint(CognitoProperties cognitoProperties) {
+        if (cognitoProperties.getEndpoint() != null) {
+            return cognitoProperties.getEndpoint();
+        }
+
+        return URI.create("https://cognito-idp.%s.amazonaws.com/".formatted(cognitoProperties.getRegion()));
+    }
+
+    // throttling is handled by CognitoRateLimiter, retrying it here would only add to the load on the quota
+    private static ClientOverrideConfiguration overrideConfiguration(CognitoProperties cognitoProperties,
+                                                                     CognitoMetricsInterceptor cognitoMetricsInterceptor) {
+        var retryCondition = AndRetryCondition.create(
+                RetryCondition.defaultRetryCondition(),
+                context -> !RetryUtils.isThrottlingException(context.exception()));
+
+        var builder = ClientOverrideConfiguration.builder()
+                .retryPolicy(RetryPolicy.builder().retryCondition(retryCondition).build())
+                .addExecutionInterceptor(cognitoMetricsInterceptor);
+
+        CognitoTimeouts.applyDefault(builder, cognitoProperties);
+        return builder.build();
     }
 }
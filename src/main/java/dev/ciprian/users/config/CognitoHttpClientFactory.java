@@ -0,0 +1,93 @@
+package dev.ciprian.users.config;
+
+import org.springframework.util.ClassUtils;
+import software.amazon.awssdk.http.SdkHttpClient;
+import software.amazon.awssdk.http.apache.ApacheHttpClient;
+import software.amazon.awssdk.http.crt.AwsCrtHttpClient;
+import software.amazon.awssdk.http.crt.TcpKeepAliveConfiguration;
+import software.amazon.awssdk.http.urlconnection.UrlConnectionHttpClient;
+import software.amazon.awssdk.utils.AttributeMap;
+
+import java.time.Duration;
+
+/**
+ * Builds the HTTP client behind the Cognito SDK client from {@code cognito.transport}. Settings an implementation
+ * does not support are ignored: the URL connection client has no pool, so only the timeouts apply to it.
+ * <p>
+ * Only the Apache client is always packaged. The URL connection and CRT clients are added with
+ * {@code -PhttpTransports=url-connection,crt}, and each is built in a nested class so this one loads without them.
+ */
+public final class CognitoHttpClientFactory {
+
+    private static final Duration CRT_KEEP_ALIVE_INTERVAL = Duration.ofSeconds(30);
+    private static final Duration CRT_KEEP_ALIVE_TIMEOUT = Duration.ofSeconds(5);
+
+    private CognitoHttpClientFactory() {
+    }
+
+    public static SdkHttpClient create(CognitoProperties.Transport transport) {
+        return create(transport, AttributeMap.empty());
+    }
+
+    /**
+     * @param defaults SDK HTTP configuration options applied under the transport settings, for example to trust a
+     *                 self-signed certificate in tests
+     */
+    public static SdkHttpClient create(CognitoProperties.Transport transport, AttributeMap defaults) {
+        return switch (transport.getType()) {
+            case APACHE -> ApacheHttpClient.builder()
+                    .maxConnections(transport.getMaxConnections())
+                    .connectionTimeout(transport.getConnectionTimeout())
+                    .socketTimeout(transport.getSocketTimeout())
+                    .connectionTimeToLive(transport.getConnectionTimeToLive())
+                    .connectionMaxIdleTime(transport.getConnectionMaxIdleTime())
+                    .useIdleConnectionReaper(transport.isUseIdleConnectionReaper())
+                    .tcpKeepAlive(transport.isTcpKeepAlive())
+                    .buildWithDefaults(defaults);
+            case URL_CONNECTION -> {
+                requirePresent("software.amazon.awssdk.http.urlconnection.UrlConnectionHttpClient", "url-connection");
+                yield UrlConnection.create(transport, defaults);
+            }
+            case CRT -> {
+                requirePresent("software.amazon.awssdk.http.crt.AwsCrtHttpClient", "crt");
+                yield Crt.create(transport, defaults);
+            }
+        };
+    }
+
+    private static void requirePresent(String className, String transport) {
+        if (!ClassUtils.isPresent(className, CognitoHttpClientFactory.class.getClassLoader())) {
+            throw new IllegalStateException("cognito.transport.type=" + transport + " is not packaged, build the "
+                    + "function with -PhttpTransports=" + transport);
+        }
+    }
+
+    private static final class UrlConnection {
+
+        static SdkHttpClient create(CognitoProperties.Transport transport, AttributeMap defaults) {
+            return UrlConnectionHttpClient.builder()
+                    .connectionTimeout(transport.getConnectionTimeout())
+                    .socketTimeout(transport.getSocketTimeout())
+                    .buildWithDefaults(defaults);
+        }
+    }
+
+    private static final class Crt {
+
+        static SdkHttpClient create(CognitoProperties.Transport transport, AttributeMap defaults) {
+            var builder = AwsCrtHttpClient.builder()
+                    .maxConcurrency(transport.getMaxConnections())
+                    .connectionTimeout(transport.getConnectionTimeout())
+                    .connectionMaxIdleTime(transport.getConnectionMaxIdleTime());
+
+            if (transport.isTcpKeepAlive()) {
+                builder.tcpKeepAliveConfiguration(TcpKeepAliveConfiguration.builder()
+                        .keepAliveInterval(CRT_KEEP_ALIVE_INTERVAL)
+                        .keepAliveTimeout(CRT_KEEP_ALIVE_TIMEOUT)
+                        .build());
+            }
+
+            return builder.buildWithDefaults(defaults);
+        }
+    }
+}
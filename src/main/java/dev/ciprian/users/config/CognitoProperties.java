@@ -1,17 +1,34 @@
 package dev.ciprian.users.config;
 
-import jakarta.validation.constraints.NotEmpty;
+import dev.ciprian.users.ratelimit.QuotaCategory;
 import org.springframework.boot.context.properties.ConfigurationProperties;
-import org.springframework.validation.annotation.Validated;
 
-@Validated
+import java.net.URI;
+import java.time.Duration;
+import java.util.EnumMap;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Checked by {@link CognitoPropertiesValidator} when bound.
+ */
 @ConfigurationProperties(prefix = "cognito")
 public class CognitoProperties {
 
-    @NotEmpty(message = "Cognito region is required")
     private String region;
     private String userPoolId;
     private String clientId;
+    private URI endpoint;
+    private boolean asyncEnabled;
+    private String jwksLocation;
+    private Map<String, TenantPool> tenants = new HashMap<>();
+    private int bulkParallelism = 8;
+    private Map<QuotaCategory, Integer> rateLimits = new EnumMap<>(QuotaCategory.class);
+    private final Transport transport = new Transport();
+    private Map<String, Timeout> timeouts = new HashMap<>();
+    private final Hedging hedging = new Hedging();
+    private final LoginFailures loginFailures = new LoginFailures();
+    private final PasswordPolicy passwordPolicy = new PasswordPolicy();
 
     public String getRegion() {
         return region;
@@ -36,4 +53,352 @@ public class CognitoProperties {
     public void setClientId(String clientId) {
         this.clientId = clientId;
     }
+
+    public URI getEndpoint() {
+        return endpoint;
+    }
+
+    public void setEndpoint(URI endpoint) {
+        this.endpoint = endpoint;
+    }
+
+    public boolean isAsyncEnabled() {
+        return asyncEnabled;
+    }
+
+    public void setAsyncEnabled(boolean asyncEnabled) {
+        this.asyncEnabled = asyncEnabled;
+    }
+
+    public String getJwksLocation() {
+        return jwksLocation;
+    }
+
+    public void setJwksLocation(String jwksLocation) {
+        this.jwksLocation = jwksLocation;
+    }
+
+    public Map<String, TenantPool> getTenants() {
+        return tenants;
+    }
+
+    public void setTenants(Map<String, TenantPool> tenants) {
+        this.tenants = tenants;
+    }
+
+    public int getBulkParallelism() {
+        return bulkParallelism;
+    }
+
+    public void setBulkParallelism(int bulkParallelism) {
+        this.bulkParallelism = bulkParallelism;
+    }
+
+    public Map<QuotaCategory, Integer> getRateLimits() {
+        return rateLimits;
+    }
+
+    public void setRateLimits(Map<QuotaCategory, Integer> rateLimits) {
+        this.rateLimits = rateLimits;
+    }
+
+    public Transport getTransport() {
+        return transport;
+    }
+
+    public Map<String, Timeout> getTimeouts() {
+        return timeouts;
+    }
+
+    public void setTimeouts(Map<String, Timeout> timeouts) {
+        this.timeouts = timeouts;
+    }
+
+    public Hedging getHedging() {
+        return hedging;
+    }
+
+    public LoginFailures getLoginFailures() {
+        return loginFailures;
+    }
+
+    public PasswordPolicy getPasswordPolicy() {
+        return passwordPolicy;
+    }
+
+    public static class Transport {
+
+        private HttpTransportType type = HttpTransportType.APACHE;
+        private int maxConnections = 50;
+        private Duration connectionTimeout = Duration.ofSeconds(2);
+        private Duration socketTimeout = Duration.ofSeconds(30);
+        private Duration connectionTimeToLive = Duration.ZERO;
+        private Duration connectionMaxIdleTime = Duration.ofSeconds(60);
+        private boolean useIdleConnectionReaper = true;
+        private boolean tcpKeepAlive;
+        private boolean warmUp;
+
+        public HttpTransportType getType() {
+            return type;
+        }
+
+        public void setType(HttpTransportType type) {
+            this.type = type;
+        }
+
+        public int getMaxConnections() {
+            return maxConnections;
+        }
+
+        public void setMaxConnections(int maxConnections) {
+            this.maxConnections = maxConnections;
+        }
+
+        public Duration getConnectionTimeout() {
+            return connectionTimeout;
+        }
+
+        public void setConnectionTimeout(Duration connectionTimeout) {
+            this.connectionTimeout = connectionTimeout;
+        }
+
+        public Duration getSocketTimeout() {
+            return socketTimeout;
+        }
+
+        public void setSocketTimeout(Duration socketTimeout) {
+            this.socketTimeout = socketTimeout;
+        }
+
+        public Duration getConnectionTimeToLive() {
+            return connectionTimeToLive;
+        }
+
+        public void setConnectionTimeToLive(Duration connectionTimeToLive) {
+            this.connectionTimeToLive = connectionTimeToLive;
+        }
+
+        public Duration getConnectionMaxIdleTime() {
+            return connectionMaxIdleTime;
+        }
+
+        public void setConnectionMaxIdleTime(Duration connectionMaxIdleTime) {
+            this.connectionMaxIdleTime = connectionMaxIdleTime;
+        }
+
+        public boolean isUseIdleConnectionReaper() {
+            return useIdleConnectionReaper;
+        }
+
+        public void setUseIdleConnectionReaper(boolean useIdleConnectionReaper) {
+            this.useIdleConnectionReaper = useIdleConnectionReaper;
+        }
+
+        public boolean isTcpKeepAlive() {
+            return tcpKeepAlive;
+        }
+
+        public void setTcpKeepAlive(boolean tcpKeepAlive) {
+            this.tcpKeepAlive = tcpKeepAlive;
+        }
+
+        public boolean isWarmUp() {
+            return warmUp;
+        }
+
+        public void setWarmUp(boolean warmUp) {
+            this.warmUp = warmUp;
+        }
+    }
+
+    public static class Timeout {
+
+        private Duration apiCall;
+        private Duration apiCallAttempt;
+
+        public Duration getApiCall() {
+            return apiCall;
+        }
+
+        public void setApiCall(Duration apiCall) {
+            this.apiCall = apiCall;
+        }
+
+        public Duration getApiCallAttempt() {
+            return apiCallAttempt;
+        }
+
+        public void setApiCallAttempt(Duration apiCallAttempt) {
+            this.apiCallAttempt = apiCallAttempt;
+        }
+    }
+
+    public static class Hedging {
+
+        private boolean enabled;
+        private double percentile = 95.0;
+        private Duration initialDelay = Duration.ofMillis(200);
+        private Duration minDelay = Duration.ofMillis(20);
+
+        public boolean isEnabled() {
+            return enabled;
+        }
+
+        public void setEnabled(boolean enabled) {
+            this.enabled = enabled;
+        }
+
+        public double getPercentile() {
+            return percentile;
+        }
+
+        public void setPercentile(double percentile) {
+            this.percentile = percentile;
+        }
+
+        public Duration getInitialDelay() {
+            return initialDelay;
+        }
+
+        public void setInitialDelay(Duration initialDelay) {
+            this.initialDelay = initialDelay;
+        }
+
+        public Duration getMinDelay() {
+            return minDelay;
+        }
+
+        public void setMinDelay(Duration minDelay) {
+            this.minDelay = minDelay;
+        }
+    }
+
+    public static class LoginFailures {
+
+        private int maxFailures = 5;
+        private Duration window = Duration.ofMinutes(5);
+        private Duration coolingOff = Duration.ofMinutes(15);
+        private int maxUsernames = 10_000;
+
+        public int getMaxFailures() {
+            return maxFailures;
+        }
+
+        public void setMaxFailures(int maxFailures) {
+            this.maxFailures = maxFailures;
+        }
+
+        public Duration getWindow() {
+            return window;
+        }
+
+        public void setWindow(Duration window) {
+            this.window = window;
+        }
+
+        public Duration getCoolingOff() {
+            return coolingOff;
+        }
+
+        public void setCoolingOff(Duration coolingOff) {
+            this.coolingOff = coolingOff;
+        }
+
+        public int getMaxUsernames() {
+            return maxUsernames;
+        }
+
+        public void setMaxUsernames(int maxUsernames) {
+            this.maxUsernames = maxUsernames;
+        }
+    }
+
+    public static class PasswordPolicy {
+
+        private int minLength = 8;
+        private boolean requireLowercase = true;
+        private boolean requireUppercase = true;
+        private boolean requireNumbers = true;
+        private boolean requireSymbols = true;
+        private boolean describeUserPool;
+
+        public int getMinLength() {
+            return minLength;
+        }
+
+        public void setMinLength(int minLength) {
+            this.minLength = minLength;
+        }
+
+        public boolean isRequireLowercase() {
+            return requireLowercase;
+        }
+
+        public void setRequireLowercase(boolean requireLowercase) {
+            this.requireLowercase = requireLowercase;
+        }
+
+        public boolean isRequireUppercase() {
+            return requireUppercase;
+        }
+
+        public void setRequireUppercase(boolean requireUppercase) {
+            this.requireUppercase = requireUppercase;
+        }
+
+        public boolean isRequireNumbers() {
+            return requireNumbers;
+        }
+
+        public void setRequireNumbers(boolean requireNumbers) {
+            this.requireNumbers = requireNumbers;
+        }
+
+        public boolean isRequireSymbols() {
+            return requireSymbols;
+        }
+
+        public void setRequireSymbols(boolean requireSymbols) {
+            this.requireSymbols = requireSymbols;
+        }
+
+        public boolean isDescribeUserPool() {
+            return describeUserPool;
+        }
+
+        public void setDescribeUserPool(boolean describeUserPool) {
+            this.describeUserPool = describeUserPool;
+        }
+    }
+
+    public static class TenantPool {
+
+        private String region;
+        private String userPoolId;
+        private String clientId;
+
+        public String getRegion() {
+            return region;
+        }
+
+        public void setRegion(String region) {
+            this.region = region;
+        }
+
+        public String getUserPoolId() {
+            return userPoolId;
+        }
+
+        public void setUserPoolId(String userPoolId) {
+            this.userPoolId = userPoolId;
+        }
+
+        public String getClientId() {
+            return clientId;
+        }
+
+        public void setClientId(String clientId) {
+            this.clientId = clientId;
+        }
+    }
 }
@@ -0,0 +1,59 @@
+package dev.ciprian.users.config;
+
+import org.springframework.lang.NonNull;
+import org.springframework.util.StringUtils;
+import org.springframework.validation.Errors;
+import org.springframework.validation.Validator;
+
+/**
+ * Checks {@link CognitoProperties} when they are bound, with the checks written out instead of bean validation
+ * constraints so that binding them does not bootstrap Hibernate Validator.
+ */
+public class CognitoPropertiesValidator implements Validator {
+
+    @Override
+    public boolean supports(@NonNull Class<?> clazz) {
+        return CognitoProperties.class.isAssignableFrom(clazz);
+    }
+
+    @Override
+    public void validate(@NonNull Object target, @NonNull Errors errors) {
+        var cognitoProperties = (CognitoProperties) target;
+
+        if (!StringUtils.hasLength(cognitoProperties.getRegion())) {
+            errors.rejectValue("region", "NotEmpty", "Cognito region is required");
+        }
+
+        min(errors, "bulkParallelism", cognitoProperties.getBulkParallelism(), 1,
+                "Bulk parallelism must be at least 1");
+        min(errors, "transport.maxConnections", cognitoProperties.getTransport().getMaxConnections(), 1,
+                "Transport max connections must be at least 1");
+
+        var percentile = cognitoProperties.getHedging().getPercentile();
+
+        if (percentile < 50.0) {
+            errors.rejectValue("hedging.percentile", "DecimalMin", "Hedging percentile must be at least 50");
+        } else if (percentile > 99.9) {
+            errors.rejectValue("hedging.percentile", "DecimalMax", "Hedging percentile must be at most 99.9");
+        }
+
+        min(errors, "loginFailures.maxFailures", cognitoProperties.getLoginFailures().getMaxFailures(), 1,
+                "Login failure threshold must be at least 1");
+        min(errors, "loginFailures.maxUsernames", cognitoProperties.getLoginFailures().getMaxUsernames(), 1,
+                "Login failure tracker must hold at least 1 username");
+
+        var minLength = cognitoProperties.getPasswordPolicy().getMinLength();
+
+        if (minLength < 6) {
+            errors.rejectValue("passwordPolicy.minLength", "Min", "Password policy minimum length must be at least 6");
+        } else if (minLength > 99) {
+            errors.rejectValue("passwordPolicy.minLength", "Max", "Password policy minimum length must be at most 99");
+        }
+    }
+
+    private static void min(Errors errors, String field, int value, int min, String message) {
+        if (value < min) {
+            errors.rejectValue(field, "Min", message);
+        }
+    }
+}
@@ -0,0 +1,55 @@
+package dev.ciprian.users.config;
+
+import dev.ciprian.users.models.GenericResponse;
+import org.springframework.lang.Nullable;
+import software.amazon.awssdk.awscore.AwsRequestOverrideConfiguration;
+import software.amazon.awssdk.core.client.config.ClientOverrideConfiguration;
+import software.amazon.awssdk.core.exception.ApiCallAttemptTimeoutException;
+import software.amazon.awssdk.core.exception.ApiCallTimeoutException;
+import software.amazon.awssdk.core.exception.SdkClientException;
+
+/**
+ * Applies {@code cognito.timeouts}. The {@code default} entry goes on the clients, the other entries, keyed like the
+ * tracing operations ({@code login-user}, {@code create-user}, ...), go on the requests of that operation.
+ */
+public final class CognitoTimeouts {
+
+    public static final String DEFAULT = "default";
+
+    private CognitoTimeouts() {
+    }
+
+    @Nullable
+    public static AwsRequestOverrideConfiguration forOperation(CognitoProperties cognitoProperties, String operation) {
+        var timeout = cognitoProperties.getTimeouts().get(operation);
+
+        if (timeout == null) {
+            return null;
+        }
+
+        return AwsRequestOverrideConfiguration.builder()
+                .apiCallTimeout(timeout.getApiCall())
+                .apiCallAttemptTimeout(timeout.getApiCallAttempt())
+                .build();
+    }
+
+    /**
+     * Marks {@code response} as timed out when the call failed on one of the timeouts, so it is answered with a
+     * {@code 504} instead of the status of a failed call.
+     */
+    public static <T extends GenericResponse> T clientError(T response, SdkClientException exception) {
+        if (exception instanceof ApiCallTimeoutException || exception instanceof ApiCallAttemptTimeoutException) {
+            response.setTimedOut(true);
+        }
+
+        return response;
+    }
+
+    static void applyDefault(ClientOverrideConfiguration.Builder builder, CognitoProperties cognitoProperties) {
+        var timeout = cognitoProperties.getTimeouts().get(DEFAULT);
+
+        if (timeout != null) {
+            builder.apiCallTimeout(timeout.getApiCall()).apiCallAttemptTimeout(timeout.getApiCallAttempt());
+        }
+    }
+}
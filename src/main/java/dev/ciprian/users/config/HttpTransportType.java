@@ -0,0 +1,8 @@
+package dev.ciprian.users.config;
+
+public enum HttpTransportType {
+
+    APACHE,
+    URL_CONNECTION,
+    CRT
+}
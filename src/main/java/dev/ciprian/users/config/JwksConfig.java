@@ -0,0 +1,55 @@
+package dev.ciprian.users.config;
+
+import com.nimbusds.jose.jwk.JWKSet;
+import com.nimbusds.jose.jwk.source.ImmutableJWKSet;
+import com.nimbusds.jose.jwk.source.JWKSource;
+import com.nimbusds.jose.jwk.source.JWKSourceBuilder;
+import com.nimbusds.jose.proc.SecurityContext;
+import dev.ciprian.users.tenancy.Tenant;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.core.io.ResourceLoader;
+import org.springframework.util.StringUtils;
+
+import java.io.IOException;
+import java.net.MalformedURLException;
+import java.net.URI;
+import java.text.ParseException;
+import java.time.Duration;
+
+@Configuration
+public class JwksConfig {
+
+    // Cognito rotates its signing keys rarely, an unknown kid still forces an early refresh
+    private static final Duration JWKS_TIME_TO_LIVE = Duration.ofHours(12);
+    private static final Duration JWKS_REFRESH_TIMEOUT = Duration.ofSeconds(15);
+
+    private final CognitoProperties cognitoProperties;
+
+    public JwksConfig(CognitoProperties cognitoProperties) {
+        this.cognitoProperties = cognitoProperties;
+    }
+
+    @Bean
+    public JWKSource<SecurityContext> cognitoJwkSource(ResourceLoader resourceLoader) throws IOException, ParseException {
+        if (StringUtils.hasText(cognitoProperties.getJwksLocation())) {
+            try (var inputStream = resourceLoader.getResource(cognitoProperties.getJwksLocation()).getInputStream()) {
+                return new ImmutableJWKSet<>(JWKSet.load(inputStream));
+            }
+        }
+
+        return remoteJwkSource(issuer(cognitoProperties));
+    }
+
+    public static JWKSource<SecurityContext> remoteJwkSource(String issuer) throws MalformedURLException {
+        var jwksUrl = URI.create(issuer + "/.well-known/jwks.json").toURL();
+
+        return JWKSourceBuilder.create(jwksUrl)
+                .cache(JWKS_TIME_TO_LIVE.toMillis(), JWKS_REFRESH_TIMEOUT.toMillis())
+                .build();
+    }
+
+    public static String issuer(CognitoProperties cognitoProperties) {
+        return Tenant.defaultTenant(cognitoProperties).issuer();
+    }
+}
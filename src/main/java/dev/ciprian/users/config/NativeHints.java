@@ -0,0 +1,84 @@
+package dev.ciprian.users.config;
+
+import dev.ciprian.users.keepwarm.KeepWarmResponder;
+import dev.ciprian.users.models.AccessResponse;
+import dev.ciprian.users.models.GenericResponse;
+import dev.ciprian.users.models.User;
+import org.springframework.aot.hint.BindingReflectionHintsRegistrar;
+import org.springframework.aot.hint.MemberCategory;
+import org.springframework.aot.hint.RuntimeHints;
+import org.springframework.aot.hint.RuntimeHintsRegistrar;
+import org.springframework.aot.hint.TypeReference;
+import org.springframework.lang.Nullable;
+import software.amazon.awssdk.services.cognitoidentityprovider.model.*;
+
+import java.util.List;
+
+/**
+ * Reflection, resource and proxy hints for the native image build.
+ */
+public class NativeHints implements RuntimeHintsRegistrar {
+
+    private static final List<Class<?>> COGNITO_MODEL_TYPES = List.of(
+            AdminCreateUserRequest.class,
+            AdminCreateUserResponse.class,
+            AdminSetUserPasswordRequest.class,
+            AdminSetUserPasswordResponse.class,
+            AdminUpdateUserAttributesRequest.class,
+            AdminUpdateUserAttributesResponse.class,
+            AdminInitiateAuthRequest.class,
+            AdminInitiateAuthResponse.class,
+            AdminGetUserRequest.class,
+            AdminGetUserResponse.class,
+            DescribeUserPoolRequest.class,
+            DescribeUserPoolResponse.class,
+            UserPoolType.class,
+            UserPoolPolicyType.class,
+            PasswordPolicyType.class,
+            AuthenticationResultType.class,
+            AttributeType.class,
+            UserType.class,
+            CognitoIdentityProviderException.class,
+            InvalidPasswordException.class,
+            NotAuthorizedException.class,
+            TooManyRequestsException.class,
+            UsernameExistsException.class,
+            UserNotFoundException.class);
+
+    private static final List<String> XRAY_TYPES = List.of(
+            "com.amazonaws.xray.handlers.TracingHandler",
+            "com.amazonaws.xray.entities.EntityImpl",
+            "com.amazonaws.xray.entities.SegmentImpl",
+            "com.amazonaws.xray.entities.SubsegmentImpl",
+            "com.amazonaws.xray.entities.Cause",
+            "com.amazonaws.xray.entities.ThrowableDescription");
+
+    private static final List<String> RESOURCES = List.of(
+            "com/amazonaws/global/handlers/request.handler2s",
+            "com/amazonaws/xray/sdk.properties",
+            "com/amazonaws/xray/handlers/DefaultOperationParameterWhitelist.json",
+            "com/amazonaws/xray/strategy/sampling/DefaultSamplingRules.json",
+            "software/amazon/awssdk/global/handlers/execution.interceptors",
+            "software/amazon/awssdk/services/cognitoidentityprovider/execution.interceptors");
+
+    @Override
+    public void registerHints(RuntimeHints hints, @Nullable ClassLoader classLoader) {
+        new BindingReflectionHintsRegistrar().registerReflectionHints(hints.reflection(),
+                User.class, AccessResponse.class, GenericResponse.class, KeepWarmResponder.KeepWarmResponse.class);
+        hints.reflection().registerType(CognitoProperties.class, MemberCategory.values());
+
+        COGNITO_MODEL_TYPES.forEach(type -> hints.reflection().registerType(type,
+                MemberCategory.INVOKE_PUBLIC_CONSTRUCTORS, MemberCategory.INVOKE_PUBLIC_METHODS,
+                MemberCategory.INVOKE_DECLARED_METHODS));
+        XRAY_TYPES.forEach(type -> hints.reflection().registerType(TypeReference.of(type), MemberCategory.values()));
+        RESOURCES.forEach(resource -> hints.resources().registerPattern(resource));
+
+        hints.proxies().registerJdkProxy(
+                TypeReference.of("org.apache.http.conn.HttpClientConnectionManager"),
+                TypeReference.of("org.apache.http.pool.ConnPoolControl"),
+                TypeReference.of("software.amazon.awssdk.http.apache.internal.conn.Wrapped"));
+        hints.proxies().registerJdkProxy(
+                TypeReference.of("org.apache.http.conn.ConnectionRequest"),
+                TypeReference.of("software.amazon.awssdk.http.apache.internal.conn.Wrapped"));
+    }
+}
@@ -0,0 +1,43 @@
+package dev.ciprian.users.config;
+
+import software.amazon.awssdk.auth.credentials.AwsCredentials;
+import software.amazon.awssdk.auth.credentials.AwsCredentialsProvider;
+import software.amazon.awssdk.utils.SdkAutoCloseable;
+
+import java.util.function.Supplier;
+
+/**
+ * Credentials provider that can be rebuilt in place, dropping whatever credentials the previous one had cached.
+ */
+public class ReloadableCredentialsProvider implements AwsCredentialsProvider, SdkAutoCloseable {
+
+    private final Supplier<AwsCredentialsProvider> factory;
+    private volatile AwsCredentialsProvider delegate;
+
+    public ReloadableCredentialsProvider(Supplier<AwsCredentialsProvider> factory) {
+        this.factory = factory;
+        this.delegate = factory.get();
+    }
+
+    @Override
+    public AwsCredentials resolveCredentials() {
+        return delegate.resolveCredentials();
+    }
+
+    public synchronized void reload() {
+        var previous = delegate;
+        delegate = factory.get();
+        closeQuietly(previous);
+    }
+
+    @Override
+    public synchronized void close() {
+        closeQuietly(delegate);
+    }
+
+    private static void closeQuietly(AwsCredentialsProvider provider) {
+        if (provider instanceof SdkAutoCloseable closeable) {
+            closeable.close();
+        }
+    }
+}
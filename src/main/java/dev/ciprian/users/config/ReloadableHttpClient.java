@@ -0,0 +1,102 @@
+package dev.ciprian.users.config;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.lang.Nullable;
+import software.amazon.awssdk.http.ExecutableHttpRequest;
+import software.amazon.awssdk.http.HttpExecuteRequest;
+import software.amazon.awssdk.http.SdkHttpClient;
+import software.amazon.awssdk.http.SdkHttpMethod;
+import software.amazon.awssdk.http.SdkHttpRequest;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.net.URI;
+import java.util.function.Supplier;
+
+/**
+ * HTTP client for the Cognito SDK client that can be rebuilt in place, so pooled connections that went stale across
+ * a snapshot can be dropped without rebuilding the SDK client or the beans holding it.
+ */
+public class ReloadableHttpClient implements SdkHttpClient {
+
+    private final Logger log;
+    private final Supplier<SdkHttpClient> factory;
+    @Nullable
+    private final URI warmUpEndpoint;
+    private volatile SdkHttpClient delegate;
+    @Nullable
+    private volatile SdkHttpClient standIn;
+
+    public ReloadableHttpClient(Supplier<SdkHttpClient> factory) {
+        this(factory, null);
+    }
+
+    public ReloadableHttpClient(Supplier<SdkHttpClient> factory, @Nullable URI warmUpEndpoint) {
+        this.log = LoggerFactory.getLogger(this.getClass());
+        this.factory = factory;
+        this.warmUpEndpoint = warmUpEndpoint;
+        this.delegate = factory.get();
+    }
+
+    @Override
+    public ExecutableHttpRequest prepareRequest(HttpExecuteRequest request) {
+        var current = standIn;
+        return (current != null ? current : delegate).prepareRequest(request);
+    }
+
+    /**
+     * Routes every request to the given client instead of the real one until it is cleared with {@code null}.
+     */
+    public void setStandIn(@Nullable SdkHttpClient standIn) {
+        this.standIn = standIn;
+    }
+
+    public synchronized void reload() {
+        var previous = delegate;
+        delegate = factory.get();
+        previous.close();
+    }
+
+    /**
+     * Sends one request to the warm-up endpoint, if there is one, so the TLS handshake is done and the connection is
+     * pooled before the first Cognito call. The response itself is ignored and failures are only logged.
+     */
+    public void warmUp() {
+        if (warmUpEndpoint != null) {
+            warmUp(warmUpEndpoint);
+        }
+    }
+
+    /**
+     * Sends one request to {@code endpoint} through the current client, completing a real TLS handshake. The response
+     * itself is ignored and failures are only logged.
+     */
+    public void warmUp(URI endpoint) {
+        var request = HttpExecuteRequest.builder()
+                .request(SdkHttpRequest.builder().method(SdkHttpMethod.GET).uri(endpoint).build())
+                .build();
+
+        try {
+            var responseBody = delegate.prepareRequest(request).call().responseBody();
+
+            if (responseBody.isPresent()) {
+                try (var inputStream = responseBody.get()) {
+                    inputStream.transferTo(OutputStream.nullOutputStream());
+                }
+            }
+        } catch (IOException | RuntimeException exception) {
+            log.warn("Could not warm up the connection to {}: {}", endpoint, exception.getMessage());
+        }
+    }
+
+    @Override
+    public String clientName() {
+        return delegate.clientName();
+    }
+
+    @Override
+    public synchronized void close() {
+        delegate.close();
+    }
+}
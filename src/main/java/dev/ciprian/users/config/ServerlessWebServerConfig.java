@@ -0,0 +1,25 @@
+package dev.ciprian.users.config;
+
+import com.amazonaws.serverless.proxy.spring.embedded.ServerlessServletEmbeddedServerFactory;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnMissingBean;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnMissingClass;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnWebApplication;
+import org.springframework.boot.web.servlet.server.ServletWebServerFactory;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+/**
+ * Declares the serverless web server factory as a regular bean when no embedded Tomcat is around. The lambda handler
+ * normally registers it as a primary source, but AOT generated contexts do not load primary sources.
+ */
+@Configuration(proxyBeanMethods = false)
+@ConditionalOnWebApplication(type = ConditionalOnWebApplication.Type.SERVLET)
+@ConditionalOnMissingClass("org.apache.catalina.startup.Tomcat")
+public class ServerlessWebServerConfig {
+
+    @Bean
+    @ConditionalOnMissingBean(ServletWebServerFactory.class)
+    public ServletWebServerFactory serverlessWebServerFactory() {
+        return new ServerlessServletEmbeddedServerFactory();
+    }
+}
@@ -8,4 +8,9 @@ public class UserConstants {
     public static final String EMAIL_VERIFIED = "email_verified";
     public static final String AUTH_USERNAME = "USERNAME";
     public static final String AUTH_PASSWORD = "PASSWORD";
+    public static final String AUTH_REFRESH_TOKEN = "REFRESH_TOKEN";
+    public static final String TOKEN_USE = "token_use";
+    public static final String TOKEN_USE_ACCESS = "access";
+    public static final String TOKEN_USE_ID = "id";
+    public static final String CLIENT_ID = "client_id";
 }
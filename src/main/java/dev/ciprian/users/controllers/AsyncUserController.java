@@ -0,0 +1,82 @@
+package dev.ciprian.users.controllers;
+
+import dev.ciprian.users.models.AccessResponse;
+import dev.ciprian.users.models.GenericResponse;
+import dev.ciprian.users.models.User;
+import dev.ciprian.users.services.AsyncLoginService;
+import dev.ciprian.users.services.AsyncRegisterService;
+import dev.ciprian.users.tenancy.DefaultTenantOnly;
+import dev.ciprian.users.validation.UserPolicyValidator;
+import jakarta.validation.Valid;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RequestBody;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RestController;
+
+import java.util.concurrent.CompletableFuture;
+
+// the async client is built for the default pool only
+@RestController
+@RequestMapping("/users/async")
+@ConditionalOnProperty(prefix = "cognito", name = "async-enabled", havingValue = "true")
+@DefaultTenantOnly
+public class AsyncUserController {
+
+    private final AsyncRegisterService registerService;
+    private final AsyncLoginService loginService;
+    private final UserPolicyValidator userPolicyValidator;
+
+    public AsyncUserController(AsyncRegisterService registerService, AsyncLoginService loginService,
+                               UserPolicyValidator userPolicyValidator) {
+        this.registerService = registerService;
+        this.loginService = loginService;
+        this.userPolicyValidator = userPolicyValidator;
+    }
+
+    @PostMapping("/register")
+    public CompletableFuture<ResponseEntity<GenericResponse>> register(@RequestBody @Valid User user) {
+        var policyErrors = userPolicyValidator.validate(user);
+
+        if (!policyErrors.isEmpty()) {
+            var response = new GenericResponse(false);
+            response.addErrorMessages(policyErrors);
+            return CompletableFuture.completedFuture(ResponseEntity.badRequest().body(response));
+        }
+
+        return registerService.createUser(user)
+                .thenCompose(response -> response.isValid() ? registerService.setUserPassword(user) : CompletableFuture.completedFuture(response))
+                .thenCompose(response -> {
+                    if (response.isNotValid()) {
+                        return CompletableFuture.completedFuture(ResponseEntity.status(failureStatus(response, HttpStatus.INTERNAL_SERVER_ERROR)).body(response));
+                    }
+
+                    return loginService.login(user).thenApply(loginResponse -> loginResponse.isNotValid()
+                            ? ResponseEntity.status(failureStatus(loginResponse, HttpStatus.FORBIDDEN)).<GenericResponse>body(loginResponse)
+                            : ResponseEntity.<GenericResponse>ok(loginResponse));
+                });
+    }
+
+    @PostMapping("/login")
+    public CompletableFuture<ResponseEntity<AccessResponse>> login(@RequestBody @Valid User user) {
+        return loginService.login(user).thenApply(AsyncUserController::toResponseEntity);
+    }
+
+    private static ResponseEntity<AccessResponse> toResponseEntity(AccessResponse response) {
+        if (response.isNotValid()) {
+            return ResponseEntity.status(failureStatus(response, HttpStatus.FORBIDDEN)).body(response);
+        }
+
+        return ResponseEntity.ok(response);
+    }
+
+    private static HttpStatus failureStatus(GenericResponse response, HttpStatus status) {
+        if (response.isThrottled()) {
+            return HttpStatus.TOO_MANY_REQUESTS;
+        }
+
+        return response.isTimedOut() ? HttpStatus.GATEWAY_TIMEOUT : status;
+    }
+}
@@ -0,0 +1,28 @@
+package dev.ciprian.users.controllers;
+
+import dev.ciprian.users.services.BulkRegisterService;
+import jakarta.servlet.http.HttpServletResponse;
+import org.springframework.http.MediaType;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RestController;
+
+import java.io.IOException;
+import java.io.InputStream;
+
+@RestController
+@RequestMapping({"/users/bulk", "/tenants/{tenant}/users/bulk"})
+public class BulkUserController {
+
+    private final BulkRegisterService bulkRegisterService;
+
+    public BulkUserController(BulkRegisterService bulkRegisterService) {
+        this.bulkRegisterService = bulkRegisterService;
+    }
+
+    @PostMapping(path = "/register", consumes = MediaType.APPLICATION_NDJSON_VALUE, produces = MediaType.APPLICATION_NDJSON_VALUE)
+    public void register(InputStream requestBody, HttpServletResponse response) throws IOException {
+        response.setContentType(MediaType.APPLICATION_NDJSON_VALUE);
+        bulkRegisterService.registerAll(requestBody, response.getOutputStream());
+    }
+}
@@ -0,0 +1,249 @@
+package dev.ciprian.users.controllers;
+
+import com.fasterxml.jackson.core.JsonParseException;
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.core.JsonToken;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectReader;
+import dev.ciprian.users.models.GenericResponse;
+import dev.ciprian.users.models.RefreshRequest;
+import dev.ciprian.users.models.User;
+import dev.ciprian.users.models.VerifyRequest;
+import dev.ciprian.users.tenancy.Tenants;
+import dev.ciprian.users.validation.RequestValidator;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpMethod;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.lang.Nullable;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.util.Base64;
+import java.util.Map;
+import java.util.function.BiFunction;
+
+/**
+ * Routes API Gateway proxy events straight to {@link UserController}, without the servlet emulation, the dispatcher
+ * servlet or the filter chain. Used by {@link dev.ciprian.users.DirectStreamHandler}.
+ * <p>
+ * Events are read with the streaming parser, keeping only the fields routing needs, and the proxy response is written
+ * straight to the handler's output stream with the body serialized once. The bodies of the fixed error responses are
+ * serialized up front. A route that throws gets a {@code 500} with a JSON body, as under MVC, instead of failing the
+ * invocation.
+ * <p>
+ * Like {@link dev.ciprian.users.tenancy.TenantInterceptor}, the tenant comes from a {@code /tenants/{tenant}} path
+ * prefix or the {@value Tenants#TENANT_HEADER} header, and the route runs with it as the current tenant.
+ */
+@Component
+public class DirectDispatcher {
+
+    private static final String TENANTS_PREFIX = "/tenants/";
+
+    private final Logger log;
+    private final ObjectMapper objectMapper;
+    private final RequestValidator validator;
+    private final Tenants tenants;
+    private final Map<String, Route<?>> routes;
+    private final ResponseEntity<byte[]> notFound;
+    private final ResponseEntity<byte[]> unknownTenant;
+    private final ResponseEntity<byte[]> methodNotAllowed;
+    private final ResponseEntity<byte[]> malformedBody;
+    private final ResponseEntity<byte[]> internalServerError;
+
+    public DirectDispatcher(ObjectMapper objectMapper, RequestValidator validator, Tenants tenants,
+                            UserController userController) throws JsonProcessingException {
+        this.log = LoggerFactory.getLogger(this.getClass());
+        this.objectMapper = objectMapper;
+        this.validator = validator;
+        this.tenants = tenants;
+        this.routes = Map.of(
+                "/users/register", route(User.class, (user, event) -> userController.register(user, event.idempotencyKey())),
+                "/users/login", route(User.class, (user, event) -> userController.login(user)),
+                "/users/refresh", route(RefreshRequest.class, (refreshRequest, event) -> userController.refresh(refreshRequest)),
+                "/users/verify", route(VerifyRequest.class, (verifyRequest, event) -> userController.verify(verifyRequest)));
+        this.notFound = preSerialized(HttpStatus.NOT_FOUND, "Not found");
+        this.unknownTenant = preSerialized(HttpStatus.NOT_FOUND, "Unknown tenant");
+        this.methodNotAllowed = preSerialized(HttpStatus.METHOD_NOT_ALLOWED, "Method not allowed");
+        this.malformedBody = preSerialized(HttpStatus.BAD_REQUEST, "Malformed request body");
+        this.internalServerError = preSerialized(HttpStatus.INTERNAL_SERVER_ERROR, "Internal server error");
+    }
+
+    public void dispatch(InputStream inputStream, OutputStream outputStream) throws IOException {
+        write(outputStream, handle(read(inputStream)));
+    }
+
+    ResponseEntity<?> handle(ProxyEvent event) {
+        var path = event.path();
+        var tenantId = event.tenantId();
+
+        if (path != null && path.startsWith(TENANTS_PREFIX)) {
+            var end = path.indexOf('/', TENANTS_PREFIX.length());
+
+            if (end < 0) {
+                return notFound;
+            }
+
+            tenantId = path.substring(TENANTS_PREFIX.length(), end);
+            path = path.substring(end);
+        }
+
+        var route = routes.get(path);
+
+        if (route == null) {
+            return notFound;
+        }
+
+        var tenant = tenants.find(tenantId);
+
+        if (tenant == null) {
+            return unknownTenant;
+        }
+
+        if (!HttpMethod.POST.matches(event.httpMethod())) {
+            return methodNotAllowed;
+        }
+
+        Object body;
+
+        try {
+            body = route.read(event);
+        } catch (IOException | IllegalArgumentException exception) {
+            return malformedBody;
+        }
+
+        if (body == null) {
+            return malformedBody;
+        }
+
+        var violations = validator.validate(body);
+
+        if (!violations.isEmpty()) {
+            var response = new GenericResponse(false);
+            response.addErrorMessages(violations);
+            return ResponseEntity.badRequest().body(response);
+        }
+
+        try {
+            return tenants.callAs(tenant, () -> route.handle(body, event));
+        } catch (RuntimeException exception) {
+            log.error("Could not handle request to {}", path, exception);
+            return internalServerError;
+        }
+    }
+
+    private ProxyEvent read(InputStream inputStream) throws IOException {
+        String path = null;
+        String httpMethod = null;
+        var headers = Headers.NONE;
+        String body = null;
+        var base64Encoded = false;
+
+        try (var parser = objectMapper.createParser(inputStream)) {
+            if (parser.nextToken() != JsonToken.START_OBJECT) {
+                throw new JsonParseException(parser, "Expected an API Gateway proxy event");
+            }
+
+            while (parser.nextToken() == JsonToken.FIELD_NAME) {
+                var field = parser.currentName();
+                var token = parser.nextToken();
+
+                switch (field) {
+                    case "path" -> path = parser.getValueAsString();
+                    case "httpMethod" -> httpMethod = parser.getValueAsString();
+                    case "headers" -> headers = readHeaders(parser, token);
+                    case "body" -> body = parser.getValueAsString();
+                    case "isBase64Encoded" -> base64Encoded = token == JsonToken.VALUE_TRUE;
+                    default -> parser.skipChildren();
+                }
+            }
+        }
+
+        return new ProxyEvent(path, httpMethod, headers.idempotencyKey(), headers.tenantId(), body, base64Encoded);
+    }
+
+    // header names are case-insensitive and API Gateway passes them as the client sent them
+    private static Headers readHeaders(JsonParser parser, JsonToken token) throws IOException {
+        String idempotencyKey = null;
+        String tenantId = null;
+
+        if (token != JsonToken.START_OBJECT) {
+            parser.skipChildren();
+            return Headers.NONE;
+        }
+
+        while (parser.nextToken() == JsonToken.FIELD_NAME) {
+            var header = parser.currentName();
+            parser.nextToken();
+
+            if (UserController.IDEMPOTENCY_KEY.equalsIgnoreCase(header)) {
+                idempotencyKey = parser.getValueAsString();
+            } else if (Tenants.TENANT_HEADER.equalsIgnoreCase(header)) {
+                tenantId = parser.getValueAsString();
+            } else {
+                parser.skipChildren();
+            }
+        }
+
+        return new Headers(idempotencyKey, tenantId);
+    }
+
+    private void write(OutputStream outputStream, ResponseEntity<?> response) throws IOException {
+        var body = response.getBody() instanceof byte[] bytes ? bytes : objectMapper.writeValueAsBytes(response.getBody());
+
+        try (var generator = objectMapper.getFactory().createGenerator(outputStream)) {
+            generator.writeStartObject();
+            generator.writeNumberField("statusCode", response.getStatusCode().value());
+            generator.writeObjectFieldStart("headers");
+            generator.writeStringField(HttpHeaders.CONTENT_TYPE, MediaType.APPLICATION_JSON_VALUE);
+            generator.writeEndObject();
+            generator.writeFieldName("body");
+            generator.writeUTF8String(body, 0, body.length);
+            generator.writeBooleanField("isBase64Encoded", false);
+            generator.writeEndObject();
+        }
+    }
+
+    private ResponseEntity<byte[]> preSerialized(HttpStatus status, String message) throws JsonProcessingException {
+        return ResponseEntity.status(status).body(objectMapper.writeValueAsBytes(new GenericResponse(false, message)));
+    }
+
+    private <T> Route<T> route(Class<T> bodyType, BiFunction<T, ProxyEvent, ResponseEntity<? extends GenericResponse>> action) {
+        return new Route<>(bodyType, objectMapper.readerFor(bodyType), action);
+    }
+
+    record ProxyEvent(@Nullable String path, @Nullable String httpMethod, @Nullable String idempotencyKey,
+                      @Nullable String tenantId, @Nullable String body, boolean base64Encoded) {
+    }
+
+    private record Headers(@Nullable String idempotencyKey, @Nullable String tenantId) {
+
+        static final Headers NONE = new Headers(null, null);
+    }
+
+    private record Route<T>(Class<T> bodyType, ObjectReader reader,
+                            BiFunction<T, ProxyEvent, ResponseEntity<? extends GenericResponse>> action) {
+
+        Object read(ProxyEvent event) throws IOException {
+            if (event.body() == null) {
+                throw new IllegalArgumentException("Missing request body");
+            }
+
+            if (event.base64Encoded()) {
+                return reader.readValue(Base64.getDecoder().decode(event.body()));
+            }
+
+            return reader.readValue(event.body());
+        }
+
+        ResponseEntity<? extends GenericResponse> handle(Object body, ProxyEvent event) {
+            return action.apply(bodyType.cast(body), event);
+        }
+    }
+}
@@ -2,66 +2,106 @@ package dev.ciprian.users.controllers;
 
 import dev.ciprian.users.models.AccessResponse;
 import dev.ciprian.users.models.GenericResponse;
+import dev.ciprian.users.models.RefreshRequest;
 import dev.ciprian.users.models.User;
+import dev.ciprian.users.models.VerifyRequest;
+import dev.ciprian.users.models.VerifyResponse;
 import dev.ciprian.users.services.LoginService;
-import dev.ciprian.users.services.RegisterService;
+import dev.ciprian.users.services.RegistrationSaga;
+import dev.ciprian.users.services.VerifyService;
+import dev.ciprian.users.validation.UserPolicyValidator;
 import jakarta.validation.Valid;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
+import org.springframework.lang.Nullable;
 import org.springframework.web.bind.annotation.PostMapping;
 import org.springframework.web.bind.annotation.RequestBody;
+import org.springframework.web.bind.annotation.RequestHeader;
 import org.springframework.web.bind.annotation.RequestMapping;
 import org.springframework.web.bind.annotation.RestController;
 
 @RestController
-@RequestMapping("/users")
+@RequestMapping({"/users", "/tenants/{tenant}/users"})
 public class UserController {
 
-    private final RegisterService registerService;
+    public static final String IDEMPOTENCY_KEY = "Idempotency-Key";
+
+    private final RegistrationSaga registrationSaga;
     private final LoginService loginService;
+    private final VerifyService verifyService;
+    private final UserPolicyValidator userPolicyValidator;
 
-    public UserController(RegisterService registerService, LoginService loginService) {
-        this.registerService = registerService;
+    public UserController(RegistrationSaga registrationSaga, LoginService loginService, VerifyService verifyService,
+                          UserPolicyValidator userPolicyValidator) {
+        this.registrationSaga = registrationSaga;
         this.loginService = loginService;
+        this.verifyService = verifyService;
+        this.userPolicyValidator = userPolicyValidator;
     }
 
     @PostMapping("/register")
-    public ResponseEntity<GenericResponse> register(@RequestBody @Valid User user) {
-        var response = registerService.createUser(user);
-
-        if (response.isNotValid()) {
-            return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR).body(response);
+    public ResponseEntity<GenericResponse> register(@RequestBody @Valid User user,
+                                                    @RequestHeader(name = IDEMPOTENCY_KEY, required = false) @Nullable String idempotencyKey) {
+        var policyErrors = userPolicyValidator.validate(user);
+
+        if (!policyErrors.isEmpty()) {
+            var response = new GenericResponse(false);
+            response.addErrorMessages(policyErrors);
+            return ResponseEntity.badRequest().body(response);
         }
 
-        response = registerService.setUserPassword(user);
+        var result = registrationSaga.register(user, idempotencyKey);
 
-        if (response.isNotValid()) {
-            return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR).body(response);
+        if (!result.isSuccessful()) {
+            var fallback = result.failedStep() == RegistrationSaga.Step.LOGIN ? HttpStatus.FORBIDDEN : HttpStatus.INTERNAL_SERVER_ERROR;
+            return ResponseEntity.status(failureStatus(result.response(), fallback)).body(result.response());
         }
 
-        response = registerService.confirmUserEmail(user);
+        return ResponseEntity.ok(result.response());
+    }
+
+    @PostMapping("/login")
+    public ResponseEntity<AccessResponse> login(@RequestBody @Valid User user) {
+        var response = loginService.login(user);
 
         if (response.isNotValid()) {
-            return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR).body(response);
+            return ResponseEntity.status(failureStatus(response, HttpStatus.FORBIDDEN)).body(response);
         }
 
-        response = loginService.login(user);
+        return ResponseEntity.ok(response);
+    }
+
+    @PostMapping("/refresh")
+    public ResponseEntity<AccessResponse> refresh(@RequestBody @Valid RefreshRequest refreshRequest) {
+        var response = loginService.refresh(refreshRequest);
 
         if (response.isNotValid()) {
-            return ResponseEntity.status(HttpStatus.FORBIDDEN).body(response);
+            return ResponseEntity.status(failureStatus(response, HttpStatus.FORBIDDEN)).body(response);
         }
 
         return ResponseEntity.ok(response);
     }
 
-    @PostMapping("/login")
-    public ResponseEntity<AccessResponse> login(@RequestBody @Valid User user) {
-        var response = loginService.login(user);
+    @PostMapping("/verify")
+    public ResponseEntity<VerifyResponse> verify(@RequestBody @Valid VerifyRequest verifyRequest) {
+        var response = verifyService.verify(verifyRequest);
 
         if (response.isNotValid()) {
-            return ResponseEntity.status(HttpStatus.FORBIDDEN).body(response);
+            return ResponseEntity.status(HttpStatus.UNAUTHORIZED).body(response);
         }
 
         return ResponseEntity.ok(response);
     }
+
+    private static HttpStatus failureStatus(GenericResponse response, HttpStatus status) {
+        if (response.isThrottled()) {
+            return HttpStatus.TOO_MANY_REQUESTS;
+        }
+
+        if (response.isTimedOut()) {
+            return HttpStatus.GATEWAY_TIMEOUT;
+        }
+
+        return response.isConflict() ? HttpStatus.CONFLICT : status;
+    }
 }
@@ -0,0 +1,160 @@
+package dev.ciprian.users.hedging;
+
+import com.amazonaws.xray.AWSXRay;
+import dev.ciprian.users.config.CognitoProperties;
+import dev.ciprian.users.metrics.InvocationMetrics;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.stereotype.Component;
+
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.BooleanSupplier;
+import java.util.function.Supplier;
+
+/**
+ * Sends a second attempt of a slow call once it has taken longer than the configured percentile of its recent
+ * attempts, and returns whichever attempt succeeds first. Only meant for calls that are safe to repeat.
+ * <p>
+ * Attempts run on virtual threads with the caller's X-Ray entity. The losing attempt is not cancelled, its result is
+ * dropped when it arrives.
+ */
+@Component
+public class Hedger {
+
+    private final Logger log;
+    private final CognitoProperties cognitoProperties;
+    private final InvocationMetrics invocationMetrics;
+    private final Map<String, LatencyWindow> windows;
+    private final ExecutorService executor;
+
+    public Hedger(CognitoProperties cognitoProperties, InvocationMetrics invocationMetrics) {
+        this.log = LoggerFactory.getLogger(this.getClass());
+        this.cognitoProperties = cognitoProperties;
+        this.invocationMetrics = invocationMetrics;
+        this.windows = new ConcurrentHashMap<>();
+        this.executor = Executors.newVirtualThreadPerTaskExecutor();
+    }
+
+    /**
+     * Runs {@code attempt}, hedging it when enabled. {@code mayHedge} is asked right before the second attempt is sent
+     * and can refuse it, e.g. when there is no rate limiter token left. {@code operation} is the Cognito operation name
+     * the hedges are counted under.
+     */
+    public <T> T call(String operation, Supplier<T> attempt, BooleanSupplier mayHedge) {
+        var hedging = cognitoProperties.getHedging();
+
+        if (!hedging.isEnabled()) {
+            return attempt.get();
+        }
+
+        var window = windows.computeIfAbsent(operation, name -> new LatencyWindow());
+        var first = submit(attempt, window);
+        var delayNanos = delayNanos(hedging, window);
+
+        try {
+            return first.get(delayNanos, TimeUnit.NANOSECONDS);
+        } catch (ExecutionException exception) {
+            throw rethrow(exception.getCause());
+        } catch (InterruptedException exception) {
+            Thread.currentThread().interrupt();
+            return join(first);
+        } catch (TimeoutException exception) {
+            // slower than usual, worth a second attempt
+        }
+
+        if (!mayHedge.getAsBoolean()) {
+            return join(first);
+        }
+
+        log.info("Hedging {} after {} ms", operation, TimeUnit.NANOSECONDS.toMillis(delayNanos));
+        invocationMetrics.recordHedge(operation);
+        var hedge = submit(attempt, window);
+
+        return firstSuccessful(operation, first, hedge);
+    }
+
+    private <T> CompletableFuture<T> submit(Supplier<T> attempt, LatencyWindow window) {
+        var entity = AWSXRay.getTraceEntity();
+
+        return CompletableFuture.supplyAsync(() -> {
+            if (entity != null) {
+                AWSXRay.setTraceEntity(entity);
+            }
+
+            var start = System.nanoTime();
+
+            try {
+                return attempt.get();
+            } finally {
+                window.record(System.nanoTime() - start);
+                AWSXRay.clearTraceEntity();
+            }
+        }, executor);
+    }
+
+    private <T> T firstSuccessful(String operation, CompletableFuture<T> first, CompletableFuture<T> hedge) {
+        var result = new CompletableFuture<T>();
+        var failures = new AtomicInteger();
+
+        first.whenComplete((value, failure) -> settle(result, failures, value, failure));
+        hedge.whenComplete((value, failure) -> {
+            if (settle(result, failures, value, failure)) {
+                invocationMetrics.recordHedgeWin(operation);
+            }
+        });
+
+        return join(result);
+    }
+
+    // completes the result with the first success, or with the last failure once both attempts failed
+    private static <T> boolean settle(CompletableFuture<T> result, AtomicInteger failures, T value, Throwable failure) {
+        if (failure == null) {
+            return result.complete(value);
+        }
+
+        if (failures.incrementAndGet() == 2) {
+            result.completeExceptionally(failure);
+        }
+
+        return false;
+    }
+
+    private static long delayNanos(CognitoProperties.Hedging hedging, LatencyWindow window) {
+        var percentileNanos = window.percentileNanos(hedging.getPercentile(), System.nanoTime());
+        var delayNanos = percentileNanos < 0 ? hedging.getInitialDelay().toNanos() : percentileNanos;
+        return Math.max(delayNanos, hedging.getMinDelay().toNanos());
+    }
+
+    private static <T> T join(CompletableFuture<T> future) {
+        try {
+            return future.join();
+        } catch (CompletionException exception) {
+            throw rethrow(exception.getCause());
+        }
+    }
+
+    private static RuntimeException rethrow(Throwable failure) {
+        if (failure instanceof CompletionException completion && completion.getCause() != null) {
+            failure = completion.getCause();
+        }
+
+        if (failure instanceof RuntimeException runtimeException) {
+            return runtimeException;
+        }
+
+        if (failure instanceof Error error) {
+            throw error;
+        }
+
+        return new CompletionException(failure);
+    }
+}
@@ -0,0 +1,53 @@
+package dev.ciprian.users.hedging;
+
+import org.HdrHistogram.Histogram;
+import org.HdrHistogram.Recorder;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Recent attempt latencies of one operation. Recording is lock-free; the percentile is recomputed at most once a
+ * second by whichever caller gets there first, everyone else reads the cached value.
+ */
+final class LatencyWindow {
+
+    private static final long REFRESH_NANOS = TimeUnit.SECONDS.toNanos(1);
+    private static final long MIN_SAMPLES = 20;
+    private static final long MAX_SAMPLES = 10_000;
+
+    private final Recorder recorder = new Recorder(2);
+    private final Histogram window = new Histogram(2);
+    private final ReentrantLock lock = new ReentrantLock();
+    private Histogram interval;
+    private volatile long refreshedAt;
+    private volatile long percentileNanos = -1;
+
+    void record(long latencyNanos) {
+        recorder.recordValue(Math.max(0, latencyNanos / 1_000));
+    }
+
+    /**
+     * Returns the latency at {@code percentile} in nanoseconds, or {@code -1} while there are too few samples.
+     */
+    long percentileNanos(double percentile, long nowNanos) {
+        if (nowNanos - refreshedAt >= REFRESH_NANOS && lock.tryLock()) {
+            try {
+                interval = recorder.getIntervalHistogram(interval);
+
+                // start over rather than let old samples outweigh the current latency
+                if (window.getTotalCount() + interval.getTotalCount() > MAX_SAMPLES) {
+                    window.reset();
+                }
+
+                window.add(interval);
+                percentileNanos = window.getTotalCount() < MIN_SAMPLES ? -1 : window.getValueAtPercentile(percentile) * 1_000;
+                refreshedAt = nowNanos;
+            } finally {
+                lock.unlock();
+            }
+        }
+
+        return percentileNanos;
+    }
+}
@@ -0,0 +1,159 @@
+package dev.ciprian.users.keepwarm;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import dev.ciprian.users.config.ReloadableHttpClient;
+import org.crac.Context;
+import org.crac.Core;
+import org.crac.Resource;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.lang.Nullable;
+
+import java.io.BufferedInputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Answers keep-warm and health-check events at the stream level, before they reach Spring. Recognized are EventBridge
+ * scheduled events and constant inputs like {@code {"warmup":true}} or {@code {"health":true}}; with
+ * {@code "refreshConnections":true} the pooled Cognito connection is also refreshed. The answer reports the container
+ * age and the invocations it served, and the same line is logged for pings whose response nobody reads.
+ * <p>
+ * Only the first {@value #PEEK_LIMIT} bytes of an event are looked at. Larger events and events that do not mention
+ * one of the markers are handed on untouched, without being parsed.
+ */
+public class KeepWarmResponder implements Resource {
+
+    static final int PEEK_LIMIT = 2048;
+
+    private static final byte[][] MARKERS = {
+            "\"aws.events\"".getBytes(StandardCharsets.UTF_8),
+            "\"warmup\"".getBytes(StandardCharsets.UTF_8),
+            "\"health\"".getBytes(StandardCharsets.UTF_8)};
+
+    private final Logger log;
+    private final ObjectMapper objectMapper;
+    private final ReloadableHttpClient httpClient;
+    private final AtomicLong invocations;
+    private volatile long startNanos;
+
+    public KeepWarmResponder(ObjectMapper objectMapper, ReloadableHttpClient httpClient) {
+        this.log = LoggerFactory.getLogger(this.getClass());
+        this.objectMapper = objectMapper;
+        this.httpClient = httpClient;
+        this.invocations = new AtomicLong();
+        this.startNanos = System.nanoTime();
+
+        // the container age starts over after a SnapStart restore
+        Core.getGlobalContext().register(this);
+    }
+
+    /**
+     * Counts the invocation and answers it when {@code input} holds a keep-warm or health-check event. Returns
+     * {@code false} with {@code input} reset to its start otherwise.
+     */
+    public boolean answer(BufferedInputStream input, OutputStream output) throws IOException {
+        var invocation = invocations.incrementAndGet();
+        input.mark(PEEK_LIMIT + 1);
+        var prefix = input.readNBytes(PEEK_LIMIT + 1);
+        input.reset();
+
+        if (prefix.length > PEEK_LIMIT || !mentionsMarker(prefix)) {
+            return false;
+        }
+
+        var kind = kind(prefix);
+
+        if (kind == null) {
+            return false;
+        }
+
+        if (kind.refreshConnections()) {
+            httpClient.warmUp();
+        }
+
+        var response = new KeepWarmResponse(kind.name(), invocation == 1,
+                TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - startNanos), invocation);
+        var body = objectMapper.writeValueAsBytes(response);
+        log.info(new String(body, StandardCharsets.UTF_8));
+        output.write(body);
+        return true;
+    }
+
+    @Override
+    public void beforeCheckpoint(Context<? extends Resource> context) {
+    }
+
+    @Override
+    public void afterRestore(Context<? extends Resource> context) {
+        startNanos = System.nanoTime();
+        invocations.set(0);
+    }
+
+    @Nullable
+    private Kind kind(byte[] event) {
+        JsonNode tree;
+
+        try {
+            tree = objectMapper.readTree(event);
+        } catch (JsonProcessingException exception) {
+            return null;
+        }
+
+        if (tree == null || !tree.isObject()) {
+            return null;
+        }
+
+        var refreshConnections = tree.path("refreshConnections").asBoolean(false);
+
+        if ("aws.events".equals(tree.path("source").asText()) && "Scheduled Event".equals(tree.path("detail-type").asText())) {
+            return new Kind("scheduled", false);
+        }
+
+        if (tree.path("warmup").asBoolean(false)) {
+            return new Kind("warmup", refreshConnections);
+        }
+
+        if (tree.path("health").asBoolean(false)) {
+            return new Kind("health", refreshConnections);
+        }
+
+        return null;
+    }
+
+    private static boolean mentionsMarker(byte[] event) {
+        for (var marker : MARKERS) {
+            if (indexOf(event, marker) >= 0) {
+                return true;
+            }
+        }
+
+        return false;
+    }
+
+    private static int indexOf(byte[] bytes, byte[] target) {
+        outer:
+        for (var i = 0; i <= bytes.length - target.length; i++) {
+            for (var j = 0; j < target.length; j++) {
+                if (bytes[i + j] != target[j]) {
+                    continue outer;
+                }
+            }
+
+            return i;
+        }
+
+        return -1;
+    }
+
+    private record Kind(String name, boolean refreshConnections) {
+    }
+
+    public record KeepWarmResponse(String event, boolean coldStart, long containerAgeMillis, long invocations) {
+    }
+}
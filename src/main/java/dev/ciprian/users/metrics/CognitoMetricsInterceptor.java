@@ -0,0 +1,50 @@
+package dev.ciprian.users.metrics;
+
+import org.springframework.stereotype.Component;
+import software.amazon.awssdk.core.exception.SdkException;
+import software.amazon.awssdk.core.interceptor.Context;
+import software.amazon.awssdk.core.interceptor.ExecutionAttribute;
+import software.amazon.awssdk.core.interceptor.ExecutionAttributes;
+import software.amazon.awssdk.core.interceptor.ExecutionInterceptor;
+import software.amazon.awssdk.core.interceptor.SdkExecutionAttribute;
+import software.amazon.awssdk.core.retry.RetryUtils;
+
+/**
+ * Times every Cognito call, retries included, and records it in {@link InvocationMetrics} under the operation name.
+ */
+@Component
+public class CognitoMetricsInterceptor implements ExecutionInterceptor {
+
+    private static final ExecutionAttribute<Long> START_NANOS = new ExecutionAttribute<>("MetricsStartNanos");
+
+    private final InvocationMetrics invocationMetrics;
+
+    public CognitoMetricsInterceptor(InvocationMetrics invocationMetrics) {
+        this.invocationMetrics = invocationMetrics;
+    }
+
+    @Override
+    public void beforeExecution(Context.BeforeExecution context, ExecutionAttributes executionAttributes) {
+        executionAttributes.putAttribute(START_NANOS, System.nanoTime());
+    }
+
+    @Override
+    public void afterExecution(Context.AfterExecution context, ExecutionAttributes executionAttributes) {
+        record(executionAttributes, false, false);
+    }
+
+    @Override
+    public void onExecutionFailure(Context.FailedExecution context, ExecutionAttributes executionAttributes) {
+        var throttled = context.exception() instanceof SdkException exception && RetryUtils.isThrottlingException(exception);
+        record(executionAttributes, true, throttled);
+    }
+
+    private void record(ExecutionAttributes executionAttributes, boolean error, boolean throttled) {
+        var start = executionAttributes.getAttribute(START_NANOS);
+
+        if (start != null) {
+            var operation = executionAttributes.getAttribute(SdkExecutionAttribute.OPERATION_NAME);
+            invocationMetrics.recordOperation(operation, System.nanoTime() - start, error, throttled);
+        }
+    }
+}
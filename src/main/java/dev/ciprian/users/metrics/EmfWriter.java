@@ -0,0 +1,144 @@
+package dev.ciprian.users.metrics;
+
+import org.HdrHistogram.Histogram;
+
+import java.io.PrintStream;
+
+/**
+ * Writes CloudWatch Embedded Metric Format documents, one line each. Not thread-safe: the builder and the bucket
+ * arrays are reused between documents, so callers must not write concurrently.
+ */
+final class EmfWriter {
+
+    // EMF accepts at most 100 values per metric
+    private static final int MAX_VALUES = 100;
+
+    private final String namespace;
+    private final PrintStream out;
+    private final StringBuilder builder = new StringBuilder(1024);
+    private final double[] bucketValues = new double[MAX_VALUES];
+    private final long[] bucketCounts = new long[MAX_VALUES];
+
+    EmfWriter(String namespace, PrintStream out) {
+        this.namespace = namespace;
+        this.out = out;
+    }
+
+    /**
+     * Writes the operation's interval as one document. Latencies go out as the {@code Values} and {@code Counts} of
+     * the histogram buckets, so the whole population reaches CloudWatch however many calls were made. Neighbouring
+     * buckets are merged into their count-weighted mean when there are more than 100.
+     */
+    void writeOperation(long timestamp, String operation, Histogram latencyMicros, OperationCounts counts) {
+        var hasLatency = latencyMicros.getTotalCount() > 0;
+
+        begin(timestamp, "Operation");
+
+        if (hasLatency) {
+            builder.append("{\"Name\":\"Latency\",\"Unit\":\"Milliseconds\"},");
+        }
+
+        builder.append("{\"Name\":\"Errors\",\"Unit\":\"Count\"}")
+                .append(",{\"Name\":\"Throttles\",\"Unit\":\"Count\"}")
+                .append(",{\"Name\":\"Hedges\",\"Unit\":\"Count\"}")
+                .append(",{\"Name\":\"HedgeWins\",\"Unit\":\"Count\"}")
+                .append(",{\"Name\":\"LocalRejections\",\"Unit\":\"Count\"}");
+        endMetadata();
+        builder.append(",\"Operation\":\"").append(operation).append('"');
+
+        if (hasLatency) {
+            appendLatency(latencyMicros);
+        }
+
+        builder.append(",\"Errors\":").append(counts.errors())
+                .append(",\"Throttles\":").append(counts.throttles())
+                .append(",\"Hedges\":").append(counts.hedges())
+                .append(",\"HedgeWins\":").append(counts.hedgeWins())
+                .append(",\"LocalRejections\":").append(counts.localRejections())
+                .append('}');
+        flush();
+    }
+
+    void writeInvocation(long timestamp, String handler, long durationNanos, boolean coldStart) {
+        begin(timestamp, "Handler");
+        builder.append("{\"Name\":\"Duration\",\"Unit\":\"Milliseconds\"},")
+                .append("{\"Name\":\"ColdStart\",\"Unit\":\"Count\"}");
+        endMetadata();
+        builder.append(",\"Handler\":\"").append(handler)
+                .append("\",\"Duration\":").append(durationNanos / 1_000_000.0)
+                .append(",\"ColdStart\":").append(coldStart ? 1 : 0)
+                .append('}');
+        flush();
+    }
+
+    private void appendLatency(Histogram latencyMicros) {
+        var buckets = 0;
+
+        for (var ignored : latencyMicros.recordedValues()) {
+            buckets++;
+        }
+
+        var bucketsPerValue = (buckets + MAX_VALUES - 1) / MAX_VALUES;
+        var size = 0;
+        var merged = 0;
+        var mergedCount = 0L;
+        var mergedMillis = 0.0;
+        var sum = 0.0;
+
+        for (var value : latencyMicros.recordedValues()) {
+            var millis = latencyMicros.highestEquivalentValue(value.getValueIteratedTo()) / 1_000.0;
+            var count = value.getCountAtValueIteratedTo();
+            mergedMillis += millis * count;
+            mergedCount += count;
+            sum += millis * count;
+
+            if (++merged == bucketsPerValue) {
+                bucketValues[size] = mergedMillis / mergedCount;
+                bucketCounts[size++] = mergedCount;
+                merged = 0;
+                mergedCount = 0;
+                mergedMillis = 0.0;
+            }
+        }
+
+        if (merged > 0) {
+            bucketValues[size] = mergedMillis / mergedCount;
+            bucketCounts[size++] = mergedCount;
+        }
+
+        builder.append(",\"Latency\":{\"Values\":[");
+
+        for (var i = 0; i < size; i++) {
+            builder.append(i > 0 ? "," : "").append(bucketValues[i]);
+        }
+
+        builder.append("],\"Counts\":[");
+
+        for (var i = 0; i < size; i++) {
+            builder.append(i > 0 ? "," : "").append(bucketCounts[i]);
+        }
+
+        builder.append("],\"Max\":").append(latencyMicros.highestEquivalentValue(latencyMicros.getMaxValue()) / 1_000.0)
+                .append(",\"Min\":").append(latencyMicros.highestEquivalentValue(latencyMicros.getMinValue()) / 1_000.0)
+                .append(",\"Count\":").append(latencyMicros.getTotalCount())
+                .append(",\"Sum\":").append(sum)
+                .append('}');
+    }
+
+    private void begin(long timestamp, String dimension) {
+        builder.setLength(0);
+        builder.append("{\"_aws\":{\"Timestamp\":").append(timestamp)
+                .append(",\"CloudWatchMetrics\":[{\"Namespace\":\"").append(namespace)
+                .append("\",\"Dimensions\":[[\"").append(dimension).append("\"]],\"Metrics\":[");
+    }
+
+    private void endMetadata() {
+        builder.append("]}]}");
+    }
+
+    private void flush() {
+        builder.append('\n');
+        out.append(builder);
+        out.flush();
+    }
+}
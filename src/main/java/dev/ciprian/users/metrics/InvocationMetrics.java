@@ -0,0 +1,118 @@
+package dev.ciprian.users.metrics;
+
+import org.crac.Context;
+import org.crac.Core;
+import org.crac.Resource;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.stereotype.Component;
+
+import java.io.PrintStream;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * Full-population metrics of the Cognito calls and the handler invocations, emitted as EMF to stdout once per
+ * invocation. Recording only touches lock-free histograms and counters. The documents are written on the invoking
+ * thread before the handler returns, since Lambda freezes the environment as soon as it does and anything still
+ * queued would only be written on the next invocation, or never.
+ */
+@Component
+public class InvocationMetrics implements Resource {
+
+    private final Logger log;
+    private final MetricsProperties metricsProperties;
+    private final Map<String, OperationMetrics> operations;
+    private final AtomicBoolean coldStart;
+    private final EmfWriter emfWriter;
+
+    public InvocationMetrics(MetricsProperties metricsProperties) {
+        this(metricsProperties, System.out);
+    }
+
+    InvocationMetrics(MetricsProperties metricsProperties, PrintStream out) {
+        this.log = LoggerFactory.getLogger(this.getClass());
+        this.metricsProperties = metricsProperties;
+        this.operations = new ConcurrentHashMap<>();
+        this.coldStart = new AtomicBoolean(true);
+        this.emfWriter = new EmfWriter(metricsProperties.getNamespace(), out);
+
+        // drops whatever priming recorded before a SnapStart checkpoint
+        Core.getGlobalContext().register(this);
+    }
+
+    public void recordOperation(String operation, long latencyNanos, boolean error, boolean throttled) {
+        if (metricsProperties.isEnabled()) {
+            operations.computeIfAbsent(operation, name -> new OperationMetrics()).record(latencyNanos, error, throttled);
+        }
+    }
+
+    /**
+     * Counts a second attempt sent for a slow call.
+     */
+    public void recordHedge(String operation) {
+        if (metricsProperties.isEnabled()) {
+            operations.computeIfAbsent(operation, name -> new OperationMetrics()).recordHedge();
+        }
+    }
+
+    /**
+     * Counts a second attempt that answered before the first one.
+     */
+    public void recordHedgeWin(String operation) {
+        if (metricsProperties.isEnabled()) {
+            operations.computeIfAbsent(operation, name -> new OperationMetrics()).recordHedgeWin();
+        }
+    }
+
+    /**
+     * Counts a call that was answered locally without reaching Cognito.
+     */
+    public void recordLocalRejection(String operation) {
+        if (metricsProperties.isEnabled()) {
+            operations.computeIfAbsent(operation, name -> new OperationMetrics()).recordLocalRejection();
+        }
+    }
+
+    /**
+     * Writes the documents of the calls recorded since the last flush and of the invocation itself. Returns once they
+     * are written.
+     */
+    public void flush(String handler, long durationNanos) {
+        if (!metricsProperties.isEnabled()) {
+            return;
+        }
+
+        emit(System.currentTimeMillis(), handler, durationNanos, coldStart.getAndSet(false));
+    }
+
+    @Override
+    public void beforeCheckpoint(Context<? extends Resource> context) {
+        operations.values().forEach(OperationMetrics::reset);
+        coldStart.set(true);
+    }
+
+    @Override
+    public void afterRestore(Context<? extends Resource> context) {
+    }
+
+    // handlers tested outside Lambda can flush from several threads, and the writer reuses its buffers
+    private synchronized void emit(long timestamp, String handler, long durationNanos, boolean cold) {
+        try {
+            for (var entry : operations.entrySet()) {
+                var metrics = entry.getValue();
+                var latencyMicros = metrics.intervalLatencyMicros();
+                var counts = metrics.sumThenResetCounts();
+
+                if (latencyMicros.getTotalCount() > 0 || !counts.isEmpty()) {
+                    emfWriter.writeOperation(timestamp, entry.getKey(), latencyMicros, counts);
+                }
+            }
+
+            emfWriter.writeInvocation(timestamp, handler, durationNanos, cold);
+        } catch (RuntimeException exception) {
+            log.warn("Could not emit metrics: {}", exception.getMessage());
+        }
+    }
+}
@@ -0,0 +1,26 @@
+package dev.ciprian.users.metrics;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+@ConfigurationProperties(prefix = "metrics")
+public class MetricsProperties {
+
+    private boolean enabled = true;
+    private String namespace = "users-lambda-sb";
+
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    public void setEnabled(boolean enabled) {
+        this.enabled = enabled;
+    }
+
+    public String getNamespace() {
+        return namespace;
+    }
+
+    public void setNamespace(String namespace) {
+        this.namespace = namespace;
+    }
+}
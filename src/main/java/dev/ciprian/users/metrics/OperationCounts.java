@@ -0,0 +1,11 @@
+package dev.ciprian.users.metrics;
+
+/**
+ * Counters of one Cognito operation over one flush interval.
+ */
+record OperationCounts(long errors, long throttles, long hedges, long hedgeWins, long localRejections) {
+
+    boolean isEmpty() {
+        return errors == 0 && throttles == 0 && hedges == 0 && hedgeWins == 0 && localRejections == 0;
+    }
+}
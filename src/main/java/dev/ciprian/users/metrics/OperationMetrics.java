@@ -0,0 +1,69 @@
+package dev.ciprian.users.metrics;
+
+import org.HdrHistogram.Histogram;
+import org.HdrHistogram.Recorder;
+
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Latency histogram and counters of one Cognito operation. Writers never block; the flush at the end of each
+ * invocation swaps out the interval histogram and the counters.
+ */
+final class OperationMetrics {
+
+    private static final int SIGNIFICANT_DIGITS = 2;
+
+    private final Recorder latencyMicros = new Recorder(SIGNIFICANT_DIGITS);
+    private final LongAdder errors = new LongAdder();
+    private final LongAdder throttles = new LongAdder();
+    private final LongAdder hedges = new LongAdder();
+    private final LongAdder hedgeWins = new LongAdder();
+    private final LongAdder localRejections = new LongAdder();
+    private Histogram interval;
+
+    void record(long latencyNanos, boolean error, boolean throttled) {
+        latencyMicros.recordValue(Math.max(0, latencyNanos / 1_000));
+
+        if (error) {
+            errors.increment();
+        }
+
+        if (throttled) {
+            throttles.increment();
+        }
+    }
+
+    void recordHedge() {
+        hedges.increment();
+    }
+
+    void recordHedgeWin() {
+        hedgeWins.increment();
+    }
+
+    void recordLocalRejection() {
+        localRejections.increment();
+    }
+
+    /**
+     * Called from the flush only, one at a time. The returned histogram is reused by the next call.
+     */
+    Histogram intervalLatencyMicros() {
+        interval = latencyMicros.getIntervalHistogram(interval);
+        return interval;
+    }
+
+    OperationCounts sumThenResetCounts() {
+        return new OperationCounts(errors.sumThenReset(), throttles.sumThenReset(), hedges.sumThenReset(),
+                hedgeWins.sumThenReset(), localRejections.sumThenReset());
+    }
+
+    void reset() {
+        latencyMicros.reset();
+        errors.reset();
+        throttles.reset();
+        hedges.reset();
+        hedgeWins.reset();
+        localRejections.reset();
+    }
+}
@@ -0,0 +1,38 @@
+package dev.ciprian.users.models;
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+
+@JsonInclude(JsonInclude.Include.NON_EMPTY)
+public class BulkRegisterResponse extends GenericResponse {
+
+    private final int line;
+    private final int status;
+    private String username;
+
+    public BulkRegisterResponse(int line, int status) {
+        super(status == 200);
+        this.line = line;
+        this.status = status;
+    }
+
+    public BulkRegisterResponse(int line, int status, String message) {
+        this(line, status);
+        addErrorMessage(message);
+    }
+
+    public int getLine() {
+        return line;
+    }
+
+    public int getStatus() {
+        return status;
+    }
+
+    public String getUsername() {
+        return username;
+    }
+
+    public void setUsername(String username) {
+        this.username = username;
+    }
+}
@@ -13,16 +13,23 @@ public class GenericResponse {
 
     @JsonIgnore
     private boolean valid;
-    private final List<String> errorMessages;
+    @JsonIgnore
+    private boolean throttled;
+    @JsonIgnore
+    private boolean conflict;
+    @JsonIgnore
+    private boolean timedOut;
+    // stays an immutable list until a second message is added, most responses carry none or one
+    private List<String> errorMessages;
 
     public GenericResponse(boolean valid) {
         this.valid = valid;
-        this.errorMessages = new ArrayList<>();
+        this.errorMessages = List.of();
     }
 
     public GenericResponse(boolean valid, String message) {
-        this(valid);
-        this.errorMessages.add(message);
+        this.valid = valid;
+        this.errorMessages = List.of(message);
     }
 
     public boolean isValid() {
@@ -38,15 +45,54 @@ public class GenericResponse {
         this.valid = valid;
     }
 
+    public boolean isThrottled() {
+        return throttled;
+    }
+
+    public void setThrottled(boolean throttled) {
+        this.throttled = throttled;
+    }
+
+    public boolean isConflict() {
+        return conflict;
+    }
+
+    public void setConflict(boolean conflict) {
+        this.conflict = conflict;
+    }
+
+    public boolean isTimedOut() {
+        return timedOut;
+    }
+
+    public void setTimedOut(boolean timedOut) {
+        this.timedOut = timedOut;
+    }
+
     public List<String> getErrorMessages() {
-        return Collections.unmodifiableList(errorMessages);
+        return errorMessages instanceof ArrayList<String> ? Collections.unmodifiableList(errorMessages) : errorMessages;
     }
 
     public void addErrorMessage(@NonNull String message) {
-        errorMessages.add(message);
+        if (errorMessages.isEmpty()) {
+            errorMessages = List.of(message);
+            return;
+        }
+
+        mutableErrorMessages().add(message);
     }
 
     public void addErrorMessages(@NonNull List<String> messages) {
-        errorMessages.addAll(messages);
+        if (!messages.isEmpty()) {
+            mutableErrorMessages().addAll(messages);
+        }
+    }
+
+    private List<String> mutableErrorMessages() {
+        if (!(errorMessages instanceof ArrayList<String>)) {
+            errorMessages = new ArrayList<>(errorMessages);
+        }
+
+        return errorMessages;
     }
 }
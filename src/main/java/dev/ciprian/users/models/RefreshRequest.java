@@ -0,0 +1,6 @@
+package dev.ciprian.users.models;
+
+import jakarta.validation.constraints.NotEmpty;
+
+public record RefreshRequest(@NotEmpty(message = "Refresh token is required") String refreshToken) {
+}
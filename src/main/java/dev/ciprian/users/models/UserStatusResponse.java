@@ -0,0 +1,47 @@
+package dev.ciprian.users.models;
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+
+@JsonInclude(JsonInclude.Include.NON_EMPTY)
+public class UserStatusResponse extends GenericResponse {
+
+    private boolean confirmed;
+    private boolean passwordChangeRequired;
+    private boolean emailVerified;
+
+    public UserStatusResponse() {
+        super(true);
+    }
+
+    public UserStatusResponse(boolean valid) {
+        super(valid);
+    }
+
+    public UserStatusResponse(boolean valid, String message) {
+        super(valid, message);
+    }
+
+    public boolean isConfirmed() {
+        return confirmed;
+    }
+
+    public void setConfirmed(boolean confirmed) {
+        this.confirmed = confirmed;
+    }
+
+    public boolean isPasswordChangeRequired() {
+        return passwordChangeRequired;
+    }
+
+    public void setPasswordChangeRequired(boolean passwordChangeRequired) {
+        this.passwordChangeRequired = passwordChangeRequired;
+    }
+
+    public boolean isEmailVerified() {
+        return emailVerified;
+    }
+
+    public void setEmailVerified(boolean emailVerified) {
+        this.emailVerified = emailVerified;
+    }
+}
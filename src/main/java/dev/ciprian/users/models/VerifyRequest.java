@@ -0,0 +1,6 @@
+package dev.ciprian.users.models;
+
+import jakarta.validation.constraints.NotEmpty;
+
+public record VerifyRequest(@NotEmpty(message = "Token is required") String token) {
+}
@@ -0,0 +1,56 @@
+package dev.ciprian.users.models;
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+
+@JsonInclude(JsonInclude.Include.NON_EMPTY)
+public class VerifyResponse extends GenericResponse {
+
+    private String subject;
+    private String username;
+    private String tokenUse;
+    private Long expiresAt;
+
+    public VerifyResponse() {
+        super(true);
+    }
+
+    public VerifyResponse(boolean valid) {
+        super(valid);
+    }
+
+    public VerifyResponse(boolean valid, String message) {
+        super(valid, message);
+    }
+
+    public String getSubject() {
+        return subject;
+    }
+
+    public void setSubject(String subject) {
+        this.subject = subject;
+    }
+
+    public String getUsername() {
+        return username;
+    }
+
+    public void setUsername(String username) {
+        this.username = username;
+    }
+
+    public String getTokenUse() {
+        return tokenUse;
+    }
+
+    public void setTokenUse(String tokenUse) {
+        this.tokenUse = tokenUse;
+    }
+
+    public Long getExpiresAt() {
+        return expiresAt;
+    }
+
+    public void setExpiresAt(Long expiresAt) {
+        this.expiresAt = expiresAt;
+    }
+}
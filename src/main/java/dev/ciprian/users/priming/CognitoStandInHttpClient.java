@@ -0,0 +1,59 @@
+package dev.ciprian.users.priming;
+
+import software.amazon.awssdk.http.AbortableInputStream;
+import software.amazon.awssdk.http.ExecutableHttpRequest;
+import software.amazon.awssdk.http.HttpExecuteRequest;
+import software.amazon.awssdk.http.HttpExecuteResponse;
+import software.amazon.awssdk.http.SdkHttpClient;
+import software.amazon.awssdk.http.SdkHttpResponse;
+
+import java.io.ByteArrayInputStream;
+import java.nio.charset.StandardCharsets;
+
+/**
+ * Answers every Cognito call locally with a successful, canned response. Used while priming, so the SDK marshalling
+ * and unmarshalling paths get loaded without touching the real user pool. Benchmarks use it for the same reason.
+ */
+public final class CognitoStandInHttpClient implements SdkHttpClient {
+
+    private static final String TARGET_HEADER = "X-Amz-Target";
+    private static final byte[] EMPTY_RESULT = "{}".getBytes(StandardCharsets.UTF_8);
+    private static final byte[] AUTHENTICATION_RESULT = """
+            {"AuthenticationResult":{"AccessToken":"priming","ExpiresIn":3600,"IdToken":"priming",\
+            "RefreshToken":"priming","TokenType":"Bearer"}}""".getBytes(StandardCharsets.UTF_8);
+
+    @Override
+    public ExecutableHttpRequest prepareRequest(HttpExecuteRequest request) {
+        var target = request.httpRequest().firstMatchingHeader(TARGET_HEADER).orElse("");
+        var body = target.endsWith(".AdminInitiateAuth") ? AUTHENTICATION_RESULT : EMPTY_RESULT;
+
+        return new ExecutableHttpRequest() {
+            @Override
+            public HttpExecuteResponse call() {
+                var response = SdkHttpResponse.builder()
+                        .statusCode(200)
+                        .putHeader("Content-Type", "application/x-amz-json-1.1")
+                        .putHeader("Content-Length", String.valueOf(body.length))
+                        .build();
+
+                return HttpExecuteResponse.builder()
+                        .response(response)
+                        .responseBody(AbortableInputStream.create(new ByteArrayInputStream(body)))
+                        .build();
+            }
+
+            @Override
+            public void abort() {
+            }
+        };
+    }
+
+    @Override
+    public String clientName() {
+        return "CognitoStandIn";
+    }
+
+    @Override
+    public void close() {
+    }
+}
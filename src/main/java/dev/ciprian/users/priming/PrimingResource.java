@@ -0,0 +1,82 @@
+package dev.ciprian.users.priming;
+
+import com.amazonaws.serverless.proxy.model.AwsProxyRequest;
+import com.amazonaws.serverless.proxy.model.AwsProxyResponse;
+import com.amazonaws.serverless.proxy.spring.SpringBootLambdaContainerHandler;
+import dev.ciprian.users.config.ReloadableCredentialsProvider;
+import dev.ciprian.users.config.ReloadableHttpClient;
+import org.crac.Context;
+import org.crac.Resource;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.http.MediaType;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.net.URI;
+
+/**
+ * SnapStart / CRaC hooks for the lambda handler. Before the checkpoint, synthetic requests are pushed through the
+ * whole proxy stack against a local Cognito stand-in, so the snapshot already holds the loaded and initialized
+ * dispatch path, and one request goes to the real Cognito endpoint so the TLS handshake, cipher and certificate path
+ * classes are loaded too. After restore, the HTTP connections and credentials captured in the snapshot are rebuilt.
+ */
+public class PrimingResource implements Resource {
+
+    private static final String USER = """
+            {"firstName":"Priming","lastName":"Priming","email":"priming@example.com","username":"priming",\
+            "password":"Priming-1"}""";
+    private static final String INVALID_USER = "{}";
+
+    private final Logger log;
+    private final SpringBootLambdaContainerHandler<AwsProxyRequest, AwsProxyResponse> handler;
+    private final ReloadableHttpClient httpClient;
+    private final ReloadableCredentialsProvider credentialsProvider;
+    private final URI cognitoEndpoint;
+
+    public PrimingResource(SpringBootLambdaContainerHandler<AwsProxyRequest, AwsProxyResponse> handler,
+                           ReloadableHttpClient httpClient,
+                           ReloadableCredentialsProvider credentialsProvider,
+                           URI cognitoEndpoint) {
+        this.log = LoggerFactory.getLogger(this.getClass());
+        this.handler = handler;
+        this.httpClient = httpClient;
+        this.credentialsProvider = credentialsProvider;
+        this.cognitoEndpoint = cognitoEndpoint;
+    }
+
+    @Override
+    public void beforeCheckpoint(Context<? extends Resource> context) {
+        log.info("Priming lambda handler before checkpoint");
+        httpClient.setStandIn(new CognitoStandInHttpClient());
+
+        try {
+            prime("/users/register", USER);
+            prime("/users/login", USER);
+            prime("/users/login", INVALID_USER);
+        } finally {
+            httpClient.setStandIn(null);
+        }
+
+        // the connection is dropped again, it would not survive the snapshot
+        httpClient.warmUp(cognitoEndpoint);
+        httpClient.reload();
+    }
+
+    @Override
+    public void afterRestore(Context<? extends Resource> context) {
+        log.info("Reloading Cognito connections and credentials after restore");
+        credentialsProvider.reload();
+        httpClient.reload();
+        httpClient.warmUp();
+    }
+
+    private void prime(String path, String body) {
+        try {
+            var event = SyntheticRequests.post(path, MediaType.APPLICATION_JSON_VALUE, body);
+            handler.proxyStream(event, new ByteArrayOutputStream(), SyntheticRequests.context());
+        } catch (IOException exception) {
+            log.warn("Could not prime {}: {}", path, exception.getMessage());
+        }
+    }
+}
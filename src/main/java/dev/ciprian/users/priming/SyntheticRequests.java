@@ -0,0 +1,137 @@
+package dev.ciprian.users.priming;
+
+import com.amazonaws.serverless.proxy.internal.LambdaContainerHandler;
+import com.amazonaws.serverless.proxy.model.ApiGatewayRequestIdentity;
+import com.amazonaws.serverless.proxy.model.AwsProxyRequest;
+import com.amazonaws.serverless.proxy.model.AwsProxyRequestContext;
+import com.amazonaws.serverless.proxy.model.Headers;
+import com.amazonaws.services.lambda.runtime.ClientContext;
+import com.amazonaws.services.lambda.runtime.CognitoIdentity;
+import com.amazonaws.services.lambda.runtime.Context;
+import com.amazonaws.services.lambda.runtime.LambdaLogger;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.ByteArrayInputStream;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.UUID;
+
+/**
+ * API Gateway proxy events and a Lambda context for requests the function sends to itself while priming or training,
+ * built from the public proxy model instead of the container's test utilities.
+ */
+public final class SyntheticRequests {
+
+    private static final String FUNCTION_NAME = "users-lambda-sb";
+    private static final int MEMORY_LIMIT_MB = 1024;
+    private static final int REMAINING_TIME_MILLIS = 300_000;
+
+    private SyntheticRequests() {
+    }
+
+    /**
+     * Returns a serialized {@code POST} event for {@code path}, as API Gateway would send it.
+     */
+    public static InputStream post(String path, String contentType, String body) throws JsonProcessingException {
+        var headers = new Headers();
+        headers.putSingle("Content-Type", contentType);
+
+        var identity = new ApiGatewayRequestIdentity();
+        identity.setSourceIp("127.0.0.1");
+
+        var requestContext = new AwsProxyRequestContext();
+        requestContext.setRequestId(UUID.randomUUID().toString());
+        requestContext.setStage("priming");
+        requestContext.setProtocol("HTTP/1.1");
+        requestContext.setRequestTimeEpoch(System.currentTimeMillis());
+        requestContext.setIdentity(identity);
+
+        var request = new AwsProxyRequest();
+        request.setPath(path);
+        request.setHttpMethod("POST");
+        request.setMultiValueHeaders(headers);
+        request.setBody(body);
+        request.setIsBase64Encoded(false);
+        request.setRequestContext(requestContext);
+
+        return new ByteArrayInputStream(LambdaContainerHandler.getObjectMapper().writeValueAsBytes(request));
+    }
+
+    public static Context context() {
+        return new SyntheticContext();
+    }
+
+    private static final class SyntheticContext implements Context {
+
+        private static final Logger log = LoggerFactory.getLogger(SyntheticContext.class);
+
+        private final String requestId = UUID.randomUUID().toString();
+
+        @Override
+        public String getAwsRequestId() {
+            return requestId;
+        }
+
+        @Override
+        public String getLogGroupName() {
+            return "/aws/lambda/" + FUNCTION_NAME;
+        }
+
+        @Override
+        public String getLogStreamName() {
+            return "priming";
+        }
+
+        @Override
+        public String getFunctionName() {
+            return FUNCTION_NAME;
+        }
+
+        @Override
+        public String getFunctionVersion() {
+            return "$LATEST";
+        }
+
+        @Override
+        public String getInvokedFunctionArn() {
+            return "arn:aws:lambda:local:000000000000:function:" + FUNCTION_NAME;
+        }
+
+        @Override
+        public CognitoIdentity getIdentity() {
+            return null;
+        }
+
+        @Override
+        public ClientContext getClientContext() {
+            return null;
+        }
+
+        @Override
+        public int getRemainingTimeInMillis() {
+            return REMAINING_TIME_MILLIS;
+        }
+
+        @Override
+        public int getMemoryLimitInMB() {
+            return MEMORY_LIMIT_MB;
+        }
+
+        @Override
+        public LambdaLogger getLogger() {
+            return new LambdaLogger() {
+                @Override
+                public void log(String message) {
+                    log.debug(message);
+                }
+
+                @Override
+                public void log(byte[] message) {
+                    log.debug(new String(message, StandardCharsets.UTF_8));
+                }
+            };
+        }
+    }
+}
@@ -0,0 +1,75 @@
+package dev.ciprian.users.ratelimit;
+
+import dev.ciprian.users.config.CognitoProperties;
+import dev.ciprian.users.models.GenericResponse;
+import org.springframework.lang.Nullable;
+import org.springframework.stereotype.Component;
+
+import java.util.EnumMap;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.LongSupplier;
+
+/**
+ * Client-side limiter in front of the Cognito admin API, one adaptive {@link TokenBucket} per region and quota
+ * category, since Cognito applies its quotas per account and region. Callers that cannot get a token fail fast with a
+ * throttled response instead of queueing behind SDK retries.
+ */
+@Component
+public class CognitoRateLimiter {
+
+    public static final String THROTTLED_MESSAGE = "Too many requests";
+
+    private final CognitoProperties cognitoProperties;
+    private final LongSupplier nanoTime;
+    private final Map<String, Map<QuotaCategory, TokenBucket>> buckets;
+
+    public CognitoRateLimiter(CognitoProperties cognitoProperties) {
+        this(cognitoProperties, System::nanoTime);
+    }
+
+    CognitoRateLimiter(CognitoProperties cognitoProperties, LongSupplier nanoTime) {
+        this.cognitoProperties = cognitoProperties;
+        this.nanoTime = nanoTime;
+        this.buckets = new ConcurrentHashMap<>();
+    }
+
+    public boolean tryAcquire(@Nullable String region, QuotaCategory category) {
+        return bucket(region, category).tryAcquire();
+    }
+
+    public void onSuccess(@Nullable String region, QuotaCategory category) {
+        bucket(region, category).onSuccess();
+    }
+
+    public void onThrottled(@Nullable String region, QuotaCategory category) {
+        bucket(region, category).onThrottled();
+    }
+
+    public double rate(@Nullable String region, QuotaCategory category) {
+        return bucket(region, category).rate();
+    }
+
+    private TokenBucket bucket(@Nullable String region, QuotaCategory category) {
+        // a tenant without a configured region still gets buckets of its own
+        return buckets.computeIfAbsent(region != null ? region : "", this::regionBuckets).get(category);
+    }
+
+    private Map<QuotaCategory, TokenBucket> regionBuckets(String region) {
+        var regionBuckets = new EnumMap<QuotaCategory, TokenBucket>(QuotaCategory.class);
+
+        for (var category : QuotaCategory.values()) {
+            var limit = cognitoProperties.getRateLimits().getOrDefault(category, category.defaultLimit());
+            regionBuckets.put(category, new TokenBucket(limit, nanoTime));
+        }
+
+        return regionBuckets;
+    }
+
+    public static <T extends GenericResponse> T throttled(T response) {
+        response.setValid(false);
+        response.setThrottled(true);
+        response.addErrorMessage(THROTTLED_MESSAGE);
+        return response;
+    }
+}
@@ -0,0 +1,133 @@
+package dev.ciprian.users.ratelimit;
+
+import dev.ciprian.users.config.CognitoProperties;
+import dev.ciprian.users.metrics.InvocationMetrics;
+import dev.ciprian.users.models.GenericResponse;
+import org.springframework.stereotype.Component;
+
+import java.util.LinkedHashMap;
+import java.util.Locale;
+import java.util.Map;
+import java.util.function.LongSupplier;
+
+/**
+ * Remembers recent failed logins per username. After {@code cognito.login-failures.max-failures} failures within
+ * {@code window}, logins for that username are rejected locally for {@code cooling-off} instead of costing a Cognito
+ * authentication call each. At most {@code max-usernames} usernames are tracked, the least recently seen ones are
+ * dropped first and expired ones are dropped when touched.
+ */
+@Component
+public class LoginFailureTracker {
+
+    public static final String LOCKED_OUT_MESSAGE = "Too many failed login attempts";
+
+    private static final String OPERATION = "AdminInitiateAuth";
+
+    private final int maxFailures;
+    private final long windowNanos;
+    private final long coolingOffNanos;
+    private final InvocationMetrics invocationMetrics;
+    private final LongSupplier nanoTime;
+    private final Map<String, Failures> failures;
+
+    public LoginFailureTracker(CognitoProperties cognitoProperties, InvocationMetrics invocationMetrics) {
+        this(cognitoProperties, invocationMetrics, System::nanoTime);
+    }
+
+    LoginFailureTracker(CognitoProperties cognitoProperties, InvocationMetrics invocationMetrics, LongSupplier nanoTime) {
+        var loginFailures = cognitoProperties.getLoginFailures();
+        var maxUsernames = loginFailures.getMaxUsernames();
+
+        this.maxFailures = loginFailures.getMaxFailures();
+        this.windowNanos = loginFailures.getWindow().toNanos();
+        this.coolingOffNanos = loginFailures.getCoolingOff().toNanos();
+        this.invocationMetrics = invocationMetrics;
+        this.nanoTime = nanoTime;
+        this.failures = new LinkedHashMap<>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<String, Failures> eldest) {
+                return size() > maxUsernames;
+            }
+        };
+    }
+
+    /**
+     * Returns {@code true} when the username is cooling off, counting the Cognito call it saved.
+     */
+    public boolean isLockedOut(String username) {
+        var now = nanoTime.getAsLong();
+        var key = key(username);
+        boolean lockedOut;
+
+        synchronized (failures) {
+            var entry = failures.get(key);
+            lockedOut = entry != null && entry.lockedUntil - now > 0;
+
+            if (entry != null && !lockedOut && entry.isExpired(now, windowNanos)) {
+                failures.remove(key);
+            }
+        }
+
+        if (lockedOut) {
+            invocationMetrics.recordLocalRejection(OPERATION);
+        }
+
+        return lockedOut;
+    }
+
+    public void onFailure(String username) {
+        var now = nanoTime.getAsLong();
+        var key = key(username);
+
+        synchronized (failures) {
+            var entry = failures.get(key);
+
+            if (entry == null || entry.isExpired(now, windowNanos)) {
+                entry = new Failures(now);
+                failures.put(key, entry);
+            }
+
+            entry.count++;
+
+            if (entry.count >= maxFailures) {
+                entry.lockedUntil = now + coolingOffNanos;
+                entry.count = 0;
+                entry.windowStart = now;
+            }
+        }
+    }
+
+    public void onSuccess(String username) {
+        synchronized (failures) {
+            failures.remove(key(username));
+        }
+    }
+
+    public static <T extends GenericResponse> T lockedOut(T response) {
+        response.setValid(false);
+        response.setThrottled(true);
+        response.addErrorMessage(LOCKED_OUT_MESSAGE);
+        return response;
+    }
+
+    // Cognito usernames are usually case-insensitive, changing the case must not reset the count
+    private static String key(String username) {
+        return username.toLowerCase(Locale.ROOT);
+    }
+
+    private static final class Failures {
+
+        private int count;
+        private long windowStart;
+        private long lockedUntil;
+
+        private Failures(long now) {
+            this.windowStart = now;
+            this.lockedUntil = now;
+        }
+
+        private boolean isExpired(long now, long windowNanos) {
+            return now - windowStart > windowNanos && lockedUntil - now <= 0;
+        }
+    }
+}
@@ -0,0 +1,22 @@
+package dev.ciprian.users.ratelimit;
+
+/**
+ * Cognito user pool API quota categories, with the default per-second limits of a user pool.
+ */
+public enum QuotaCategory {
+
+    USER_CREATION(50),
+    USER_AUTHENTICATION(120),
+    USER_UPDATE(25),
+    USER_READ(120);
+
+    private final int defaultLimit;
+
+    QuotaCategory(int defaultLimit) {
+        this.defaultLimit = defaultLimit;
+    }
+
+    public int defaultLimit() {
+        return defaultLimit;
+    }
+}
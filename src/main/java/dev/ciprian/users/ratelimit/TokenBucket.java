@@ -0,0 +1,61 @@
+package dev.ciprian.users.ratelimit;
+
+import java.util.function.LongSupplier;
+
+/**
+ * Token bucket holding at most one second worth of tokens. The refill rate adapts AIMD style: it halves on every
+ * throttling response and grows back by {@code 1 / rate} per success, which is about one request per second,
+ * every second, while traffic flows at the current rate.
+ */
+final class TokenBucket {
+
+    private static final double DECREASE_FACTOR = 0.5;
+    private static final double MIN_RATE = 1;
+    private static final double NANOS_PER_SECOND = 1e9;
+
+    private final double maxRate;
+    private final LongSupplier nanoTime;
+
+    private double rate;
+    private double tokens;
+    private long lastRefill;
+
+    TokenBucket(double maxRate, LongSupplier nanoTime) {
+        this.maxRate = maxRate;
+        this.nanoTime = nanoTime;
+        this.rate = maxRate;
+        this.tokens = maxRate;
+        this.lastRefill = nanoTime.getAsLong();
+    }
+
+    synchronized boolean tryAcquire() {
+        refill();
+
+        if (tokens < 1) {
+            return false;
+        }
+
+        tokens -= 1;
+        return true;
+    }
+
+    synchronized void onSuccess() {
+        rate = Math.min(maxRate, rate + 1 / rate);
+    }
+
+    synchronized void onThrottled() {
+        refill();
+        rate = Math.max(MIN_RATE, rate * DECREASE_FACTOR);
+        tokens = Math.min(tokens, rate);
+    }
+
+    synchronized double rate() {
+        return rate;
+    }
+
+    private void refill() {
+        var now = nanoTime.getAsLong();
+        tokens = Math.min(rate, tokens + (now - lastRefill) / NANOS_PER_SECOND * rate);
+        lastRefill = now;
+    }
+}
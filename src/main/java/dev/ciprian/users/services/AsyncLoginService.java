@@ -0,0 +1,116 @@
+package dev.ciprian.users.services;
+
+import dev.ciprian.users.config.CognitoProperties;
+import dev.ciprian.users.config.CognitoTimeouts;
+import dev.ciprian.users.models.AccessResponse;
+import dev.ciprian.users.models.User;
+import dev.ciprian.users.ratelimit.CognitoRateLimiter;
+import dev.ciprian.users.ratelimit.LoginFailureTracker;
+import dev.ciprian.users.tenancy.Tenants;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.lang.NonNull;
+import org.springframework.stereotype.Service;
+import software.amazon.awssdk.core.exception.SdkClientException;
+import software.amazon.awssdk.core.exception.SdkServiceException;
+import software.amazon.awssdk.services.cognitoidentityprovider.CognitoIdentityProviderAsyncClient;
+import software.amazon.awssdk.services.cognitoidentityprovider.model.NotAuthorizedException;
+import software.amazon.awssdk.services.cognitoidentityprovider.model.TooManyRequestsException;
+import software.amazon.awssdk.services.cognitoidentityprovider.model.UserNotFoundException;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+
+import static dev.ciprian.users.ratelimit.QuotaCategory.USER_AUTHENTICATION;
+import static dev.ciprian.users.services.LoginService.accessResponse;
+import static dev.ciprian.users.services.LoginService.adminInitiateAuthRequest;
+
+@Service
+@ConditionalOnProperty(prefix = "cognito", name = "async-enabled", havingValue = "true")
+public class AsyncLoginService {
+
+    private final Logger log;
+    private final CognitoProperties cognitoProperties;
+    private final CognitoIdentityProviderAsyncClient identityProviderClient;
+    private final Tenants tenants;
+    private final CognitoRateLimiter rateLimiter;
+    private final LoginFailureTracker failureTracker;
+
+    public AsyncLoginService(CognitoProperties cognitoProperties, CognitoIdentityProviderAsyncClient identityProviderClient,
+                             Tenants tenants, CognitoRateLimiter rateLimiter, LoginFailureTracker failureTracker) {
+        this.log = LoggerFactory.getLogger(this.getClass());
+        this.cognitoProperties = cognitoProperties;
+        this.identityProviderClient = identityProviderClient;
+        this.tenants = tenants;
+        this.rateLimiter = rateLimiter;
+        this.failureTracker = failureTracker;
+    }
+
+    @NonNull
+    public CompletableFuture<AccessResponse> login(User user) {
+        var tenant = tenants.current();
+        var failureKey = tenant.qualify(user.username());
+
+        if (failureTracker.isLockedOut(failureKey)) {
+            log.warn("Rejected login for user cooling off after failed attempts: {}", user.username());
+            return CompletableFuture.completedFuture(LoginFailureTracker.lockedOut(new AccessResponse(false)));
+        }
+
+        if (!rateLimiter.tryAcquire(tenant.region(), USER_AUTHENTICATION)) {
+            log.warn("Throttled login for user: {}", user.username());
+            return CompletableFuture.completedFuture(CognitoRateLimiter.throttled(new AccessResponse(false)));
+        }
+
+        var loginSubsegment = AsyncSubsegment.begin("Login user", user.username());
+
+        try {
+            var adminInitiateAuthRequest = adminInitiateAuthRequest(cognitoProperties, user);
+
+            log.info("Attempting login for user: {}", user.username());
+            return identityProviderClient.adminInitiateAuth(adminInitiateAuthRequest)
+                    .handle((adminInitiateAuthResponse, throwable) -> {
+                        try {
+                            if (throwable != null) {
+                                throw unwrap(throwable);
+                            }
+
+                            rateLimiter.onSuccess(tenant.region(), USER_AUTHENTICATION);
+                            failureTracker.onSuccess(failureKey);
+                            return accessResponse(adminInitiateAuthResponse);
+                        } catch (TooManyRequestsException exception) {
+                            log.warn("Cognito throttled login: {}", exception.getMessage());
+                            rateLimiter.onThrottled(tenant.region(), USER_AUTHENTICATION);
+                            return CognitoRateLimiter.throttled(new AccessResponse(false));
+                        } catch (NotAuthorizedException | UserNotFoundException exception) {
+                            log.warn("Could not login user: {}", exception.getMessage());
+                            rateLimiter.onSuccess(tenant.region(), USER_AUTHENTICATION);
+                            failureTracker.onFailure(failureKey);
+                            loginSubsegment.addException(exception);
+                            return new AccessResponse(false, "Could not login user");
+                        } catch (IllegalArgumentException exception) {
+                            log.warn("Received null authentication result");
+                            loginSubsegment.addException(exception);
+                            return new AccessResponse(false, "Could not login user");
+                        } catch (SdkServiceException exception) {
+                            log.warn("Could not login user: {}", exception.getMessage());
+                            loginSubsegment.addException(exception);
+                            return new AccessResponse(false, "Could not login user");
+                        } catch (SdkClientException exception) {
+                            log.warn("Could not login user: {}", exception.getMessage());
+                            loginSubsegment.addException(exception);
+                            return CognitoTimeouts.clientError(new AccessResponse(false, "Could not login user"), exception);
+                        } finally {
+                            loginSubsegment.end();
+                        }
+                    });
+        } finally {
+            loginSubsegment.detach();
+        }
+    }
+
+    static RuntimeException unwrap(Throwable throwable) {
+        var cause = throwable instanceof CompletionException && throwable.getCause() != null ? throwable.getCause() : throwable;
+        return cause instanceof RuntimeException runtimeException ? runtimeException : new CompletionException(cause);
+    }
+}
@@ -0,0 +1,135 @@
+package dev.ciprian.users.services;
+
+import dev.ciprian.users.config.CognitoProperties;
+import dev.ciprian.users.config.CognitoTimeouts;
+import dev.ciprian.users.models.GenericResponse;
+import dev.ciprian.users.models.User;
+import dev.ciprian.users.ratelimit.CognitoRateLimiter;
+import dev.ciprian.users.tenancy.Tenants;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.lang.NonNull;
+import org.springframework.stereotype.Service;
+import software.amazon.awssdk.core.exception.SdkClientException;
+import software.amazon.awssdk.core.exception.SdkServiceException;
+import software.amazon.awssdk.services.cognitoidentityprovider.CognitoIdentityProviderAsyncClient;
+import software.amazon.awssdk.services.cognitoidentityprovider.model.TooManyRequestsException;
+
+import java.util.concurrent.CompletableFuture;
+
+import static dev.ciprian.users.ratelimit.QuotaCategory.USER_CREATION;
+import static dev.ciprian.users.ratelimit.QuotaCategory.USER_UPDATE;
+import static dev.ciprian.users.services.AsyncLoginService.unwrap;
+import static dev.ciprian.users.services.RegisterService.adminCreateUserRequest;
+import static dev.ciprian.users.services.RegisterService.adminSetUserPasswordRequest;
+
+@Service
+@ConditionalOnProperty(prefix = "cognito", name = "async-enabled", havingValue = "true")
+public class AsyncRegisterService {
+
+    private final Logger log;
+    private final CognitoProperties cognitoProperties;
+    private final CognitoIdentityProviderAsyncClient identityProviderClient;
+    private final Tenants tenants;
+    private final CognitoRateLimiter rateLimiter;
+
+    public AsyncRegisterService(CognitoProperties cognitoProperties, CognitoIdentityProviderAsyncClient identityProviderClient,
+                                Tenants tenants, CognitoRateLimiter rateLimiter) {
+        this.log = LoggerFactory.getLogger(this.getClass());
+        this.cognitoProperties = cognitoProperties;
+        this.identityProviderClient = identityProviderClient;
+        this.tenants = tenants;
+        this.rateLimiter = rateLimiter;
+    }
+
+    @NonNull
+    public CompletableFuture<GenericResponse> createUser(User user) {
+        var region = tenants.current().region();
+
+        if (!rateLimiter.tryAcquire(region, USER_CREATION)) {
+            log.warn("Throttled user creation for username: {}", user.username());
+            return CompletableFuture.completedFuture(CognitoRateLimiter.throttled(new GenericResponse(false)));
+        }
+
+        var createUserSubsegment = AsyncSubsegment.begin("Create user", user.username());
+
+        try {
+            var adminCreateUserRequest = adminCreateUserRequest(cognitoProperties, user);
+
+            return identityProviderClient.adminCreateUser(adminCreateUserRequest)
+                    .handle((adminCreateUserResponse, throwable) -> {
+                        try {
+                            if (throwable != null) {
+                                throw unwrap(throwable);
+                            }
+
+                            rateLimiter.onSuccess(region, USER_CREATION);
+                            log.info("Created user with username: {}", user.username());
+                            return new GenericResponse(true);
+                        } catch (TooManyRequestsException exception) {
+                            log.warn("Cognito throttled user creation: {}", exception.getMessage());
+                            rateLimiter.onThrottled(region, USER_CREATION);
+                            return CognitoRateLimiter.throttled(new GenericResponse(false));
+                        } catch (SdkServiceException exception) {
+                            log.warn("Could not create user: {}", exception.getMessage());
+                            createUserSubsegment.addException(exception);
+                            return new GenericResponse(false, "Could not create user");
+                        } catch (SdkClientException exception) {
+                            log.warn("Could not create user: {}", exception.getMessage());
+                            createUserSubsegment.addException(exception);
+                            return CognitoTimeouts.clientError(new GenericResponse(false, "Could not create user"), exception);
+                        } finally {
+                            createUserSubsegment.end();
+                        }
+                    });
+        } finally {
+            createUserSubsegment.detach();
+        }
+    }
+
+    @NonNull
+    public CompletableFuture<GenericResponse> setUserPassword(User user) {
+        var region = tenants.current().region();
+
+        if (!rateLimiter.tryAcquire(region, USER_UPDATE)) {
+            log.warn("Throttled setting user password for username: {}", user.username());
+            return CompletableFuture.completedFuture(CognitoRateLimiter.throttled(new GenericResponse(false)));
+        }
+
+        var setPasswordSubsegment = AsyncSubsegment.begin("Set user password", user.username());
+
+        try {
+            var adminSetUserPasswordRequest = adminSetUserPasswordRequest(cognitoProperties, user);
+
+            return identityProviderClient.adminSetUserPassword(adminSetUserPasswordRequest)
+                    .handle((adminSetUserPasswordResponse, throwable) -> {
+                        try {
+                            if (throwable != null) {
+                                throw unwrap(throwable);
+                            }
+
+                            rateLimiter.onSuccess(region, USER_UPDATE);
+                            log.info("Set user password for username: {}", user.username());
+                            return new GenericResponse(true);
+                        } catch (TooManyRequestsException exception) {
+                            log.warn("Cognito throttled setting user password: {}", exception.getMessage());
+                            rateLimiter.onThrottled(region, USER_UPDATE);
+                            return CognitoRateLimiter.throttled(new GenericResponse(false));
+                        } catch (SdkServiceException exception) {
+                            log.warn("Could not set user password: {}", exception.getMessage());
+                            setPasswordSubsegment.addException(exception);
+                            return new GenericResponse(false, "Could not set user password");
+                        } catch (SdkClientException exception) {
+                            log.warn("Could not set user password: {}", exception.getMessage());
+                            setPasswordSubsegment.addException(exception);
+                            return CognitoTimeouts.clientError(new GenericResponse(false, "Could not set user password"), exception);
+                        } finally {
+                            setPasswordSubsegment.end();
+                        }
+                    });
+        } finally {
+            setPasswordSubsegment.detach();
+        }
+    }
+}
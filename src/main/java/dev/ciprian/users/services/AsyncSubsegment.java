@@ -0,0 +1,50 @@
+package dev.ciprian.users.services;
+
+import com.amazonaws.xray.AWSXRay;
+import com.amazonaws.xray.entities.Entity;
+import com.amazonaws.xray.entities.Subsegment;
+import org.springframework.lang.Nullable;
+
+/**
+ * X-Ray subsegment that outlives the thread that started it: the calling thread gets its trace entity back once
+ * the request has been issued, and the subsegment is ended on whichever thread completes the future.
+ */
+final class AsyncSubsegment {
+
+    @Nullable
+    private final Entity parent;
+    private final Subsegment subsegment;
+
+    private AsyncSubsegment(String name, String username) {
+        this.parent = AWSXRay.getTraceEntity();
+        this.subsegment = AWSXRay.beginSubsegment(name);
+        this.subsegment.putAnnotation("username", username);
+    }
+
+    static AsyncSubsegment begin(String name, String username) {
+        return new AsyncSubsegment(name, username);
+    }
+
+    void detach() {
+        restore(parent);
+    }
+
+    void addException(Throwable throwable) {
+        subsegment.addException(throwable);
+    }
+
+    void end() {
+        var current = AWSXRay.getTraceEntity();
+        AWSXRay.setTraceEntity(subsegment);
+        AWSXRay.endSubsegment();
+        restore(current);
+    }
+
+    private static void restore(@Nullable Entity entity) {
+        if (entity == null) {
+            AWSXRay.clearTraceEntity();
+        } else {
+            AWSXRay.setTraceEntity(entity);
+        }
+    }
+}
@@ -0,0 +1,183 @@
+package dev.ciprian.users.services;
+
+import com.amazonaws.xray.AWSXRay;
+import com.amazonaws.xray.entities.Entity;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import dev.ciprian.users.config.CognitoProperties;
+import dev.ciprian.users.models.BulkRegisterResponse;
+import dev.ciprian.users.models.GenericResponse;
+import dev.ciprian.users.models.User;
+import dev.ciprian.users.tenancy.Tenants;
+import dev.ciprian.users.validation.RequestValidator;
+import dev.ciprian.users.validation.UserPolicyValidator;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.stereotype.Service;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Semaphore;
+
+@Service
+public class BulkRegisterService {
+
+    private static final byte NEW_LINE = '\n';
+
+    private final Logger log;
+    private final CognitoProperties cognitoProperties;
+    private final RegisterService registerService;
+    private final Tenants tenants;
+    private final ObjectMapper objectMapper;
+    private final RequestValidator validator;
+    private final UserPolicyValidator userPolicyValidator;
+
+    public BulkRegisterService(CognitoProperties cognitoProperties, RegisterService registerService, Tenants tenants,
+                               ObjectMapper objectMapper, RequestValidator validator, UserPolicyValidator userPolicyValidator) {
+        this.log = LoggerFactory.getLogger(this.getClass());
+        this.cognitoProperties = cognitoProperties;
+        this.registerService = registerService;
+        this.tenants = tenants;
+        this.objectMapper = objectMapper;
+        this.validator = validator;
+        this.userPolicyValidator = userPolicyValidator;
+    }
+
+    /**
+     * Registers one user per NDJSON line of {@code inputStream} and writes one result line per user to
+     * {@code outputStream} as soon as it is done, so results are not in input order. At most
+     * {@code cognito.bulk-parallelism} registrations run at once and no further lines are read while they do.
+     */
+    public void registerAll(InputStream inputStream, OutputStream outputStream) throws IOException {
+        var permits = new Semaphore(cognitoProperties.getBulkParallelism());
+        var parent = AWSXRay.getTraceEntity();
+        var tenant = tenants.current();
+        var reader = new BufferedReader(new InputStreamReader(inputStream, StandardCharsets.UTF_8));
+        var lineNumber = 0;
+        var registered = 0;
+
+        try (var executor = Executors.newVirtualThreadPerTaskExecutor()) {
+            String line;
+
+            while ((line = reader.readLine()) != null) {
+                lineNumber++;
+
+                if (line.isBlank()) {
+                    continue;
+                }
+
+                permits.acquireUninterruptibly();
+                registered++;
+
+                var currentLine = lineNumber;
+                var currentUser = line;
+                executor.execute(() -> {
+                    try {
+                        BulkRegisterResponse response;
+
+                        try {
+                            response = tenants.callAs(tenant, () -> register(parent, currentLine, currentUser));
+                        } catch (RuntimeException exception) {
+                            // every line gets a result, so the caller can tell which users were processed
+                            log.warn("Could not register user on line {}: {}", currentLine, exception.getMessage());
+                            response = new BulkRegisterResponse(currentLine, 500, "Could not register user");
+                        }
+
+                        write(outputStream, response);
+                    } finally {
+                        permits.release();
+                    }
+                });
+            }
+        }
+
+        log.info("Processed {} bulk registrations", registered);
+        outputStream.flush();
+    }
+
+    private BulkRegisterResponse register(Entity parent, int line, String json) {
+        User user;
+
+        try {
+            user = objectMapper.readValue(json, User.class);
+        } catch (JsonProcessingException exception) {
+            return new BulkRegisterResponse(line, 400, "Malformed request body");
+        }
+
+        var violations = validator.validate(user);
+
+        if (!violations.isEmpty()) {
+            var response = new BulkRegisterResponse(line, 400);
+            response.addErrorMessages(violations);
+            return response;
+        }
+
+        var policyErrors = userPolicyValidator.validate(user);
+
+        if (!policyErrors.isEmpty()) {
+            var response = new BulkRegisterResponse(line, 400);
+            response.setUsername(user.username());
+            response.addErrorMessages(policyErrors);
+            return response;
+        }
+
+        if (parent != null) {
+            AWSXRay.setTraceEntity(parent);
+        }
+
+        try {
+            var response = registerService.createUser(user);
+
+            if (response.isValid()) {
+                response = registerService.setUserPassword(user);
+            }
+
+            return result(line, user, response);
+        } finally {
+            AWSXRay.clearTraceEntity();
+        }
+    }
+
+    private void write(OutputStream outputStream, BulkRegisterResponse response) {
+        try {
+            var bytes = objectMapper.writeValueAsBytes(response);
+
+            synchronized (outputStream) {
+                outputStream.write(bytes);
+                outputStream.write(NEW_LINE);
+                outputStream.flush();
+            }
+        } catch (IOException exception) {
+            throw new UncheckedIOException(exception);
+        }
+    }
+
+    private static int status(GenericResponse response) {
+        if (response.isValid()) {
+            return 200;
+        }
+
+        if (response.isThrottled()) {
+            return 429;
+        }
+
+        if (response.isTimedOut()) {
+            return 504;
+        }
+
+        return response.isConflict() ? 409 : 500;
+    }
+
+    private static BulkRegisterResponse result(int line, User user, GenericResponse response) {
+        var result = new BulkRegisterResponse(line, status(response));
+        result.setUsername(user.username());
+        result.addErrorMessages(response.getErrorMessages());
+        return result;
+    }
+}
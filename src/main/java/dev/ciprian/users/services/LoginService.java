@@ -1,76 +1,261 @@
 package dev.ciprian.users.services;
 
-import com.amazonaws.xray.AWSXRay;
+import dev.ciprian.users.config.CognitoClients;
 import dev.ciprian.users.config.CognitoProperties;
+import dev.ciprian.users.config.CognitoTimeouts;
+import dev.ciprian.users.hedging.Hedger;
 import dev.ciprian.users.models.AccessResponse;
+import dev.ciprian.users.models.GenericResponse;
+import dev.ciprian.users.models.RefreshRequest;
 import dev.ciprian.users.models.User;
+import dev.ciprian.users.ratelimit.CognitoRateLimiter;
+import dev.ciprian.users.ratelimit.LoginFailureTracker;
+import dev.ciprian.users.tenancy.Tenant;
+import dev.ciprian.users.tenancy.Tenants;
+import dev.ciprian.users.tracing.Tracer;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.lang.NonNull;
 import org.springframework.stereotype.Service;
 import org.springframework.util.Assert;
+import software.amazon.awssdk.core.exception.SdkClientException;
 import software.amazon.awssdk.core.exception.SdkServiceException;
-import software.amazon.awssdk.services.cognitoidentityprovider.CognitoIdentityProviderClient;
 import software.amazon.awssdk.services.cognitoidentityprovider.model.AdminInitiateAuthRequest;
+import software.amazon.awssdk.services.cognitoidentityprovider.model.AdminInitiateAuthResponse;
 import software.amazon.awssdk.services.cognitoidentityprovider.model.AuthFlowType;
+import software.amazon.awssdk.services.cognitoidentityprovider.model.ChallengeNameType;
+import software.amazon.awssdk.services.cognitoidentityprovider.model.NotAuthorizedException;
+import software.amazon.awssdk.services.cognitoidentityprovider.model.TooManyRequestsException;
+import software.amazon.awssdk.services.cognitoidentityprovider.model.UserNotFoundException;
 
 import java.util.Map;
 
 import static dev.ciprian.users.constants.UserConstants.AUTH_PASSWORD;
+import static dev.ciprian.users.constants.UserConstants.AUTH_REFRESH_TOKEN;
 import static dev.ciprian.users.constants.UserConstants.AUTH_USERNAME;
+import static dev.ciprian.users.ratelimit.QuotaCategory.USER_AUTHENTICATION;
 
 @Service
 public class LoginService {
 
     private final Logger log;
     private final CognitoProperties cognitoProperties;
-    private final CognitoIdentityProviderClient identityProviderClient;
+    private final CognitoClients cognitoClients;
+    private final Tenants tenants;
+    private final CognitoRateLimiter rateLimiter;
+    private final Tracer tracer;
+    private final Hedger hedger;
+    private final LoginFailureTracker failureTracker;
 
-    public LoginService(CognitoProperties cognitoProperties, CognitoIdentityProviderClient identityProviderClient) {
+    public LoginService(CognitoProperties cognitoProperties, CognitoClients cognitoClients, Tenants tenants,
+                        CognitoRateLimiter rateLimiter, Tracer tracer, Hedger hedger, LoginFailureTracker failureTracker) {
         this.log = LoggerFactory.getLogger(this.getClass());
         this.cognitoProperties = cognitoProperties;
-        this.identityProviderClient = identityProviderClient;
+        this.cognitoClients = cognitoClients;
+        this.tenants = tenants;
+        this.rateLimiter = rateLimiter;
+        this.tracer = tracer;
+        this.hedger = hedger;
+        this.failureTracker = failureTracker;
     }
 
     @NonNull
     public AccessResponse login(User user) {
-        try (var loginSubsegment = AWSXRay.beginSubsegment("Login user")) {
-            loginSubsegment.putAnnotation("username", user.username());
+        try (var loginSpan = tracer.startSpan("Login user")) {
+            loginSpan.putAnnotation("username", user.username());
+
+            var tenant = tenants.current();
+            var failureKey = tenant.qualify(user.username());
 
             try {
-                var parameters = Map.of(AUTH_USERNAME, user.username(), AUTH_PASSWORD, user.password());
+                if (failureTracker.isLockedOut(failureKey)) {
+                    log.warn("Rejected login for user cooling off after failed attempts: {}", user.username());
+                    loginSpan.setThrottle();
+                    return LoginFailureTracker.lockedOut(new AccessResponse(false));
+                }
 
-                var adminInitiateAuthRequest = AdminInitiateAuthRequest.builder()
-                        .userPoolId(cognitoProperties.getUserPoolId())
-                        .clientId(cognitoProperties.getClientId())
-                        .authFlow(AuthFlowType.ADMIN_USER_PASSWORD_AUTH)
-                        .authParameters(parameters)
-                        .build();
+                if (!rateLimiter.tryAcquire(tenant.region(), USER_AUTHENTICATION)) {
+                    log.warn("Throttled login for user: {}", user.username());
+                    loginSpan.setThrottle();
+                    return CognitoRateLimiter.throttled(new AccessResponse(false));
+                }
 
-                log.info("Attempting login for user: {}", user.username());
-                var adminInitiateAuthResponse = identityProviderClient.adminInitiateAuth(adminInitiateAuthRequest);
+                var adminInitiateAuthRequest = adminInitiateAuthRequest(cognitoProperties, tenant, user);
+                var identityProviderClient = cognitoClients.forRegion(tenant.region());
 
-                var authResult = adminInitiateAuthResponse.authenticationResult();
-                Assert.notNull(authResult, "Authentication result cannot be null");
+                log.info("Attempting login for user: {}", user.username());
+                var adminInitiateAuthResponse = hedger.call("AdminInitiateAuth",
+                        () -> identityProviderClient.adminInitiateAuth(adminInitiateAuthRequest),
+                        () -> rateLimiter.tryAcquire(tenant.region(), USER_AUTHENTICATION));
+                rateLimiter.onSuccess(tenant.region(), USER_AUTHENTICATION);
+                failureTracker.onSuccess(failureKey);
 
-                var accessResponse = new AccessResponse();
-                accessResponse.setTokenType(authResult.tokenType());
-                accessResponse.setExpiresInSeconds(authResult.expiresIn());
-                accessResponse.setAccessToken(authResult.accessToken());
-                accessResponse.setRefreshToken(authResult.refreshToken());
-                accessResponse.setIdToken(authResult.idToken());
-                return accessResponse;
+                return accessResponse(adminInitiateAuthResponse);
+            } catch (TooManyRequestsException exception) {
+                log.warn("Cognito throttled login: {}", exception.getMessage());
+                rateLimiter.onThrottled(tenant.region(), USER_AUTHENTICATION);
+                loginSpan.setThrottle();
+                return CognitoRateLimiter.throttled(new AccessResponse(false));
+            } catch (NotAuthorizedException | UserNotFoundException exception) {
+                log.warn("Could not login user: {}", exception.getMessage());
+                rateLimiter.onSuccess(tenant.region(), USER_AUTHENTICATION);
+                failureTracker.onFailure(failureKey);
+                loginSpan.addException(exception);
+                return new AccessResponse(false, "Could not login user");
             } catch (IllegalArgumentException exception) {
                 log.warn("Received null authentication result");
-                loginSubsegment.addException(exception);
+                loginSpan.addException(exception);
                 return new AccessResponse(false, "Could not login user");
             } catch (SdkServiceException exception) {
                 log.warn("Could not login user: {}", exception.getMessage());
-                loginSubsegment.addException(exception);
+                loginSpan.addException(exception);
                 return new AccessResponse(false, "Could not login user");
-            } finally {
-                loginSubsegment.end();
+            } catch (SdkClientException exception) {
+                log.warn("Could not login user: {}", exception.getMessage());
+                loginSpan.addException(exception);
+                return CognitoTimeouts.clientError(new AccessResponse(false, "Could not login user"), exception);
+            }
+        }
+    }
+
+    @NonNull
+    public AccessResponse refresh(RefreshRequest refreshRequest) {
+        try (var refreshSpan = tracer.startSpan("Refresh tokens")) {
+            var tenant = tenants.current();
+
+            try {
+                if (!rateLimiter.tryAcquire(tenant.region(), USER_AUTHENTICATION)) {
+                    log.warn("Throttled token refresh");
+                    refreshSpan.setThrottle();
+                    return CognitoRateLimiter.throttled(new AccessResponse(false));
+                }
+
+                var adminInitiateAuthRequest = adminRefreshAuthRequest(cognitoProperties, tenant, refreshRequest);
+
+                log.info("Attempting token refresh");
+                var adminInitiateAuthResponse = cognitoClients.forRegion(tenant.region()).adminInitiateAuth(adminInitiateAuthRequest);
+                rateLimiter.onSuccess(tenant.region(), USER_AUTHENTICATION);
+
+                var accessResponse = accessResponse(adminInitiateAuthResponse);
+                accessResponse.setRefreshToken(null);
+                return accessResponse;
+            } catch (TooManyRequestsException exception) {
+                log.warn("Cognito throttled token refresh: {}", exception.getMessage());
+                rateLimiter.onThrottled(tenant.region(), USER_AUTHENTICATION);
+                refreshSpan.setThrottle();
+                return CognitoRateLimiter.throttled(new AccessResponse(false));
+            } catch (IllegalArgumentException exception) {
+                log.warn("Received null authentication result");
+                refreshSpan.addException(exception);
+                return new AccessResponse(false, "Could not refresh tokens");
+            } catch (SdkServiceException exception) {
+                log.warn("Could not refresh tokens: {}", exception.getMessage());
+                refreshSpan.addException(exception);
+                return new AccessResponse(false, "Could not refresh tokens");
+            } catch (SdkClientException exception) {
+                log.warn("Could not refresh tokens: {}", exception.getMessage());
+                refreshSpan.addException(exception);
+                return CognitoTimeouts.clientError(new AccessResponse(false, "Could not refresh tokens"), exception);
+            }
+        }
+    }
+
+    /**
+     * Checks the password against a user that still has to change it, which Cognito answers with a new password
+     * challenge instead of tokens.
+     */
+    @NonNull
+    public GenericResponse verifyTemporaryPassword(User user) {
+        try (var verifyPasswordSpan = tracer.startSpan("Verify temporary password")) {
+            verifyPasswordSpan.putAnnotation("username", user.username());
+
+            var tenant = tenants.current();
+            var failureKey = tenant.qualify(user.username());
+
+            try {
+                if (failureTracker.isLockedOut(failureKey)) {
+                    log.warn("Rejected temporary password check for user cooling off: {}", user.username());
+                    verifyPasswordSpan.setThrottle();
+                    return LoginFailureTracker.lockedOut(new GenericResponse(false));
+                }
+
+                if (!rateLimiter.tryAcquire(tenant.region(), USER_AUTHENTICATION)) {
+                    log.warn("Throttled temporary password check for user: {}", user.username());
+                    verifyPasswordSpan.setThrottle();
+                    return CognitoRateLimiter.throttled(new GenericResponse(false));
+                }
+
+                var adminInitiateAuthRequest = adminInitiateAuthRequest(cognitoProperties, tenant, user);
+                var adminInitiateAuthResponse = cognitoClients.forRegion(tenant.region()).adminInitiateAuth(adminInitiateAuthRequest);
+                rateLimiter.onSuccess(tenant.region(), USER_AUTHENTICATION);
+
+                if (adminInitiateAuthResponse.challengeName() != ChallengeNameType.NEW_PASSWORD_REQUIRED) {
+                    log.warn("Expected a new password challenge for user: {}", user.username());
+                    return new GenericResponse(false, "Could not verify temporary password");
+                }
+
+                failureTracker.onSuccess(failureKey);
+                return new GenericResponse(true);
+            } catch (TooManyRequestsException exception) {
+                log.warn("Cognito throttled temporary password check: {}", exception.getMessage());
+                rateLimiter.onThrottled(tenant.region(), USER_AUTHENTICATION);
+                verifyPasswordSpan.setThrottle();
+                return CognitoRateLimiter.throttled(new GenericResponse(false));
+            } catch (NotAuthorizedException exception) {
+                log.warn("Could not verify temporary password: {}", exception.getMessage());
+                rateLimiter.onSuccess(tenant.region(), USER_AUTHENTICATION);
+                failureTracker.onFailure(failureKey);
+                verifyPasswordSpan.addException(exception);
+                return new GenericResponse(false, "Could not verify temporary password");
+            } catch (SdkServiceException exception) {
+                log.warn("Could not verify temporary password: {}", exception.getMessage());
+                verifyPasswordSpan.addException(exception);
+                return new GenericResponse(false, "Could not verify temporary password");
+            } catch (SdkClientException exception) {
+                log.warn("Could not verify temporary password: {}", exception.getMessage());
+                verifyPasswordSpan.addException(exception);
+                return CognitoTimeouts.clientError(new GenericResponse(false, "Could not verify temporary password"), exception);
             }
         }
     }
+
+    static AdminInitiateAuthRequest adminInitiateAuthRequest(CognitoProperties cognitoProperties, User user) {
+        return adminInitiateAuthRequest(cognitoProperties, Tenant.defaultTenant(cognitoProperties), user);
+    }
+
+    static AdminInitiateAuthRequest adminInitiateAuthRequest(CognitoProperties cognitoProperties, Tenant tenant, User user) {
+        var parameters = Map.of(AUTH_USERNAME, user.username(), AUTH_PASSWORD, user.password());
+
+        return AdminInitiateAuthRequest.builder()
+                .userPoolId(tenant.userPoolId())
+                .clientId(tenant.clientId())
+                .authFlow(AuthFlowType.ADMIN_USER_PASSWORD_AUTH)
+                .authParameters(parameters)
+                .overrideConfiguration(CognitoTimeouts.forOperation(cognitoProperties, "login-user"))
+                .build();
+    }
+
+    static AdminInitiateAuthRequest adminRefreshAuthRequest(CognitoProperties cognitoProperties, Tenant tenant,
+                                                            RefreshRequest refreshRequest) {
+        return AdminInitiateAuthRequest.builder()
+                .userPoolId(tenant.userPoolId())
+                .clientId(tenant.clientId())
+                .authFlow(AuthFlowType.REFRESH_TOKEN_AUTH)
+                .authParameters(Map.of(AUTH_REFRESH_TOKEN, refreshRequest.refreshToken()))
+                .overrideConfiguration(CognitoTimeouts.forOperation(cognitoProperties, "refresh-tokens"))
+                .build();
+    }
+
+    static AccessResponse accessResponse(AdminInitiateAuthResponse adminInitiateAuthResponse) {
+        var authResult = adminInitiateAuthResponse.authenticationResult();
+        Assert.notNull(authResult, "Authentication result cannot be null");
+
+        var accessResponse = new AccessResponse();
+        accessResponse.setTokenType(authResult.tokenType());
+        accessResponse.setExpiresInSeconds(authResult.expiresIn());
+        accessResponse.setAccessToken(authResult.accessToken());
+        accessResponse.setRefreshToken(authResult.refreshToken());
+        accessResponse.setIdToken(authResult.idToken());
+        return accessResponse;
+    }
 }
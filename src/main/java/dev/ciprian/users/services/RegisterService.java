@@ -1,119 +1,265 @@
 package dev.ciprian.users.services;
 
-import com.amazonaws.xray.AWSXRay;
+import dev.ciprian.users.config.CognitoClients;
 import dev.ciprian.users.config.CognitoProperties;
+import dev.ciprian.users.config.CognitoTimeouts;
 import dev.ciprian.users.models.GenericResponse;
 import dev.ciprian.users.models.User;
+import dev.ciprian.users.models.UserStatusResponse;
+import dev.ciprian.users.ratelimit.CognitoRateLimiter;
+import dev.ciprian.users.tenancy.Tenant;
+import dev.ciprian.users.tenancy.Tenants;
+import dev.ciprian.users.tracing.Tracer;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.lang.NonNull;
 import org.springframework.stereotype.Service;
+import software.amazon.awssdk.core.exception.SdkClientException;
 import software.amazon.awssdk.core.exception.SdkServiceException;
-import software.amazon.awssdk.services.cognitoidentityprovider.CognitoIdentityProviderClient;
 import software.amazon.awssdk.services.cognitoidentityprovider.model.*;
 
 import java.util.ArrayList;
 
 import static dev.ciprian.users.constants.UserConstants.*;
+import static dev.ciprian.users.ratelimit.QuotaCategory.USER_CREATION;
+import static dev.ciprian.users.ratelimit.QuotaCategory.USER_READ;
+import static dev.ciprian.users.ratelimit.QuotaCategory.USER_UPDATE;
 
 @Service
 public class RegisterService {
 
     private final Logger log;
     private final CognitoProperties cognitoProperties;
-    private final CognitoIdentityProviderClient identityProviderClient;
+    private final CognitoClients cognitoClients;
+    private final Tenants tenants;
+    private final CognitoRateLimiter rateLimiter;
+    private final Tracer tracer;
 
-    public RegisterService(CognitoProperties cognitoProperties, CognitoIdentityProviderClient identityProviderClient) {
+    public RegisterService(CognitoProperties cognitoProperties, CognitoClients cognitoClients, Tenants tenants,
+                           CognitoRateLimiter rateLimiter, Tracer tracer) {
         this.log = LoggerFactory.getLogger(this.getClass());
         this.cognitoProperties = cognitoProperties;
-        this.identityProviderClient = identityProviderClient;
+        this.cognitoClients = cognitoClients;
+        this.tenants = tenants;
+        this.rateLimiter = rateLimiter;
+        this.tracer = tracer;
     }
 
     @NonNull
     public GenericResponse createUser(User user) {
-        try (var createUserSubsegment = AWSXRay.beginSubsegment("Create user")) {
-            createUserSubsegment.putAnnotation("username", user.username());
+        try (var createUserSpan = tracer.startSpan("Create user")) {
+            createUserSpan.putAnnotation("username", user.username());
 
-            try {
-                var attributes = new ArrayList<AttributeType>();
-                attributes.add(AttributeType.builder().name(EMAIL).value(user.email()).build());
-
-                if (user.firstName() != null) {
-                    attributes.add(AttributeType.builder().name(GIVEN_NAME).value(user.firstName()).build());
-                }
+            var tenant = tenants.current();
 
-                if (user.lastName() != null) {
-                    attributes.add(AttributeType.builder().name(FAMILY_NAME).value(user.lastName()).build());
+            try {
+                if (!rateLimiter.tryAcquire(tenant.region(), USER_CREATION)) {
+                    log.warn("Throttled user creation for username: {}", user.username());
+                    createUserSpan.setThrottle();
+                    return CognitoRateLimiter.throttled(new GenericResponse(false));
                 }
 
-                var adminCreateUserRequest = AdminCreateUserRequest.builder()
-                        .userPoolId(cognitoProperties.getUserPoolId())
-                        .username(user.username())
-                        .userAttributes(attributes)
-                        .messageAction(MessageActionType.SUPPRESS)
-                        .build();
+                var adminCreateUserRequest = adminCreateUserRequest(cognitoProperties, tenant, user);
 
-                identityProviderClient.adminCreateUser(adminCreateUserRequest);
+                cognitoClients.forRegion(tenant.region()).adminCreateUser(adminCreateUserRequest);
+                rateLimiter.onSuccess(tenant.region(), USER_CREATION);
                 log.info("Created user with username: {}", user.username());
                 return new GenericResponse(true);
+            } catch (TooManyRequestsException exception) {
+                log.warn("Cognito throttled user creation: {}", exception.getMessage());
+                rateLimiter.onThrottled(tenant.region(), USER_CREATION);
+                createUserSpan.setThrottle();
+                return CognitoRateLimiter.throttled(new GenericResponse(false));
+            } catch (UsernameExistsException exception) {
+                log.info("User already exists: {}", user.username());
+                rateLimiter.onSuccess(tenant.region(), USER_CREATION);
+                var response = new GenericResponse(false, "User already exists");
+                response.setConflict(true);
+                return response;
             } catch (SdkServiceException exception) {
                 log.warn("Could not create user: {}", exception.getMessage());
-                createUserSubsegment.addException(exception);
+                createUserSpan.addException(exception);
                 return new GenericResponse(false, "Could not create user");
-            } finally {
-                createUserSubsegment.end();
+            } catch (SdkClientException exception) {
+                log.warn("Could not create user: {}", exception.getMessage());
+                createUserSpan.addException(exception);
+                return CognitoTimeouts.clientError(new GenericResponse(false, "Could not create user"), exception);
             }
         }
     }
 
     @NonNull
     public GenericResponse setUserPassword(User user) {
-        try (var setPasswordSubsegment = AWSXRay.beginSubsegment("Set user password")) {
-            setPasswordSubsegment.putAnnotation("username", user.username());
+        try (var setPasswordSpan = tracer.startSpan("Set user password")) {
+            setPasswordSpan.putAnnotation("username", user.username());
+
+            var tenant = tenants.current();
 
             try {
-                var adminSetUserPasswordRequest = AdminSetUserPasswordRequest.builder()
-                        .userPoolId(cognitoProperties.getUserPoolId())
-                        .username(user.username())
-                        .password(user.password())
-                        .permanent(true)
-                        .build();
+                if (!rateLimiter.tryAcquire(tenant.region(), USER_UPDATE)) {
+                    log.warn("Throttled setting user password for username: {}", user.username());
+                    setPasswordSpan.setThrottle();
+                    return CognitoRateLimiter.throttled(new GenericResponse(false));
+                }
+
+                var adminSetUserPasswordRequest = adminSetUserPasswordRequest(cognitoProperties, tenant, user);
 
-                identityProviderClient.adminSetUserPassword(adminSetUserPasswordRequest);
+                cognitoClients.forRegion(tenant.region()).adminSetUserPassword(adminSetUserPasswordRequest);
+                rateLimiter.onSuccess(tenant.region(), USER_UPDATE);
                 log.info("Set user password for username: {}", user.username());
                 return new GenericResponse(true);
+            } catch (TooManyRequestsException exception) {
+                log.warn("Cognito throttled setting user password: {}", exception.getMessage());
+                rateLimiter.onThrottled(tenant.region(), USER_UPDATE);
+                setPasswordSpan.setThrottle();
+                return CognitoRateLimiter.throttled(new GenericResponse(false));
             } catch (SdkServiceException exception) {
                 log.warn("Could not set user password: {}", exception.getMessage());
-                setPasswordSubsegment.addException(exception);
+                setPasswordSpan.addException(exception);
                 return new GenericResponse(false, "Could not set user password");
-            } finally {
-                setPasswordSubsegment.end();
+            } catch (SdkClientException exception) {
+                log.warn("Could not set user password: {}", exception.getMessage());
+                setPasswordSpan.addException(exception);
+                return CognitoTimeouts.clientError(new GenericResponse(false, "Could not set user password"), exception);
             }
         }
     }
 
     @NonNull
     public GenericResponse confirmUserEmail(User user) {
-        try (var confirmEmailSubsegment = AWSXRay.beginSubsegment("Confirm user email")) {
-            confirmEmailSubsegment.putAnnotation("username", user.username());
+        try (var confirmEmailSpan = tracer.startSpan("Confirm user email")) {
+            confirmEmailSpan.putAnnotation("username", user.username());
+
+            var tenant = tenants.current();
 
             try {
+                if (!rateLimiter.tryAcquire(tenant.region(), USER_UPDATE)) {
+                    log.warn("Throttled confirming user email for username: {}", user.username());
+                    confirmEmailSpan.setThrottle();
+                    return CognitoRateLimiter.throttled(new GenericResponse(false));
+                }
+
                 var adminUpdateUserAttributesRequest = AdminUpdateUserAttributesRequest.builder()
-                        .userPoolId(cognitoProperties.getUserPoolId())
+                        .userPoolId(tenant.userPoolId())
                         .username(user.username())
                         .userAttributes(AttributeType.builder().name(EMAIL_VERIFIED).value("true").build())
+                        .overrideConfiguration(CognitoTimeouts.forOperation(cognitoProperties, "confirm-user-email"))
                         .build();
 
-                identityProviderClient.adminUpdateUserAttributes(adminUpdateUserAttributesRequest);
+                cognitoClients.forRegion(tenant.region()).adminUpdateUserAttributes(adminUpdateUserAttributesRequest);
+                rateLimiter.onSuccess(tenant.region(), USER_UPDATE);
                 log.info("User email confirmed: {}", user.username());
                 return new GenericResponse(true);
+            } catch (TooManyRequestsException exception) {
+                log.warn("Cognito throttled confirming user email: {}", exception.getMessage());
+                rateLimiter.onThrottled(tenant.region(), USER_UPDATE);
+                confirmEmailSpan.setThrottle();
+                return CognitoRateLimiter.throttled(new GenericResponse(false));
             } catch (SdkServiceException exception) {
                 log.warn("Could not confirm user email: {}", exception.getMessage());
-                confirmEmailSubsegment.addException(exception);
+                confirmEmailSpan.addException(exception);
                 return new GenericResponse(false, "Could not confirm user email");
-            } finally {
-                confirmEmailSubsegment.end();
+            } catch (SdkClientException exception) {
+                log.warn("Could not confirm user email: {}", exception.getMessage());
+                confirmEmailSpan.addException(exception);
+                return CognitoTimeouts.clientError(new GenericResponse(false, "Could not confirm user email"), exception);
             }
         }
     }
+
+    /**
+     * Reads how far an existing user got through registration, so an interrupted one can be resumed.
+     */
+    @NonNull
+    public UserStatusResponse describeUser(User user) {
+        try (var describeUserSpan = tracer.startSpan("Describe user")) {
+            describeUserSpan.putAnnotation("username", user.username());
+
+            var tenant = tenants.current();
+
+            try {
+                if (!rateLimiter.tryAcquire(tenant.region(), USER_READ)) {
+                    log.warn("Throttled describing user: {}", user.username());
+                    describeUserSpan.setThrottle();
+                    return CognitoRateLimiter.throttled(new UserStatusResponse(false));
+                }
+
+                var adminGetUserRequest = AdminGetUserRequest.builder()
+                        .userPoolId(tenant.userPoolId())
+                        .username(user.username())
+                        .overrideConfiguration(CognitoTimeouts.forOperation(cognitoProperties, "describe-user"))
+                        .build();
+
+                var adminGetUserResponse = cognitoClients.forRegion(tenant.region()).adminGetUser(adminGetUserRequest);
+                rateLimiter.onSuccess(tenant.region(), USER_READ);
+                return userStatusResponse(adminGetUserResponse);
+            } catch (TooManyRequestsException exception) {
+                log.warn("Cognito throttled describing user: {}", exception.getMessage());
+                rateLimiter.onThrottled(tenant.region(), USER_READ);
+                describeUserSpan.setThrottle();
+                return CognitoRateLimiter.throttled(new UserStatusResponse(false));
+            } catch (SdkServiceException exception) {
+                log.warn("Could not describe user: {}", exception.getMessage());
+                describeUserSpan.addException(exception);
+                return new UserStatusResponse(false, "Could not describe user");
+            } catch (SdkClientException exception) {
+                log.warn("Could not describe user: {}", exception.getMessage());
+                describeUserSpan.addException(exception);
+                return CognitoTimeouts.clientError(new UserStatusResponse(false, "Could not describe user"), exception);
+            }
+        }
+    }
+
+    static AdminCreateUserRequest adminCreateUserRequest(CognitoProperties cognitoProperties, User user) {
+        return adminCreateUserRequest(cognitoProperties, Tenant.defaultTenant(cognitoProperties), user);
+    }
+
+    static AdminCreateUserRequest adminCreateUserRequest(CognitoProperties cognitoProperties, Tenant tenant, User user) {
+        var attributes = new ArrayList<AttributeType>();
+        attributes.add(AttributeType.builder().name(EMAIL).value(user.email()).build());
+        attributes.add(AttributeType.builder().name(EMAIL_VERIFIED).value("true").build());
+
+        if (user.firstName() != null) {
+            attributes.add(AttributeType.builder().name(GIVEN_NAME).value(user.firstName()).build());
+        }
+
+        if (user.lastName() != null) {
+            attributes.add(AttributeType.builder().name(FAMILY_NAME).value(user.lastName()).build());
+        }
+
+        return AdminCreateUserRequest.builder()
+                .userPoolId(tenant.userPoolId())
+                .username(user.username())
+                .userAttributes(attributes)
+                // lets a retry prove it owns a user whose registration stopped before the password was set
+                .temporaryPassword(user.password())
+                .messageAction(MessageActionType.SUPPRESS)
+                .overrideConfiguration(CognitoTimeouts.forOperation(cognitoProperties, "create-user"))
+                .build();
+    }
+
+    static AdminSetUserPasswordRequest adminSetUserPasswordRequest(CognitoProperties cognitoProperties, User user) {
+        return adminSetUserPasswordRequest(cognitoProperties, Tenant.defaultTenant(cognitoProperties), user);
+    }
+
+    static AdminSetUserPasswordRequest adminSetUserPasswordRequest(CognitoProperties cognitoProperties, Tenant tenant, User user) {
+        return AdminSetUserPasswordRequest.builder()
+                .userPoolId(tenant.userPoolId())
+                .username(user.username())
+                .password(user.password())
+                .permanent(true)
+                .overrideConfiguration(CognitoTimeouts.forOperation(cognitoProperties, "set-user-password"))
+                .build();
+    }
+
+    static UserStatusResponse userStatusResponse(AdminGetUserResponse adminGetUserResponse) {
+        var emailVerified = adminGetUserResponse.userAttributes().stream()
+                .anyMatch(attribute -> EMAIL_VERIFIED.equals(attribute.name()) && "true".equals(attribute.value()));
+
+        var userStatusResponse = new UserStatusResponse();
+        userStatusResponse.setConfirmed(adminGetUserResponse.userStatus() == UserStatusType.CONFIRMED);
+        userStatusResponse.setPasswordChangeRequired(adminGetUserResponse.userStatus() == UserStatusType.FORCE_CHANGE_PASSWORD);
+        userStatusResponse.setEmailVerified(emailVerified);
+        return userStatusResponse;
+    }
 }
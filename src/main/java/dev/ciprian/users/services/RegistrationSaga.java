@@ -0,0 +1,174 @@
+package dev.ciprian.users.services;
+
+import dev.ciprian.users.models.GenericResponse;
+import dev.ciprian.users.models.User;
+import dev.ciprian.users.tenancy.Tenants;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.lang.NonNull;
+import org.springframework.lang.Nullable;
+import org.springframework.stereotype.Service;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.Arrays;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Registers a user in steps that can be resumed: create the user, set the password, verify the email and log in.
+ * <p>
+ * A user is created with the requested password as its temporary one. When a retry finds the user already there, it
+ * reads the user's status and runs only the steps that are missing, after proving it knows the password: through the
+ * new password challenge while the password is still temporary, or by logging in once it is set. Requests that share
+ * an idempotency key while one of them is running wait for it and get its result.
+ */
+@Service
+public class RegistrationSaga {
+
+    private final Logger log;
+    private final RegisterService registerService;
+    private final LoginService loginService;
+    private final Tenants tenants;
+    private final Map<String, InFlight> inFlight;
+
+    public RegistrationSaga(RegisterService registerService, LoginService loginService, Tenants tenants) {
+        this.log = LoggerFactory.getLogger(this.getClass());
+        this.registerService = registerService;
+        this.loginService = loginService;
+        this.tenants = tenants;
+        this.inFlight = new ConcurrentHashMap<>();
+    }
+
+    @NonNull
+    public Result register(User user, @Nullable String idempotencyKey) {
+        if (idempotencyKey == null || idempotencyKey.isBlank()) {
+            return run(user);
+        }
+
+        // the same key sent to two tenants names two different registrations
+        var key = tenants.current().qualify(idempotencyKey);
+        var current = new InFlight(fingerprint(user), new CompletableFuture<>());
+        var existing = inFlight.putIfAbsent(key, current);
+
+        if (existing != null) {
+            if (!Arrays.equals(existing.fingerprint(), current.fingerprint())) {
+                log.warn("Idempotency key reused for a different registration");
+                var response = new GenericResponse(false, "Idempotency key was used for a different request");
+                response.setConflict(true);
+                return new Result(Step.CREATE_USER, response);
+            }
+
+            log.info("Waiting for the registration in progress for user: {}", user.username());
+            return existing.result().join();
+        }
+
+        try {
+            var result = run(user);
+            current.result().complete(result);
+            return result;
+        } catch (RuntimeException exception) {
+            current.result().completeExceptionally(exception);
+            throw exception;
+        } finally {
+            inFlight.remove(key, current);
+        }
+    }
+
+    private Result run(User user) {
+        var response = registerService.createUser(user);
+        var confirmed = false;
+        var emailVerified = true;
+
+        if (response.isConflict()) {
+            var status = registerService.describeUser(user);
+
+            if (status.isNotValid()) {
+                return new Result(Step.CREATE_USER, status);
+            }
+
+            if (status.isPasswordChangeRequired()) {
+                var ownership = loginService.verifyTemporaryPassword(user);
+
+                if (ownership.isNotValid()) {
+                    return new Result(Step.CREATE_USER, ownership.isThrottled() || ownership.isTimedOut() ? ownership : response);
+                }
+            } else if (!status.isConfirmed()) {
+                return new Result(Step.CREATE_USER, response);
+            }
+
+            log.info("Resuming registration for user: {}", user.username());
+            confirmed = status.isConfirmed();
+            emailVerified = status.isEmailVerified();
+        } else if (response.isNotValid()) {
+            return new Result(Step.CREATE_USER, response);
+        }
+
+        if (!confirmed) {
+            response = registerService.setUserPassword(user);
+
+            if (response.isNotValid()) {
+                return new Result(Step.SET_PASSWORD, response);
+            }
+
+            if (!emailVerified) {
+                response = registerService.confirmUserEmail(user);
+
+                if (response.isNotValid()) {
+                    return new Result(Step.CONFIRM_EMAIL, response);
+                }
+            }
+        }
+
+        var accessResponse = loginService.login(user);
+
+        if (accessResponse.isNotValid()) {
+            return new Result(Step.LOGIN, accessResponse);
+        }
+
+        // a user confirmed before this request only proves ownership by logging in
+        if (confirmed && !emailVerified) {
+            response = registerService.confirmUserEmail(user);
+
+            if (response.isNotValid()) {
+                return new Result(Step.CONFIRM_EMAIL, response);
+            }
+        }
+
+        return new Result(null, accessResponse);
+    }
+
+    private static byte[] fingerprint(User user) {
+        try {
+            var digest = MessageDigest.getInstance("SHA-256");
+            digest.update(user.username().getBytes(StandardCharsets.UTF_8));
+            digest.update((byte) 0);
+            digest.update(user.password().getBytes(StandardCharsets.UTF_8));
+            return digest.digest();
+        } catch (NoSuchAlgorithmException exception) {
+            throw new IllegalStateException("SHA-256 is not available", exception);
+        }
+    }
+
+    public enum Step {
+        CREATE_USER,
+        SET_PASSWORD,
+        CONFIRM_EMAIL,
+        LOGIN
+    }
+
+    /**
+     * Outcome of a registration: the tokens on success, otherwise the response of the step that failed.
+     */
+    public record Result(@Nullable Step failedStep, GenericResponse response) {
+
+        public boolean isSuccessful() {
+            return failedStep == null;
+        }
+    }
+
+    private record InFlight(byte[] fingerprint, CompletableFuture<Result> result) {
+    }
+}
@@ -0,0 +1,122 @@
+package dev.ciprian.users.services;
+
+import com.nimbusds.jose.JOSEException;
+import com.nimbusds.jose.JWSAlgorithm;
+import com.nimbusds.jose.jwk.source.JWKSource;
+import com.nimbusds.jose.proc.BadJOSEException;
+import com.nimbusds.jose.proc.JWSVerificationKeySelector;
+import com.nimbusds.jose.proc.SecurityContext;
+import com.nimbusds.jwt.JWTClaimsSet;
+import com.nimbusds.jwt.proc.BadJWTException;
+import com.nimbusds.jwt.proc.ConfigurableJWTProcessor;
+import com.nimbusds.jwt.proc.DefaultJWTClaimsVerifier;
+import com.nimbusds.jwt.proc.DefaultJWTProcessor;
+import dev.ciprian.users.config.JwksConfig;
+import dev.ciprian.users.models.VerifyRequest;
+import dev.ciprian.users.models.VerifyResponse;
+import dev.ciprian.users.tenancy.Tenant;
+import dev.ciprian.users.tenancy.Tenants;
+import dev.ciprian.users.tracing.Tracer;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.lang.NonNull;
+import org.springframework.stereotype.Service;
+
+import java.net.MalformedURLException;
+import java.text.ParseException;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+import static dev.ciprian.users.constants.UserConstants.CLIENT_ID;
+import static dev.ciprian.users.constants.UserConstants.TOKEN_USE;
+import static dev.ciprian.users.constants.UserConstants.TOKEN_USE_ACCESS;
+import static dev.ciprian.users.constants.UserConstants.TOKEN_USE_ID;
+
+@Service
+public class VerifyService {
+
+    private final Logger log;
+    private final Tenants tenants;
+    private final Map<String, ConfigurableJWTProcessor<SecurityContext>> jwtProcessors;
+    private final Tracer tracer;
+
+    public VerifyService(Tenants tenants, JWKSource<SecurityContext> cognitoJwkSource, Tracer tracer) {
+        this.log = LoggerFactory.getLogger(this.getClass());
+        this.tenants = tenants;
+        this.jwtProcessors = new ConcurrentHashMap<>();
+        this.jwtProcessors.put(Tenant.DEFAULT_ID, jwtProcessor(tenants.defaultTenant(), cognitoJwkSource));
+        this.tracer = tracer;
+    }
+
+    @NonNull
+    public VerifyResponse verify(VerifyRequest verifyRequest) {
+        try (var verifySpan = tracer.startSpan("Verify token")) {
+            try {
+                var tenant = tenants.current();
+                var claims = jwtProcessor(tenant).process(verifyRequest.token(), null);
+                verifyClient(tenant, claims);
+
+                var verifyResponse = new VerifyResponse();
+                verifyResponse.setSubject(claims.getSubject());
+                verifyResponse.setUsername(username(claims));
+                verifyResponse.setTokenUse(claims.getStringClaim(TOKEN_USE));
+                verifyResponse.setExpiresAt(claims.getExpirationTime().toInstant().getEpochSecond());
+                return verifyResponse;
+            } catch (ParseException | BadJOSEException exception) {
+                log.info("Rejected token: {}", exception.getMessage());
+                return new VerifyResponse(false, "Invalid token");
+            } catch (JOSEException | MalformedURLException exception) {
+                log.warn("Could not verify token: {}", exception.getMessage());
+                verifySpan.addException(exception);
+                return new VerifyResponse(false, "Could not verify token");
+            }
+        }
+    }
+
+    /**
+     * Returns the processor of {@code tenant}, the keys of other tenants than the default one are only fetched once
+     * one of their tokens is verified.
+     */
+    private ConfigurableJWTProcessor<SecurityContext> jwtProcessor(Tenant tenant) throws MalformedURLException {
+        var jwtProcessor = jwtProcessors.get(tenant.id());
+
+        if (jwtProcessor == null) {
+            jwtProcessor = jwtProcessor(tenant, JwksConfig.remoteJwkSource(tenant.issuer()));
+            var existing = jwtProcessors.putIfAbsent(tenant.id(), jwtProcessor);
+            jwtProcessor = existing != null ? existing : jwtProcessor;
+        }
+
+        return jwtProcessor;
+    }
+
+    private static void verifyClient(Tenant tenant, JWTClaimsSet claims) throws ParseException, BadJWTException {
+        var clientId = tenant.clientId();
+        var tokenUse = claims.getStringClaim(TOKEN_USE);
+
+        // id tokens carry the app client as their audience, access tokens in a client_id claim
+        var validClient = switch (tokenUse) {
+            case TOKEN_USE_ID -> claims.getAudience().contains(clientId);
+            case TOKEN_USE_ACCESS -> clientId.equals(claims.getStringClaim(CLIENT_ID));
+            default -> throw new BadJWTException("Unsupported token use: " + tokenUse);
+        };
+
+        if (!validClient) {
+            throw new BadJWTException("Token was not issued for this client");
+        }
+    }
+
+    private static String username(JWTClaimsSet claims) throws ParseException {
+        var username = claims.getStringClaim("username");
+        return username != null ? username : claims.getStringClaim("cognito:username");
+    }
+
+    static ConfigurableJWTProcessor<SecurityContext> jwtProcessor(Tenant tenant, JWKSource<SecurityContext> jwkSource) {
+        var jwtProcessor = new DefaultJWTProcessor<>();
+        jwtProcessor.setJWSKeySelector(new JWSVerificationKeySelector<>(JWSAlgorithm.RS256, jwkSource));
+        jwtProcessor.setJWTClaimsSetVerifier(new DefaultJWTClaimsVerifier<>(
+                new JWTClaimsSet.Builder().issuer(tenant.issuer()).build(),
+                Set.of("sub", "exp", "iat", TOKEN_USE)));
+        return jwtProcessor;
+    }
+}
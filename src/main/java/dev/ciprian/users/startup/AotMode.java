@@ -0,0 +1,118 @@
+package dev.ciprian.users.startup;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.aot.AotDetector;
+import org.springframework.core.SpringProperties;
+import org.springframework.lang.Nullable;
+
+import java.io.IOException;
+import java.util.List;
+import java.util.Locale;
+import java.util.Objects;
+import java.util.Properties;
+import java.util.function.Function;
+
+/**
+ * Decides whether the lambda handler starts from the bean definitions generated by Spring AOT processing at build
+ * time instead of scanning the classpath and evaluating conditions. The JVM zip ships the generated classes together
+ * with {@value #BUILD_PROPERTIES}, which records the properties the conditions were evaluated with.
+ * <p>
+ * AOT mode is on when the generated classes are present, unless {@code SPRING_AOT_ENABLED=false} (or
+ * {@code -Dspring.aot.enabled=false}) switches it off, or one of the {@link #FROZEN_PROPERTIES} is set differently
+ * than at build time, since the generated definitions would silently ignore it.
+ */
+public final class AotMode {
+
+    static final String SWITCH_ENVIRONMENT_VARIABLE = "SPRING_AOT_ENABLED";
+    static final String BUILD_PROPERTIES = "META-INF/aot-build.properties";
+    // properties that decide @ConditionalOnProperty beans and auto-configuration exclusions
+    static final List<String> FROZEN_PROPERTIES = List.of("validation.mode", "cognito.async-enabled");
+
+    private static final Logger log = LoggerFactory.getLogger(AotMode.class);
+
+    private AotMode() {
+    }
+
+    /**
+     * Turns AOT mode on or off for the Spring applications started next in this JVM and returns whether it is on.
+     */
+    public static boolean configure() {
+        var enabled = enabled(System::getenv, System::getProperty, buildProperties());
+        SpringProperties.setProperty(AotDetector.AOT_ENABLED, String.valueOf(enabled));
+        return enabled;
+    }
+
+    /**
+     * Turns AOT mode off for the Spring applications started next in this JVM, for contexts the generated bean
+     * definitions do not fit.
+     */
+    public static void disable() {
+        SpringProperties.setProperty(AotDetector.AOT_ENABLED, Boolean.FALSE.toString());
+    }
+
+    static boolean enabled(Function<String, String> environment, Function<String, String> systemProperties,
+                           @Nullable Properties buildProperties) {
+        var requested = systemProperties.apply(AotDetector.AOT_ENABLED);
+
+        if (requested == null) {
+            requested = environment.apply(SWITCH_ENVIRONMENT_VARIABLE);
+        }
+
+        if (requested != null && !Boolean.parseBoolean(requested)) {
+            return false;
+        }
+
+        if (buildProperties == null) {
+            if (requested != null) {
+                log.warn("AOT mode requested but the application was not AOT processed, starting in regular mode");
+            }
+            return false;
+        }
+
+        for (var property : FROZEN_PROPERTIES) {
+            var value = runtimeValue(property, environment, systemProperties);
+
+            if (!Objects.equals(value, buildProperties.getProperty(property))) {
+                log.warn("{} is set to {} but the AOT processed application was built with {}, starting in regular mode",
+                        property, value, buildProperties.getProperty(property));
+                return false;
+            }
+        }
+
+        return true;
+    }
+
+    @Nullable
+    private static String runtimeValue(String property, Function<String, String> environment,
+                                       Function<String, String> systemProperties) {
+        var value = systemProperties.apply(property);
+
+        if (value != null) {
+            return value;
+        }
+
+        // the environment variable names relaxed binding maps the property to
+        var name = property.toUpperCase(Locale.ROOT).replace('.', '_');
+        value = environment.apply(name.replace("-", ""));
+        return value != null ? value : environment.apply(name.replace('-', '_'));
+    }
+
+    @Nullable
+    private static Properties buildProperties() {
+        var resource = AotMode.class.getClassLoader().getResourceAsStream(BUILD_PROPERTIES);
+
+        if (resource == null) {
+            return null;
+        }
+
+        try (resource) {
+            var properties = new Properties();
+            properties.load(resource);
+            return properties;
+        } catch (IOException exception) {
+            log.warn("Could not read {}: {}", BUILD_PROPERTIES, exception.getMessage());
+            return null;
+        }
+    }
+}
@@ -0,0 +1,163 @@
+package dev.ciprian.users.startup;
+
+import com.amazonaws.xray.AWSXRay;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.BeansException;
+import org.springframework.boot.context.metrics.buffering.BufferingApplicationStartup;
+import org.springframework.context.ApplicationContext;
+import org.springframework.core.metrics.StartupStep;
+import org.springframework.lang.Nullable;
+
+import java.lang.management.ManagementFactory;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.function.Supplier;
+
+/**
+ * Where the cold start goes, from the moment the lambda handler starts building its Spring context until the first
+ * invocation. Reported once, on the first invocation, as a structured log line and an X-Ray subsegment.
+ */
+public final class StartupTimeline {
+
+    private static final StartupTimeline INSTANCE = new StartupTimeline();
+    private static final Duration MIN_STEP_DURATION = Duration.ofMillis(1);
+    private static final String APPLICATION_PACKAGE = "dev.ciprian.users";
+
+    private final Logger log = LoggerFactory.getLogger(StartupTimeline.class);
+    private final List<Step> steps = Collections.synchronizedList(new ArrayList<>());
+    private final AtomicBoolean reported = new AtomicBoolean();
+    private volatile Instant start = Instant.now();
+    @Nullable
+    private volatile Instant end;
+    private volatile int loadedClasses;
+    @Nullable
+    private volatile BufferingApplicationStartup applicationStartup;
+
+    private StartupTimeline() {
+    }
+
+    public static StartupTimeline get() {
+        return INSTANCE;
+    }
+
+    public void start() {
+        steps.clear();
+        start = Instant.now();
+        end = null;
+    }
+
+    public <T> T time(String name, Supplier<T> action) {
+        var stepStart = Instant.now();
+
+        try {
+            return action.get();
+        } finally {
+            record(name, stepStart, Instant.now(), Map.of());
+        }
+    }
+
+    public void record(String name, Instant stepStart, Instant stepEnd, Map<String, String> tags) {
+        steps.add(new Step(name, Duration.between(start, stepStart).toMillis(), Duration.between(stepStart, stepEnd).toMillis(), tags));
+    }
+
+    void attach(BufferingApplicationStartup applicationStartup) {
+        this.applicationStartup = applicationStartup;
+    }
+
+    /**
+     * Closes the timeline, pulling in the Spring startup steps worth reporting: everything that took at least a
+     * millisecond, plus the creation of every bean defined by this application.
+     */
+    public void complete(ApplicationContext applicationContext) {
+        var buffered = applicationStartup;
+
+        if (buffered != null) {
+            for (var event : buffered.drainBufferedTimeline().getEvents()) {
+                var step = event.getStartupStep();
+                var tags = tags(step);
+
+                if (event.getDuration().compareTo(MIN_STEP_DURATION) >= 0 || isApplicationBean(applicationContext, tags.get("beanName"))) {
+                    record(step.getName(), event.getStartTime(), event.getEndTime(), tags);
+                }
+            }
+        }
+
+        end = Instant.now();
+        loadedClasses = ManagementFactory.getClassLoadingMXBean().getLoadedClassCount();
+    }
+
+    public Duration total() {
+        var completed = end;
+        return Duration.between(start, completed != null ? completed : Instant.now());
+    }
+
+    public int loadedClasses() {
+        return loadedClasses;
+    }
+
+    public List<Step> steps() {
+        synchronized (steps) {
+            return List.copyOf(steps);
+        }
+    }
+
+    /**
+     * Emits the timeline on the first call only, so it can sit on the invocation path.
+     */
+    public void reportOnce(ObjectMapper objectMapper) {
+        if (!reported.compareAndSet(false, true)) {
+            return;
+        }
+
+        var sinceStart = Duration.between(start, Instant.now()).toMillis();
+        var report = new LinkedHashMap<String, Object>();
+        report.put("message", "Startup timeline");
+        report.put("totalMillis", total().toMillis());
+        report.put("firstInvocationMillis", sinceStart);
+        report.put("loadedClasses", loadedClasses);
+        report.put("steps", steps());
+
+        try {
+            log.info(objectMapper.writeValueAsString(report));
+        } catch (JsonProcessingException exception) {
+            log.warn("Could not write startup timeline: {}", exception.getMessage());
+        }
+
+        try (var subsegment = AWSXRay.beginSubsegment("Startup timeline")) {
+            subsegment.putAnnotation("startupMillis", total().toMillis());
+            subsegment.putAnnotation("loadedClasses", loadedClasses);
+            subsegment.putMetadata("startup", "steps", steps());
+        }
+    }
+
+    private static Map<String, String> tags(StartupStep step) {
+        var tags = new LinkedHashMap<String, String>();
+        step.getTags().forEach(tag -> tags.put(tag.getKey(), tag.getValue()));
+        return tags;
+    }
+
+    private static boolean isApplicationBean(ApplicationContext applicationContext, @Nullable String beanName) {
+        if (beanName == null) {
+            return false;
+        }
+
+        try {
+            var type = applicationContext.getType(beanName, false);
+            return type != null && type.getName().startsWith(APPLICATION_PACKAGE);
+        } catch (BeansException exception) {
+            return false;
+        }
+    }
+
+    public record Step(String name, long startMillis, long durationMillis, Map<String, String> tags) {
+    }
+}
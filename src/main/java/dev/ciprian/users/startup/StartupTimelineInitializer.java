@@ -0,0 +1,21 @@
+package dev.ciprian.users.startup;
+
+import org.springframework.boot.context.metrics.buffering.BufferingApplicationStartup;
+import org.springframework.context.ApplicationContextInitializer;
+import org.springframework.context.ConfigurableApplicationContext;
+
+/**
+ * Records the Spring startup steps into the {@link StartupTimeline}. Registered through {@code spring.factories},
+ * since the lambda container handler builds the {@code SpringApplication} itself.
+ */
+public class StartupTimelineInitializer implements ApplicationContextInitializer<ConfigurableApplicationContext> {
+
+    private static final int CAPACITY = 4096;
+
+    @Override
+    public void initialize(ConfigurableApplicationContext applicationContext) {
+        var applicationStartup = new BufferingApplicationStartup(CAPACITY);
+        applicationContext.setApplicationStartup(applicationStartup);
+        StartupTimeline.get().attach(applicationStartup);
+    }
+}
@@ -0,0 +1,17 @@
+package dev.ciprian.users.tenancy;
+
+import java.lang.annotation.Documented;
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.annotation.Target;
+
+/**
+ * Marks a controller that can only serve the default pool. {@link TenantInterceptor} answers requests naming any other
+ * tenant with the same {@code 404} as an unknown one, instead of letting them run against the default pool.
+ */
+@Documented
+@Target(ElementType.TYPE)
+@Retention(RetentionPolicy.RUNTIME)
+public @interface DefaultTenantOnly {
+}
@@ -0,0 +1,30 @@
+package dev.ciprian.users.tenancy;
+
+import dev.ciprian.users.config.CognitoProperties;
+
+/**
+ * User pool and app client a request is served from.
+ */
+public record Tenant(String id, String region, String userPoolId, String clientId) {
+
+    public static final String DEFAULT_ID = "default";
+
+    /**
+     * The pool configured directly under {@code cognito}, used when a request names no tenant.
+     */
+    public static Tenant defaultTenant(CognitoProperties cognitoProperties) {
+        return new Tenant(DEFAULT_ID, cognitoProperties.getRegion(), cognitoProperties.getUserPoolId(),
+                cognitoProperties.getClientId());
+    }
+
+    public String issuer() {
+        return "https://cognito-idp.%s.amazonaws.com/%s".formatted(region, userPoolId);
+    }
+
+    /**
+     * Prefixes {@code value} with the tenant id, for state kept per username or key across tenants.
+     */
+    public String qualify(String value) {
+        return id + ':' + value;
+    }
+}
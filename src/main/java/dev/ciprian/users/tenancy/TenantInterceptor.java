@@ -0,0 +1,82 @@
+package dev.ciprian.users.tenancy;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import dev.ciprian.users.models.GenericResponse;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.lang.NonNull;
+import org.springframework.lang.Nullable;
+import org.springframework.stereotype.Component;
+import org.springframework.web.method.HandlerMethod;
+import org.springframework.web.servlet.AsyncHandlerInterceptor;
+import org.springframework.web.servlet.HandlerMapping;
+
+import java.io.IOException;
+import java.util.Map;
+
+/**
+ * Selects the tenant of a request from the {@code /tenants/{tenant}/...} path or the {@value Tenants#TENANT_HEADER}
+ * header, the path winning when both are present. Unknown tenants are answered with {@code 404}, and so are tenants
+ * other than the default one on controllers marked {@link DefaultTenantOnly}.
+ */
+@Component
+public class TenantInterceptor implements AsyncHandlerInterceptor {
+
+    public static final String TENANT_VARIABLE = "tenant";
+
+    private final Tenants tenants;
+    private final ObjectMapper objectMapper;
+
+    public TenantInterceptor(Tenants tenants, ObjectMapper objectMapper) {
+        this.tenants = tenants;
+        this.objectMapper = objectMapper;
+    }
+
+    @Override
+    public boolean preHandle(@NonNull HttpServletRequest request, @NonNull HttpServletResponse response,
+                             @NonNull Object handler) throws IOException {
+        var tenant = tenants.find(tenantId(request));
+
+        if (tenant == null || !Tenant.DEFAULT_ID.equals(tenant.id()) && defaultTenantOnly(handler)) {
+            response.setStatus(HttpStatus.NOT_FOUND.value());
+            response.setContentType(MediaType.APPLICATION_JSON_VALUE);
+            objectMapper.writeValue(response.getOutputStream(), new GenericResponse(false, "Unknown tenant"));
+            return false;
+        }
+
+        tenants.enter(tenant);
+        return true;
+    }
+
+    @Override
+    public void afterCompletion(@NonNull HttpServletRequest request, @NonNull HttpServletResponse response,
+                                @NonNull Object handler, @Nullable Exception exception) {
+        tenants.exit();
+    }
+
+    // async requests leave the servlet thread here and run preHandle again when they are dispatched back
+    @Override
+    public void afterConcurrentHandlingStarted(@NonNull HttpServletRequest request, @NonNull HttpServletResponse response,
+                                               @NonNull Object handler) {
+        tenants.exit();
+    }
+
+    private static boolean defaultTenantOnly(Object handler) {
+        return handler instanceof HandlerMethod handlerMethod
+                && handlerMethod.getBeanType().isAnnotationPresent(DefaultTenantOnly.class);
+    }
+
+    @Nullable
+    @SuppressWarnings("unchecked")
+    private static String tenantId(HttpServletRequest request) {
+        var variables = (Map<String, String>) request.getAttribute(HandlerMapping.URI_TEMPLATE_VARIABLES_ATTRIBUTE);
+
+        if (variables != null && variables.containsKey(TENANT_VARIABLE)) {
+            return variables.get(TENANT_VARIABLE);
+        }
+
+        return request.getHeader(Tenants.TENANT_HEADER);
+    }
+}
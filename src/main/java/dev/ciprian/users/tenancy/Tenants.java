@@ -0,0 +1,86 @@
+package dev.ciprian.users.tenancy;
+
+import dev.ciprian.users.config.CognitoProperties;
+import org.springframework.lang.Nullable;
+import org.springframework.stereotype.Component;
+import org.springframework.util.StringUtils;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.function.Supplier;
+
+/**
+ * Lookup table of the tenants in {@code cognito.tenants}, built once at startup, and the tenant of the request being
+ * served on the current thread. Tenants without their own region use the default one.
+ */
+@Component
+public class Tenants {
+
+    public static final String TENANT_HEADER = "X-Tenant-Id";
+
+    private static final ThreadLocal<Tenant> CURRENT = new ThreadLocal<>();
+
+    private final Tenant defaultTenant;
+    private final Map<String, Tenant> tenants;
+
+    public Tenants(CognitoProperties cognitoProperties) {
+        this.defaultTenant = Tenant.defaultTenant(cognitoProperties);
+
+        var tenants = new HashMap<String, Tenant>();
+        tenants.put(Tenant.DEFAULT_ID, defaultTenant);
+
+        cognitoProperties.getTenants().forEach((id, pool) -> {
+            var region = StringUtils.hasText(pool.getRegion()) ? pool.getRegion() : cognitoProperties.getRegion();
+            tenants.put(id, new Tenant(id, region, pool.getUserPoolId(), pool.getClientId()));
+        });
+
+        this.tenants = Map.copyOf(tenants);
+    }
+
+    public Tenant defaultTenant() {
+        return defaultTenant;
+    }
+
+    /**
+     * Returns the tenant with the given id, the default one when no id is given, or {@code null} for an unknown id.
+     */
+    @Nullable
+    public Tenant find(@Nullable String id) {
+        return StringUtils.hasText(id) ? tenants.get(id) : defaultTenant;
+    }
+
+    public Tenant current() {
+        var tenant = CURRENT.get();
+        return tenant != null ? tenant : defaultTenant;
+    }
+
+    /**
+     * Runs {@code action} with {@code tenant} as the current tenant of this thread.
+     */
+    public <T> T callAs(Tenant tenant, Supplier<T> action) {
+        var previous = CURRENT.get();
+        CURRENT.set(tenant);
+
+        try {
+            return action.get();
+        } finally {
+            restore(previous);
+        }
+    }
+
+    void enter(Tenant tenant) {
+        CURRENT.set(tenant);
+    }
+
+    void exit() {
+        CURRENT.remove();
+    }
+
+    private static void restore(@Nullable Tenant previous) {
+        if (previous != null) {
+            CURRENT.set(previous);
+        } else {
+            CURRENT.remove();
+        }
+    }
+}
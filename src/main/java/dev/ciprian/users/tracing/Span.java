@@ -0,0 +1,26 @@
+package dev.ciprian.users.tracing;
+
+/**
+ * A unit of traced work. Closing it ends it, and closing it again does nothing.
+ */
+public interface Span extends AutoCloseable {
+
+    Span NOOP = new Span() {
+    };
+
+    default void putAnnotation(String key, String value) {
+    }
+
+    default void addException(Throwable throwable) {
+    }
+
+    /**
+     * Marks the span as throttled by Cognito or by the client-side rate limiter.
+     */
+    default void setThrottle() {
+    }
+
+    @Override
+    default void close() {
+    }
+}
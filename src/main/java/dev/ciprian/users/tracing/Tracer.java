@@ -0,0 +1,10 @@
+package dev.ciprian.users.tracing;
+
+public interface Tracer {
+
+    /**
+     * Starts a span as a child of the current trace entity. Returns {@link Span#NOOP} when the work would not be
+     * recorded anyway, so callers never need to check.
+     */
+    Span startSpan(String name);
+}
@@ -0,0 +1,13 @@
+package dev.ciprian.users.tracing;
+
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+@Configuration
+public class TracingConfig {
+
+    @Bean
+    public Tracer tracer(TracingProperties tracingProperties) {
+        return tracingProperties.isEnabled() ? new XRayTracer(tracingProperties) : new NoopTracer();
+    }
+}
@@ -0,0 +1,29 @@
+package dev.ciprian.users.tracing;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.util.HashMap;
+import java.util.Map;
+
+@ConfigurationProperties(prefix = "tracing")
+public class TracingProperties {
+
+    private boolean enabled = true;
+    private Map<String, Double> operations = new HashMap<>();
+
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    public void setEnabled(boolean enabled) {
+        this.enabled = enabled;
+    }
+
+    public Map<String, Double> getOperations() {
+        return operations;
+    }
+
+    public void setOperations(Map<String, Double> operations) {
+        this.operations = operations;
+    }
+}
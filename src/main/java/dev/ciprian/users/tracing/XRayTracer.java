@@ -0,0 +1,80 @@
+package dev.ciprian.users.tracing;
+
+import com.amazonaws.xray.AWSXRay;
+import com.amazonaws.xray.entities.Subsegment;
+
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ThreadLocalRandom;
+
+/**
+ * Records spans as X-Ray subsegments. Nothing is created when there is no trace entity, when the trace is not sampled
+ * or when the sampling rule of the span's operation rejects it.
+ */
+public class XRayTracer implements Tracer {
+
+    private final TracingProperties tracingProperties;
+    private final Map<String, Double> samplingRates;
+
+    public XRayTracer(TracingProperties tracingProperties) {
+        this.tracingProperties = tracingProperties;
+        this.samplingRates = new ConcurrentHashMap<>();
+    }
+
+    @Override
+    public Span startSpan(String name) {
+        var parent = AWSXRay.getTraceEntity();
+
+        if (parent == null || !parent.getParentSegment().isSampled() || !sampled(name)) {
+            return Span.NOOP;
+        }
+
+        return new XRaySpan(AWSXRay.beginSubsegment(name));
+    }
+
+    private boolean sampled(String name) {
+        var rate = samplingRates.computeIfAbsent(name, this::samplingRate);
+        return rate >= 1 || (rate > 0 && ThreadLocalRandom.current().nextDouble() < rate);
+    }
+
+    private double samplingRate(String name) {
+        var operation = name.toLowerCase(Locale.ROOT).replace(' ', '-');
+        return tracingProperties.getOperations().getOrDefault(operation, 1.0);
+    }
+
+    private static final class XRaySpan implements Span {
+
+        private final Subsegment subsegment;
+        private boolean closed;
+
+        XRaySpan(Subsegment subsegment) {
+            this.subsegment = subsegment;
+        }
+
+        @Override
+        public void putAnnotation(String key, String value) {
+            subsegment.putAnnotation(key, value);
+        }
+
+        @Override
+        public void addException(Throwable throwable) {
+            subsegment.addException(throwable);
+        }
+
+        @Override
+        public void setThrottle() {
+            subsegment.setThrottle(true);
+        }
+
+        @Override
+        public void close() {
+            if (closed) {
+                return;
+            }
+
+            closed = true;
+            subsegment.close();
+        }
+    }
+}
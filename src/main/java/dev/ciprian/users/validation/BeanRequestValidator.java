@@ -0,0 +1,29 @@
+package dev.ciprian.users.validation;
+
+import jakarta.validation.ConstraintViolation;
+import jakarta.validation.Validator;
+
+import java.util.List;
+
+/**
+ * Checks the bean validation constraints of a request body through Hibernate Validator.
+ */
+public class BeanRequestValidator implements RequestValidator {
+
+    private final Validator validator;
+
+    public BeanRequestValidator(Validator validator) {
+        this.validator = validator;
+    }
+
+    @Override
+    public List<String> validate(Object body) {
+        var violations = validator.validate(body);
+
+        if (violations.isEmpty()) {
+            return List.of();
+        }
+
+        return violations.stream().map(ConstraintViolation::getMessage).sorted().toList();
+    }
+}
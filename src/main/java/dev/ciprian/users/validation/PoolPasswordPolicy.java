@@ -0,0 +1,81 @@
+package dev.ciprian.users.validation;
+
+import dev.ciprian.users.config.CognitoProperties;
+import software.amazon.awssdk.services.cognitoidentityprovider.model.PasswordPolicyType;
+
+import java.util.List;
+import java.util.Objects;
+
+/**
+ * Password requirements of a user pool, checked the way Cognito checks them.
+ */
+public record PoolPasswordPolicy(int minLength, boolean requireLowercase, boolean requireUppercase,
+                                 boolean requireNumbers, boolean requireSymbols) {
+
+    static final int MAX_LENGTH = 256;
+
+    // the characters Cognito counts as symbols, a space only counts when it is neither leading nor trailing
+    private static final String SYMBOLS = "^$*.[]{}()?\"!@#%&/\\,><':;|_~`=+- ";
+    private static final int DEFAULT_MIN_LENGTH = 8;
+
+    public static PoolPasswordPolicy of(CognitoProperties.PasswordPolicy passwordPolicy) {
+        return new PoolPasswordPolicy(passwordPolicy.getMinLength(), passwordPolicy.isRequireLowercase(),
+                passwordPolicy.isRequireUppercase(), passwordPolicy.isRequireNumbers(), passwordPolicy.isRequireSymbols());
+    }
+
+    public static PoolPasswordPolicy of(PasswordPolicyType passwordPolicy) {
+        return new PoolPasswordPolicy(Objects.requireNonNullElse(passwordPolicy.minimumLength(), DEFAULT_MIN_LENGTH),
+                Boolean.TRUE.equals(passwordPolicy.requireLowercase()),
+                Boolean.TRUE.equals(passwordPolicy.requireUppercase()),
+                Boolean.TRUE.equals(passwordPolicy.requireNumbers()),
+                Boolean.TRUE.equals(passwordPolicy.requireSymbols()));
+    }
+
+    /**
+     * Adds a message to {@code errors} for every requirement {@code password} misses, in one pass over it.
+     */
+    void check(String password, List<String> errors) {
+        var length = password.length();
+
+        if (length < minLength) {
+            errors.add("Password must have at least " + minLength + " characters");
+        }
+
+        if (length > MAX_LENGTH) {
+            errors.add("Password must have at most " + MAX_LENGTH + " characters");
+        }
+
+        if (length > 0 && (Character.isWhitespace(password.charAt(0)) || Character.isWhitespace(password.charAt(length - 1)))) {
+            errors.add("Password must not start or end with whitespace");
+        }
+
+        var lowercase = false;
+        var uppercase = false;
+        var number = false;
+        var symbol = false;
+
+        for (var i = 0; i < length; i++) {
+            var c = password.charAt(i);
+            lowercase |= Character.isLowerCase(c);
+            uppercase |= Character.isUpperCase(c);
+            number |= c >= '0' && c <= '9';
+            symbol |= SYMBOLS.indexOf(c) >= 0 && (c != ' ' || (i > 0 && i < length - 1));
+        }
+
+        if (requireLowercase && !lowercase) {
+            errors.add("Password must contain a lowercase letter");
+        }
+
+        if (requireUppercase && !uppercase) {
+            errors.add("Password must contain an uppercase letter");
+        }
+
+        if (requireNumbers && !number) {
+            errors.add("Password must contain a number");
+        }
+
+        if (requireSymbols && !symbol) {
+            errors.add("Password must contain a symbol");
+        }
+    }
+}
@@ -0,0 +1,15 @@
+package dev.ciprian.users.validation;
+
+import java.util.List;
+
+/**
+ * Checks request bodies outside of Spring MVC, for {@link dev.ciprian.users.controllers.DirectDispatcher} and bulk
+ * registration. {@code validation.mode} picks the implementation.
+ */
+public interface RequestValidator {
+
+    /**
+     * Returns the sorted messages of the constraints {@code body} breaks, empty when it is valid.
+     */
+    List<String> validate(Object body);
+}
@@ -0,0 +1,184 @@
+package dev.ciprian.users.validation;
+
+import dev.ciprian.users.config.CognitoClients;
+import dev.ciprian.users.config.CognitoProperties;
+import dev.ciprian.users.config.CognitoTimeouts;
+import dev.ciprian.users.models.User;
+import dev.ciprian.users.ratelimit.CognitoRateLimiter;
+import dev.ciprian.users.tenancy.Tenant;
+import dev.ciprian.users.tenancy.Tenants;
+import org.crac.Context;
+import org.crac.Core;
+import org.crac.Resource;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.lang.Nullable;
+import org.springframework.stereotype.Component;
+import software.amazon.awssdk.core.exception.SdkException;
+import software.amazon.awssdk.services.cognitoidentityprovider.model.DescribeUserPoolRequest;
+import software.amazon.awssdk.services.cognitoidentityprovider.model.TooManyRequestsException;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+import static dev.ciprian.users.ratelimit.QuotaCategory.USER_READ;
+
+/**
+ * Checks a new user against the pool's password policy and the attribute limits Cognito applies, so a registration
+ * Cognito would refuse the password of is rejected before the user is created.
+ * <p>
+ * The policy comes from {@code cognito.password-policy}. With {@code describe-user-pool} enabled, the policy of each
+ * tenant's pool is read with {@code DescribeUserPool} the first time one of its users registers and kept for the life
+ * of the instance. The call takes a {@code user-read} token from the rate limiter. When there is no token or the call
+ * fails, the configured policy is used for that registration and the pool is described again on the next one.
+ * Policies read while priming are dropped before the SnapStart checkpoint.
+ */
+@Component
+public class UserPolicyValidator implements Resource {
+
+    static final int MAX_USERNAME_LENGTH = 128;
+    static final int MAX_ATTRIBUTE_LENGTH = 2048;
+
+    private final Logger log;
+    private final CognitoProperties cognitoProperties;
+    private final CognitoClients cognitoClients;
+    private final Tenants tenants;
+    private final CognitoRateLimiter rateLimiter;
+    private final PoolPasswordPolicy configuredPolicy;
+    private final Map<String, PoolPasswordPolicy> describedPolicies;
+
+    public UserPolicyValidator(CognitoProperties cognitoProperties, CognitoClients cognitoClients, Tenants tenants,
+                               CognitoRateLimiter rateLimiter) {
+        this.log = LoggerFactory.getLogger(this.getClass());
+        this.cognitoProperties = cognitoProperties;
+        this.cognitoClients = cognitoClients;
+        this.tenants = tenants;
+        this.rateLimiter = rateLimiter;
+        this.configuredPolicy = PoolPasswordPolicy.of(cognitoProperties.getPasswordPolicy());
+        this.describedPolicies = new ConcurrentHashMap<>();
+        Core.getGlobalContext().register(this);
+    }
+
+    /**
+     * Returns the sorted messages of every constraint {@code user} breaks for the current tenant, empty when it can be
+     * registered. Missing values are left to the bean validation constraints of {@link User}.
+     */
+    public List<String> validate(User user) {
+        var errors = new ArrayList<String>(0);
+
+        if (hasText(user.password())) {
+            passwordPolicy(tenants.current()).check(user.password(), errors);
+        }
+
+        if (hasText(user.username()) && !validUsername(user.username())) {
+            errors.add("Username must have at most " + MAX_USERNAME_LENGTH + " characters and no whitespace");
+        }
+
+        if (hasText(user.email()) && !validEmail(user.email())) {
+            errors.add("Email is not valid");
+        }
+
+        checkLength(user.firstName(), "First name", errors);
+        checkLength(user.lastName(), "Last name", errors);
+
+        errors.sort(null);
+        return errors;
+    }
+
+    @Override
+    public void beforeCheckpoint(Context<? extends Resource> context) {
+        describedPolicies.clear();
+    }
+
+    @Override
+    public void afterRestore(Context<? extends Resource> context) {
+    }
+
+    private PoolPasswordPolicy passwordPolicy(Tenant tenant) {
+        if (!cognitoProperties.getPasswordPolicy().isDescribeUserPool()) {
+            return configuredPolicy;
+        }
+
+        var policy = describedPolicies.get(tenant.id());
+
+        if (policy != null) {
+            return policy;
+        }
+
+        policy = describePasswordPolicy(tenant);
+
+        if (policy == null) {
+            // not kept, so a throttled or failed call does not pin the configured policy for the life of the instance
+            return configuredPolicy;
+        }
+
+        var existing = describedPolicies.putIfAbsent(tenant.id(), policy);
+        return existing != null ? existing : policy;
+    }
+
+    @Nullable
+    private PoolPasswordPolicy describePasswordPolicy(Tenant tenant) {
+        if (!rateLimiter.tryAcquire(tenant.region(), USER_READ)) {
+            log.warn("Throttled describing user pool, using the configured password policy: {}", tenant.userPoolId());
+            return null;
+        }
+
+        try {
+            var describeUserPoolRequest = DescribeUserPoolRequest.builder()
+                    .userPoolId(tenant.userPoolId())
+                    .overrideConfiguration(CognitoTimeouts.forOperation(cognitoProperties, "describe-user-pool"))
+                    .build();
+
+            var userPool = cognitoClients.forRegion(tenant.region()).describeUserPool(describeUserPoolRequest).userPool();
+            rateLimiter.onSuccess(tenant.region(), USER_READ);
+
+            if (userPool != null && userPool.policies() != null && userPool.policies().passwordPolicy() != null) {
+                log.info("Loaded password policy of user pool: {}", tenant.userPoolId());
+                return PoolPasswordPolicy.of(userPool.policies().passwordPolicy());
+            }
+
+            log.warn("User pool has no password policy, using the configured one: {}", tenant.userPoolId());
+            return configuredPolicy;
+        } catch (TooManyRequestsException exception) {
+            rateLimiter.onThrottled(tenant.region(), USER_READ);
+            log.warn("Throttled describing user pool, using the configured password policy: {}", exception.getMessage());
+        } catch (SdkException exception) {
+            log.warn("Could not describe user pool, using the configured password policy: {}", exception.getMessage());
+        }
+
+        return null;
+    }
+
+    private static boolean validUsername(String username) {
+        if (username.length() > MAX_USERNAME_LENGTH) {
+            return false;
+        }
+
+        // Cognito allows letters, marks, symbols, numbers and punctuation
+        return username.codePoints().noneMatch(c -> Character.isWhitespace(c) || Character.isSpaceChar(c)
+                || Character.isISOControl(c));
+    }
+
+    private static boolean validEmail(String email) {
+        var at = email.lastIndexOf('@');
+        var dot = email.lastIndexOf('.');
+
+        return email.length() <= MAX_ATTRIBUTE_LENGTH
+                && at > 0
+                && dot > at + 1
+                && dot < email.length() - 1
+                && email.chars().noneMatch(Character::isWhitespace);
+    }
+
+    private static void checkLength(@Nullable String value, String attribute, List<String> errors) {
+        if (value != null && value.length() > MAX_ATTRIBUTE_LENGTH) {
+            errors.add(attribute + " must have at most " + MAX_ATTRIBUTE_LENGTH + " characters");
+        }
+    }
+
+    private static boolean hasText(@Nullable String value) {
+        return value != null && !value.isEmpty();
+    }
+}
@@ -0,0 +1,51 @@
+package dev.ciprian.users.validation;
+
+import dev.ciprian.users.config.CognitoPropertiesValidator;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.lang.Nullable;
+import org.springframework.validation.Validator;
+import org.springframework.web.servlet.config.annotation.WebMvcConfigurer;
+
+/**
+ * Request body validation for {@code validation.mode}: {@code bean} goes through Hibernate Validator,
+ * {@code precomputed} through {@link PrecomputedValidator} for Spring MVC and the other request paths alike.
+ */
+@Configuration
+public class ValidationConfig implements WebMvcConfigurer {
+
+    public static final String MODE_PROPERTY = "validation.mode";
+    public static final String PRECOMPUTED = "precomputed";
+
+    private final ObjectProvider<PrecomputedValidator> precomputedValidator;
+
+    public ValidationConfig(ObjectProvider<PrecomputedValidator> precomputedValidator) {
+        this.precomputedValidator = precomputedValidator;
+    }
+
+    @Bean(name = EnableConfigurationProperties.VALIDATOR_BEAN_NAME)
+    public static CognitoPropertiesValidator configurationPropertiesValidator() {
+        return new CognitoPropertiesValidator();
+    }
+
+    @Bean
+    @ConditionalOnProperty(name = MODE_PROPERTY, havingValue = PRECOMPUTED)
+    public PrecomputedValidator precomputedValidator() {
+        return new PrecomputedValidator();
+    }
+
+    @Bean
+    @ConditionalOnProperty(name = MODE_PROPERTY, havingValue = "bean", matchIfMissing = true)
+    public BeanRequestValidator beanRequestValidator(jakarta.validation.Validator validator) {
+        return new BeanRequestValidator(validator);
+    }
+
+    @Nullable
+    @Override
+    public Validator getValidator() {
+        return precomputedValidator.getIfAvailable();
+    }
+}
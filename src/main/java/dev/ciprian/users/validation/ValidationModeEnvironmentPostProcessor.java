@@ -0,0 +1,37 @@
+package dev.ciprian.users.validation;
+
+import org.springframework.boot.SpringApplication;
+import org.springframework.boot.autoconfigure.validation.ValidationAutoConfiguration;
+import org.springframework.boot.env.EnvironmentPostProcessor;
+import org.springframework.core.Ordered;
+import org.springframework.core.env.ConfigurableEnvironment;
+import org.springframework.core.env.MapPropertySource;
+import org.springframework.util.StringUtils;
+
+import java.util.Map;
+
+/**
+ * Leaves the validation auto-configuration out with {@code validation.mode=precomputed}, since its default validator
+ * bootstraps Hibernate Validator when the context starts. Runs after the configuration files are loaded.
+ */
+public class ValidationModeEnvironmentPostProcessor implements EnvironmentPostProcessor, Ordered {
+
+    private static final String EXCLUDE_PROPERTY = "spring.autoconfigure.exclude";
+
+    @Override
+    public void postProcessEnvironment(ConfigurableEnvironment environment, SpringApplication application) {
+        if (!ValidationConfig.PRECOMPUTED.equals(environment.getProperty(ValidationConfig.MODE_PROPERTY))) {
+            return;
+        }
+
+        var excluded = environment.getProperty(EXCLUDE_PROPERTY);
+        var validationAutoConfiguration = ValidationAutoConfiguration.class.getName();
+        var exclude = StringUtils.hasText(excluded) ? excluded + "," + validationAutoConfiguration : validationAutoConfiguration;
+        environment.getPropertySources().addFirst(new MapPropertySource("precomputedValidation", Map.of(EXCLUDE_PROPERTY, exclude)));
+    }
+
+    @Override
+    public int getOrder() {
+        return Ordered.LOWEST_PRECEDENCE;
+    }
+}
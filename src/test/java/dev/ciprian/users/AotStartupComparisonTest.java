@@ -0,0 +1,33 @@
+package dev.ciprian.users;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+
+import java.io.File;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Compares the cold start of {@link LambdaStreamHandler} from the AOT generated bean definitions with the regular
+ * startup, starting a fresh JVM through {@link StartupProbe} for every run. The generated classes are only on the
+ * class path of the forked JVMs ({@code aot.classpath}). Run with {@code ./gradlew benchmark}.
+ */
+@Tag("benchmark")
+class AotStartupComparisonTest {
+
+    private static final int RUNS = 5;
+
+    @Test
+    @DisplayName("Regular vs AOT generated cold start")
+    void test_0() throws Exception {
+        var classpath = System.getProperty("java.class.path") + File.pathSeparator + System.getProperty("aot.classpath");
+        var regular = StartupProbe.measure(RUNS, classpath, "-Dspring.aot.enabled=false");
+        var aot = StartupProbe.measure(RUNS, classpath);
+
+        System.out.printf("regular: %5d ms, %5d classes (median of %d)%n", regular[0], regular[1], RUNS);
+        System.out.printf("aot:     %5d ms, %5d classes (median of %d)%n", aot[0], aot[1], RUNS);
+
+        assertThat(aot[1]).as("classes loaded in AOT mode").isLessThan(regular[1]);
+    }
+}
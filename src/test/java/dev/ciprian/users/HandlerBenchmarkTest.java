@@ -0,0 +1,74 @@
+package dev.ciprian.users;
+
+import com.amazonaws.serverless.proxy.internal.testutils.AwsProxyRequestBuilder;
+import com.amazonaws.serverless.proxy.internal.testutils.MockLambdaContext;
+import com.amazonaws.services.lambda.runtime.RequestStreamHandler;
+import com.amazonaws.xray.AWSXRay;
+import com.amazonaws.xray.strategy.IgnoreErrorContextMissingStrategy;
+import dev.ciprian.users.config.ReloadableHttpClient;
+import dev.ciprian.users.priming.CognitoStandInHttpClient;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.springframework.context.ApplicationContext;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+
+/**
+ * Compares the per-request cost of {@link LambdaStreamHandler} and {@link DirectStreamHandler} for a login, with
+ * Cognito answered locally. Run with {@code ./gradlew benchmark}.
+ */
+@Tag("benchmark")
+class HandlerBenchmarkTest {
+
+    private static final int WARMUP_ITERATIONS = 2_000;
+    private static final int MEASURED_ITERATIONS = 20_000;
+    private static final String USER = """
+            {"email":"email","username":"username","password":"password"}""";
+
+    @BeforeAll
+    static void setUp() {
+        System.setProperty("aws.accessKeyId", "benchmark");
+        System.setProperty("aws.secretAccessKey", "benchmark");
+        System.setProperty("cognito.rate-limits.user-authentication", String.valueOf(Integer.MAX_VALUE));
+        AWSXRay.getGlobalRecorder().setContextMissingStrategy(new IgnoreErrorContextMissingStrategy());
+    }
+
+    @Test
+    @DisplayName("Proxy handler vs direct handler")
+    void test_0() throws Exception {
+        var proxyHandler = new LambdaStreamHandler();
+        standIn(LambdaStreamHandler.applicationContext());
+        var directHandler = new DirectStreamHandler();
+        standIn(DirectStreamHandler.applicationContext());
+
+        var proxyNanos = measure(proxyHandler);
+        var directNanos = measure(directHandler);
+
+        System.out.printf("LambdaStreamHandler: %.1f us/op%n", proxyNanos / 1_000.0);
+        System.out.printf("DirectStreamHandler: %.1f us/op%n", directNanos / 1_000.0);
+    }
+
+    private static double measure(RequestStreamHandler handler) throws Exception {
+        var event = new AwsProxyRequestBuilder("/users/login", "POST").json().body(USER).buildStream().readAllBytes();
+        var context = new MockLambdaContext();
+
+        for (var i = 0; i < WARMUP_ITERATIONS; i++) {
+            handler.handleRequest(new ByteArrayInputStream(event), new ByteArrayOutputStream(), context);
+        }
+
+        var start = System.nanoTime();
+
+        for (var i = 0; i < MEASURED_ITERATIONS; i++) {
+            handler.handleRequest(new ByteArrayInputStream(event), new ByteArrayOutputStream(), context);
+        }
+
+        return (System.nanoTime() - start) / (double) MEASURED_ITERATIONS;
+    }
+
+    private static void standIn(ApplicationContext applicationContext) {
+        applicationContext.getBean(ReloadableHttpClient.class).setStandIn(new CognitoStandInHttpClient());
+    }
+}
@@ -0,0 +1,42 @@
+package dev.ciprian.users;
+
+import dev.ciprian.users.startup.StartupTimeline;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+
+import java.lang.management.ManagementFactory;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Fails when initializing {@link LambdaStreamHandler} goes over the startup budget. Needs a fresh JVM, so it only runs
+ * through {@code ./gradlew startupBudget}; the budgets come from the {@code startup.budget.millis} and
+ * {@code startup.budget.classes} system properties.
+ */
+@Tag("startup")
+class StartupBudgetTest {
+
+    private static final long BUDGET_MILLIS = Long.getLong("startup.budget.millis", 5_000);
+    private static final long BUDGET_CLASSES = Long.getLong("startup.budget.classes", 14_000);
+
+    @Test
+    @DisplayName("Lambda handler starts within the budget")
+    void test_0() throws Exception {
+        var classLoading = ManagementFactory.getClassLoadingMXBean();
+        var classesBefore = classLoading.getTotalLoadedClassCount();
+        var start = System.nanoTime();
+
+        Class.forName(LambdaStreamHandler.class.getName());
+
+        var elapsedMillis = (System.nanoTime() - start) / 1_000_000;
+        var loadedClasses = classLoading.getTotalLoadedClassCount() - classesBefore;
+        var timeline = StartupTimeline.get();
+        System.out.printf("Startup: %d ms, %d classes loaded%n", elapsedMillis, loadedClasses);
+        timeline.steps().forEach(step -> System.out.printf("  %6d ms +%5d ms %s %s%n", step.startMillis(), step.durationMillis(), step.name(), step.tags()));
+
+        assertThat(timeline.steps()).extracting(StartupTimeline.Step::name).contains("lambda.handler.init", "spring.context.refresh");
+        assertThat(elapsedMillis).as("startup time in ms").isLessThanOrEqualTo(BUDGET_MILLIS);
+        assertThat(loadedClasses).as("loaded classes").isLessThanOrEqualTo(BUDGET_CLASSES);
+    }
+}
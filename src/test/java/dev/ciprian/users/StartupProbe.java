@@ -0,0 +1,83 @@
+package dev.ciprian.users;
+
+import java.io.BufferedReader;
+import java.io.InputStreamReader;
+import java.lang.management.ManagementFactory;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Initializes {@link LambdaStreamHandler} in a fresh JVM and prints the time it took and the classes it loaded on a
+ * line starting with {@value #PREFIX}, for the startup comparisons that fork one JVM per run.
+ */
+public class StartupProbe {
+
+    public static final String PREFIX = "startup-probe:";
+
+    public static void main(String[] args) throws Exception {
+        var classLoading = ManagementFactory.getClassLoadingMXBean();
+        var classesBefore = classLoading.getTotalLoadedClassCount();
+        var start = System.nanoTime();
+
+        Class.forName(LambdaStreamHandler.class.getName());
+
+        var elapsedMillis = (System.nanoTime() - start) / 1_000_000;
+        var loadedClasses = classLoading.getTotalLoadedClassCount() - classesBefore;
+        System.out.println(PREFIX + " " + elapsedMillis + " " + loadedClasses);
+        System.exit(0);
+    }
+
+    /**
+     * Runs the probe {@code runs} times with the given class path and JVM arguments and returns the median
+     * milliseconds and loaded classes.
+     */
+    static long[] measure(int runs, String classpath, String... jvmArgs) throws Exception {
+        var millis = new long[runs];
+        var classes = new long[runs];
+
+        for (var run = 0; run < runs; run++) {
+            var result = probe(classpath, jvmArgs);
+            millis[run] = result[0];
+            classes[run] = result[1];
+        }
+
+        return new long[]{median(millis), median(classes)};
+    }
+
+    private static long[] probe(String classpath, String... jvmArgs) throws Exception {
+        var command = new ArrayList<String>();
+        command.add(Path.of(System.getProperty("java.home"), "bin", "java").toString());
+        command.add("-cp");
+        command.add(classpath);
+        command.addAll(List.of(jvmArgs));
+        command.add(StartupProbe.class.getName());
+        var process = new ProcessBuilder(command).redirectErrorStream(true).start();
+        long[] result = null;
+
+        try (var reader = new BufferedReader(new InputStreamReader(process.getInputStream(), StandardCharsets.UTF_8))) {
+            String line;
+
+            while ((line = reader.readLine()) != null) {
+                if (line.startsWith(PREFIX)) {
+                    var values = line.substring(PREFIX.length()).trim().split(" ");
+                    result = new long[]{Long.parseLong(values[0]), Long.parseLong(values[1])};
+                }
+            }
+        }
+
+        assertThat(process.waitFor()).as("probe exit code").isZero();
+        assertThat(result).as("probe output").isNotNull();
+        return result;
+    }
+
+    private static long median(long[] values) {
+        var sorted = values.clone();
+        Arrays.sort(sorted);
+        return sorted[sorted.length / 2];
+    }
+}
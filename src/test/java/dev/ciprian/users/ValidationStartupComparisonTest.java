@@ -0,0 +1,31 @@
+package dev.ciprian.users;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Compares the cold start of {@link LambdaStreamHandler} with {@code validation.mode=bean} and
+ * {@code validation.mode=precomputed}, starting a fresh JVM through {@link StartupProbe} for every run. Run with
+ * {@code ./gradlew benchmark}.
+ */
+@Tag("benchmark")
+class ValidationStartupComparisonTest {
+
+    private static final int RUNS = 5;
+
+    @Test
+    @DisplayName("Bean validation vs precomputed validation cold start")
+    void test_0() throws Exception {
+        var classpath = System.getProperty("java.class.path");
+        var bean = StartupProbe.measure(RUNS, classpath, "-Dvalidation.mode=bean");
+        var precomputed = StartupProbe.measure(RUNS, classpath, "-Dvalidation.mode=precomputed");
+
+        System.out.printf("validation.mode=bean:        %5d ms, %5d classes (median of %d)%n", bean[0], bean[1], RUNS);
+        System.out.printf("validation.mode=precomputed: %5d ms, %5d classes (median of %d)%n", precomputed[0], precomputed[1], RUNS);
+
+        assertThat(precomputed[1]).as("classes loaded with precomputed validation").isLessThan(bean[1]);
+    }
+}
@@ -0,0 +1,160 @@
+package dev.ciprian.users.config;
+
+import com.amazonaws.xray.AWSXRay;
+import com.amazonaws.xray.strategy.IgnoreErrorContextMissingStrategy;
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpsConfigurator;
+import com.sun.net.httpserver.HttpsServer;
+import dev.ciprian.users.priming.CognitoStandInHttpClient;
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.EnumSource;
+import org.springframework.core.io.ClassPathResource;
+import software.amazon.awssdk.auth.credentials.AwsBasicCredentials;
+import software.amazon.awssdk.auth.credentials.StaticCredentialsProvider;
+import software.amazon.awssdk.http.SdkHttpClient;
+import software.amazon.awssdk.http.SdkHttpConfigurationOption;
+import software.amazon.awssdk.regions.Region;
+import software.amazon.awssdk.services.cognitoidentityprovider.CognitoIdentityProviderClient;
+import software.amazon.awssdk.services.cognitoidentityprovider.model.AdminInitiateAuthRequest;
+import software.amazon.awssdk.services.cognitoidentityprovider.model.AuthFlowType;
+import software.amazon.awssdk.utils.AttributeMap;
+
+import javax.net.ssl.KeyManagerFactory;
+import javax.net.ssl.SSLContext;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.net.URI;
+import java.nio.charset.StandardCharsets;
+import java.security.KeyStore;
+import java.util.Map;
+import java.util.concurrent.Executors;
+
+/**
+ * Compares the first-call and steady-state latency of a Cognito login for each {@link HttpTransportType}, against a
+ * local HTTPS stand-in. The first call is measured on a fresh client, without and with a warm-up. Run with
+ * {@code ./gradlew benchmark}.
+ */
+@Tag("benchmark")
+class HttpTransportBenchmarkTest {
+
+    private static final int WARMUP_ITERATIONS = 500;
+    private static final int MEASURED_ITERATIONS = 5_000;
+    private static final char[] KEYSTORE_PASSWORD = "changeit".toCharArray();
+    private static final byte[] AUTHENTICATION_RESULT = """
+            {"AuthenticationResult":{"AccessToken":"benchmark","ExpiresIn":3600,"TokenType":"Bearer"}}"""
+            .getBytes(StandardCharsets.UTF_8);
+    private static final AttributeMap TRUST_ALL = AttributeMap.builder()
+            .put(SdkHttpConfigurationOption.TRUST_ALL_CERTIFICATES, true)
+            .build();
+    private static final AdminInitiateAuthRequest LOGIN = AdminInitiateAuthRequest.builder()
+            .userPoolId("eu-central-1_benchmark")
+            .clientId("benchmark")
+            .authFlow(AuthFlowType.ADMIN_USER_PASSWORD_AUTH)
+            .authParameters(Map.of("USERNAME", "username", "PASSWORD", "password"))
+            .build();
+
+    static HttpsServer server;
+    static URI endpoint;
+
+    @BeforeAll
+    static void setUp() throws Exception {
+        AWSXRay.getGlobalRecorder().setContextMissingStrategy(new IgnoreErrorContextMissingStrategy());
+
+        var keyStore = KeyStore.getInstance("PKCS12");
+        try (var inputStream = new ClassPathResource("stand-in.p12").getInputStream()) {
+            keyStore.load(inputStream, KEYSTORE_PASSWORD);
+        }
+        var keyManagerFactory = KeyManagerFactory.getInstance(KeyManagerFactory.getDefaultAlgorithm());
+        keyManagerFactory.init(keyStore, KEYSTORE_PASSWORD);
+        var sslContext = SSLContext.getInstance("TLS");
+        sslContext.init(keyManagerFactory.getKeyManagers(), null, null);
+
+        server = HttpsServer.create(new InetSocketAddress(InetAddress.getLoopbackAddress(), 0), 0);
+        server.setHttpsConfigurator(new HttpsConfigurator(sslContext));
+        server.setExecutor(Executors.newVirtualThreadPerTaskExecutor());
+        server.createContext("/", HttpTransportBenchmarkTest::respond);
+        server.start();
+        endpoint = URI.create("https://localhost:" + server.getAddress().getPort());
+
+        // load the SDK marshalling paths once, so the first call below only pays for the transport
+        try (var client = cognitoClient(new CognitoStandInHttpClient())) {
+            client.adminInitiateAuth(LOGIN);
+        }
+    }
+
+    @AfterAll
+    static void tearDown() {
+        server.stop(0);
+    }
+
+    @ParameterizedTest
+    @EnumSource(HttpTransportType.class)
+    @DisplayName("First-call and steady-state login latency per transport")
+    void test_0(HttpTransportType type) {
+        var transport = new CognitoProperties.Transport();
+        transport.setType(type);
+
+        try {
+            var coldNanos = firstCall(new ReloadableHttpClient(() -> CognitoHttpClientFactory.create(transport, TRUST_ALL)));
+
+            var warmedHttpClient = new ReloadableHttpClient(() -> CognitoHttpClientFactory.create(transport, TRUST_ALL), endpoint);
+            warmedHttpClient.warmUp();
+            var warmedNanos = firstCall(warmedHttpClient);
+
+            var steadyNanos = steadyState(transport);
+
+            System.out.printf("%-14s first call: %8.1f us, first call after warm-up: %8.1f us, steady state: %6.1f us/op%n",
+                    type, coldNanos / 1_000.0, warmedNanos / 1_000.0, steadyNanos / 1_000.0);
+        } catch (RuntimeException | LinkageError exception) {
+            System.out.printf("%-14s unavailable: %s%n", type, exception.getMessage());
+        }
+    }
+
+    private static long firstCall(SdkHttpClient httpClient) {
+        try (httpClient; var client = cognitoClient(httpClient)) {
+            var start = System.nanoTime();
+            client.adminInitiateAuth(LOGIN);
+            return System.nanoTime() - start;
+        }
+    }
+
+    private static double steadyState(CognitoProperties.Transport transport) {
+        try (var httpClient = CognitoHttpClientFactory.create(transport, TRUST_ALL); var client = cognitoClient(httpClient)) {
+            for (var i = 0; i < WARMUP_ITERATIONS; i++) {
+                client.adminInitiateAuth(LOGIN);
+            }
+
+            var start = System.nanoTime();
+
+            for (var i = 0; i < MEASURED_ITERATIONS; i++) {
+                client.adminInitiateAuth(LOGIN);
+            }
+
+            return (System.nanoTime() - start) / (double) MEASURED_ITERATIONS;
+        }
+    }
+
+    private static CognitoIdentityProviderClient cognitoClient(SdkHttpClient httpClient) {
+        return CognitoIdentityProviderClient.builder()
+                .region(Region.EU_CENTRAL_1)
+                .endpointOverride(endpoint != null ? endpoint : URI.create("https://localhost"))
+                .credentialsProvider(StaticCredentialsProvider.create(AwsBasicCredentials.create("benchmark", "benchmark")))
+                .httpClient(httpClient)
+                .build();
+    }
+
+    private static void respond(HttpExchange exchange) throws IOException {
+        try (exchange) {
+            exchange.getRequestBody().transferTo(OutputStream.nullOutputStream());
+            exchange.getResponseHeaders().add("Content-Type", "application/x-amz-json-1.1");
+            exchange.sendResponseHeaders(200, AUTHENTICATION_RESULT.length);
+            exchange.getResponseBody().write(AUTHENTICATION_RESULT);
+        }
+    }
+}
@@ -0,0 +1,48 @@
+package dev.ciprian.users.config;
+
+import dev.ciprian.users.models.AccessResponse;
+import dev.ciprian.users.models.User;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.aot.hint.RuntimeHints;
+import org.springframework.aot.hint.TypeReference;
+import org.springframework.aot.hint.predicate.RuntimeHintsPredicates;
+import software.amazon.awssdk.services.cognitoidentityprovider.model.AdminInitiateAuthResponse;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class NativeHintsTest {
+
+    RuntimeHints hints;
+
+    @BeforeEach
+    void setUp() {
+        hints = new RuntimeHints();
+        new NativeHints().registerHints(hints, getClass().getClassLoader());
+    }
+
+    @Test
+    @DisplayName("Models and configuration properties are registered for reflection")
+    void test_0() {
+        assertThat(RuntimeHintsPredicates.reflection().onType(User.class)).accepts(hints);
+        assertThat(RuntimeHintsPredicates.reflection().onType(AccessResponse.class)).accepts(hints);
+        assertThat(RuntimeHintsPredicates.reflection().onType(CognitoProperties.class)).accepts(hints);
+        assertThat(RuntimeHintsPredicates.reflection().onType(AdminInitiateAuthResponse.class)).accepts(hints);
+    }
+
+    @Test
+    @DisplayName("X-Ray and SDK resources are registered")
+    void test_1() {
+        assertThat(RuntimeHintsPredicates.resource().forResource("com/amazonaws/xray/sdk.properties")).accepts(hints);
+        assertThat(RuntimeHintsPredicates.resource().forResource("software/amazon/awssdk/global/handlers/execution.interceptors")).accepts(hints);
+    }
+
+    @Test
+    @DisplayName("Apache connection request proxies are registered")
+    void test_2() {
+        assertThat(RuntimeHintsPredicates.proxies().forInterfaces(
+                TypeReference.of("org.apache.http.conn.ConnectionRequest"),
+                TypeReference.of("software.amazon.awssdk.http.apache.internal.conn.Wrapped"))).accepts(hints);
+    }
+}
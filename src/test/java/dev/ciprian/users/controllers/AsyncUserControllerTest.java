@@ -0,0 +1,179 @@
+package dev.ciprian.users.controllers;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import dev.ciprian.users.models.AccessResponse;
+import dev.ciprian.users.models.GenericResponse;
+import dev.ciprian.users.models.User;
+import dev.ciprian.users.ratelimit.CognitoRateLimiter;
+import dev.ciprian.users.services.AsyncLoginService;
+import dev.ciprian.users.services.AsyncRegisterService;
+import dev.ciprian.users.tenancy.Tenants;
+import dev.ciprian.users.validation.UserPolicyValidator;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.WebMvcTest;
+import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.context.annotation.Import;
+import org.springframework.http.MediaType;
+import org.springframework.test.web.servlet.MockMvc;
+
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.asyncDispatch;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.request;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+@WebMvcTest(controllers = {AsyncUserController.class},
+        properties = {"cognito.async-enabled=true", "cognito.tenants.acme.user-pool-id=eu-central-1_acme"})
+@Import(Tenants.class)
+class AsyncUserControllerTest {
+
+    @MockBean
+    AsyncRegisterService registerService;
+
+    @MockBean
+    AsyncLoginService loginService;
+
+    @MockBean
+    UserPolicyValidator userPolicyValidator;
+
+    @Autowired
+    MockMvc mockMvc;
+
+    @Autowired
+    ObjectMapper objectMapper;
+
+    @Test
+    @DisplayName("Register user works")
+    void test_0() throws Exception {
+        when(registerService.createUser(any(User.class))).thenReturn(CompletableFuture.completedFuture(new GenericResponse(true)));
+        when(registerService.setUserPassword(any(User.class))).thenReturn(CompletableFuture.completedFuture(new GenericResponse(true)));
+        when(loginService.login(any(User.class))).thenReturn(CompletableFuture.completedFuture(getAccessResponse()));
+
+        var result = mockMvc.perform(post("/users/async/register").contentType(MediaType.APPLICATION_JSON).content(getUser()))
+                .andExpect(request().asyncStarted())
+                .andReturn();
+
+        mockMvc.perform(asyncDispatch(result))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.accessToken").isNotEmpty())
+                .andExpect(jsonPath("$.refreshToken").isNotEmpty());
+    }
+
+    @Test
+    @DisplayName("Register user stops at the first failed operation")
+    void test_1() throws Exception {
+        when(registerService.createUser(any(User.class))).thenReturn(CompletableFuture.completedFuture(new GenericResponse(false, "Could not create user")));
+
+        var result = mockMvc.perform(post("/users/async/register").contentType(MediaType.APPLICATION_JSON).content(getUser()))
+                .andExpect(request().asyncStarted())
+                .andReturn();
+
+        mockMvc.perform(asyncDispatch(result))
+                .andExpect(status().isInternalServerError())
+                .andExpect(jsonPath("$.errorMessages[0]").value("Could not create user"));
+
+        verify(registerService, never()).setUserPassword(any(User.class));
+        verify(loginService, never()).login(any(User.class));
+    }
+
+    @Test
+    @DisplayName("Register user returns forbidden if the login fails")
+    void test_2() throws Exception {
+        when(registerService.createUser(any(User.class))).thenReturn(CompletableFuture.completedFuture(new GenericResponse(true)));
+        when(registerService.setUserPassword(any(User.class))).thenReturn(CompletableFuture.completedFuture(new GenericResponse(true)));
+        when(loginService.login(any(User.class))).thenReturn(CompletableFuture.completedFuture(new AccessResponse(false, "Could not login user")));
+
+        var result = mockMvc.perform(post("/users/async/register").contentType(MediaType.APPLICATION_JSON).content(getUser()))
+                .andExpect(request().asyncStarted())
+                .andReturn();
+
+        mockMvc.perform(asyncDispatch(result))
+                .andExpect(status().isForbidden())
+                .andExpect(jsonPath("$.errorMessages[0]").value("Could not login user"));
+    }
+
+    @Test
+    @DisplayName("Login user works")
+    void test_3() throws Exception {
+        when(loginService.login(any(User.class))).thenReturn(CompletableFuture.completedFuture(getAccessResponse()));
+
+        var result = mockMvc.perform(post("/users/async/login").contentType(MediaType.APPLICATION_JSON).content(getUser()))
+                .andExpect(request().asyncStarted())
+                .andReturn();
+
+        mockMvc.perform(asyncDispatch(result))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.accessToken").isNotEmpty());
+    }
+
+    @Test
+    @DisplayName("Throttled login returns too many requests")
+    void test_4() throws Exception {
+        when(loginService.login(any(User.class))).thenReturn(CompletableFuture.completedFuture(CognitoRateLimiter.throttled(new AccessResponse(false))));
+
+        var result = mockMvc.perform(post("/users/async/login").contentType(MediaType.APPLICATION_JSON).content(getUser()))
+                .andExpect(request().asyncStarted())
+                .andReturn();
+
+        mockMvc.perform(asyncDispatch(result))
+                .andExpect(status().isTooManyRequests())
+                .andExpect(jsonPath("$.errorMessages[0]").value(CognitoRateLimiter.THROTTLED_MESSAGE));
+    }
+
+    @Test
+    @DisplayName("Login for a tenant other than the default one returns not found")
+    void test_5() throws Exception {
+        mockMvc.perform(post("/users/async/login").contentType(MediaType.APPLICATION_JSON).content(getUser())
+                        .header(Tenants.TENANT_HEADER, "acme"))
+                .andExpect(status().isNotFound())
+                .andExpect(jsonPath("$.errorMessages[0]").value("Unknown tenant"));
+
+        mockMvc.perform(post("/users/async/register").contentType(MediaType.APPLICATION_JSON).content(getUser())
+                        .header(Tenants.TENANT_HEADER, "acme"))
+                .andExpect(status().isNotFound());
+
+        verify(loginService, never()).login(any(User.class));
+        verify(registerService, never()).createUser(any(User.class));
+    }
+
+    @Test
+    @DisplayName("Register user rejects a password the pool policy refuses before calling Cognito")
+    void test_6() throws Exception {
+        when(userPolicyValidator.validate(any(User.class))).thenReturn(List.of("Password must contain a number"));
+
+        var result = mockMvc.perform(post("/users/async/register").contentType(MediaType.APPLICATION_JSON).content(getUser()))
+                .andExpect(request().asyncStarted())
+                .andReturn();
+
+        mockMvc.perform(asyncDispatch(result))
+                .andExpect(status().isBadRequest())
+                .andExpect(jsonPath("$.errorMessages[0]").value("Password must contain a number"));
+
+        verify(registerService, never()).createUser(any(User.class));
+    }
+
+    private AccessResponse getAccessResponse() {
+        var accessResponse = new AccessResponse(true);
+        accessResponse.setTokenType("access");
+        accessResponse.setExpiresInSeconds(3600);
+        accessResponse.setAccessToken("accessToken");
+        accessResponse.setIdToken("idToken");
+        accessResponse.setRefreshToken("refreshToken");
+        return accessResponse;
+    }
+
+    private String getUser() throws JsonProcessingException {
+        var user = new User("", "", "email", "username", "password");
+        return objectMapper.writeValueAsString(user);
+    }
+}
@@ -0,0 +1,198 @@
+package dev.ciprian.users.controllers;
+
+import com.amazonaws.serverless.proxy.internal.testutils.AwsProxyRequestBuilder;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.node.ObjectNode;
+import dev.ciprian.users.config.CognitoProperties;
+import dev.ciprian.users.models.AccessResponse;
+import dev.ciprian.users.models.User;
+import dev.ciprian.users.tenancy.Tenant;
+import dev.ciprian.users.tenancy.Tenants;
+import dev.ciprian.users.validation.BeanRequestValidator;
+import jakarta.validation.Validation;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.ResponseEntity;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.Base64;
+import java.util.Map;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.atomic.AtomicReference;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+class DirectDispatcherTest {
+
+    ObjectMapper objectMapper;
+    UserController userController;
+    Tenants tenants;
+    DirectDispatcher directDispatcher;
+
+    @BeforeEach
+    void setUp() throws Exception {
+        objectMapper = Jackson2ObjectMapperBuilder.json().build();
+        userController = mock(UserController.class);
+        var validator = new BeanRequestValidator(Validation.buildDefaultValidatorFactory().getValidator());
+        var tenantPool = new CognitoProperties.TenantPool();
+        tenantPool.setUserPoolId("eu-central-1_acme");
+        tenantPool.setClientId("acme");
+        var cognitoProperties = new CognitoProperties();
+        cognitoProperties.setRegion("eu-central-1");
+        cognitoProperties.setTenants(Map.of("acme", tenantPool));
+        tenants = new Tenants(cognitoProperties);
+        directDispatcher = new DirectDispatcher(objectMapper, validator, tenants, userController);
+    }
+
+    @Test
+    @DisplayName("Login is routed to the controller")
+    void test_0() throws Exception {
+        var accessResponse = new AccessResponse(true);
+        accessResponse.setAccessToken("accessToken");
+        when(userController.login(any(User.class))).thenReturn(ResponseEntity.ok(accessResponse));
+
+        var response = dispatch("/users/login", getUser());
+
+        assertThat(response.get("statusCode").asInt()).isEqualTo(200);
+        assertThat(objectMapper.readTree(response.get("body").asText()).get("accessToken").asText()).isEqualTo("accessToken");
+    }
+
+    @Test
+    @DisplayName("Invalid users are rejected with the validation messages")
+    void test_1() throws Exception {
+        var user = objectMapper.writeValueAsString(new User(null, null, "email", "", ""));
+
+        var response = dispatch("/users/register", user);
+
+        assertThat(response.get("statusCode").asInt()).isEqualTo(400);
+        var errorMessages = objectMapper.readTree(response.get("body").asText()).get("errorMessages");
+        assertThat(errorMessages).hasSize(2);
+        assertThat(errorMessages.get(0).asText()).isEqualTo("Password is required");
+        assertThat(errorMessages.get(1).asText()).isEqualTo("Username is required");
+        verify(userController, never()).register(any(User.class), any());
+    }
+
+    @Test
+    @DisplayName("Malformed bodies are rejected")
+    void test_2() throws Exception {
+        var response = dispatch("/users/login", "{");
+
+        assertThat(response.get("statusCode").asInt()).isEqualTo(400);
+    }
+
+    @Test
+    @DisplayName("Unknown paths return not found")
+    void test_3() throws Exception {
+        var response = dispatch("/users/unknown", getUser());
+
+        assertThat(response.get("statusCode").asInt()).isEqualTo(404);
+    }
+
+    @Test
+    @DisplayName("Base64 encoded bodies are decoded and the proxy response has a JSON content type")
+    void test_4() throws Exception {
+        when(userController.login(any(User.class))).thenReturn(ResponseEntity.ok(new AccessResponse(true)));
+        var event = new AwsProxyRequestBuilder("/users/login", "POST").json().body(getUser()).buildStream();
+        var encoded = objectMapper.readTree(event);
+        ((ObjectNode) encoded).put("body", Base64.getEncoder().encodeToString(encoded.get("body").asText().getBytes(StandardCharsets.UTF_8)));
+        ((ObjectNode) encoded).put("isBase64Encoded", true);
+        var outputStream = new ByteArrayOutputStream();
+
+        directDispatcher.dispatch(new ByteArrayInputStream(objectMapper.writeValueAsBytes(encoded)), outputStream);
+
+        var response = objectMapper.readTree(outputStream.toByteArray());
+        assertThat(response.get("statusCode").asInt()).isEqualTo(200);
+        assertThat(response.get("headers").get("Content-Type").asText()).isEqualTo("application/json");
+        verify(userController).login(any(User.class));
+    }
+
+    @Test
+    @DisplayName("Fixed error responses keep their message")
+    void test_5() throws Exception {
+        var response = dispatch("/users/login", "null");
+
+        assertThat(response.get("statusCode").asInt()).isEqualTo(400);
+        assertThat(objectMapper.readTree(response.get("body").asText()).get("errorMessages").get(0).asText()).isEqualTo("Malformed request body");
+    }
+
+    @Test
+    @DisplayName("Idempotency key header is passed to registration whatever its case")
+    void test_6() throws Exception {
+        when(userController.register(any(User.class), any())).thenReturn(ResponseEntity.ok(new AccessResponse(true)));
+        var event = new AwsProxyRequestBuilder("/users/register", "POST").json()
+                .header("idempotency-key", "key-1")
+                .body(getUser())
+                .buildStream();
+
+        directDispatcher.dispatch(event, new ByteArrayOutputStream());
+
+        verify(userController).register(any(User.class), eq("key-1"));
+    }
+
+    @Test
+    @DisplayName("Tenant path prefix selects the tenant the route runs as")
+    void test_7() throws Exception {
+        var current = new AtomicReference<Tenant>();
+        when(userController.login(any(User.class))).thenAnswer(invocation -> {
+            current.set(tenants.current());
+            return ResponseEntity.ok(new AccessResponse(true));
+        });
+
+        var response = dispatch("/tenants/acme/users/login", getUser());
+
+        assertThat(response.get("statusCode").asInt()).isEqualTo(200);
+        assertThat(current.get().userPoolId()).isEqualTo("eu-central-1_acme");
+        assertThat(tenants.current().id()).isEqualTo(Tenant.DEFAULT_ID);
+    }
+
+    @Test
+    @DisplayName("Unknown tenants are rejected before reaching the controller")
+    void test_8() throws Exception {
+        var event = new AwsProxyRequestBuilder("/users/login", "POST").json()
+                .header(Tenants.TENANT_HEADER, "unknown")
+                .body(getUser())
+                .buildStream();
+        var outputStream = new ByteArrayOutputStream();
+
+        directDispatcher.dispatch(event, outputStream);
+
+        var response = objectMapper.readTree(outputStream.toByteArray());
+        assertThat(response.get("statusCode").asInt()).isEqualTo(404);
+        assertThat(objectMapper.readTree(response.get("body").asText()).get("errorMessages").get(0).asText()).isEqualTo("Unknown tenant");
+        verify(userController, never()).login(any(User.class));
+    }
+
+    @Test
+    @DisplayName("Exceptions thrown by a route return an internal server error with a JSON body")
+    void test_9() throws Exception {
+        when(userController.register(any(User.class), any())).thenThrow(new CompletionException(new IllegalStateException("failure")));
+
+        var response = dispatch("/users/register", getUser());
+
+        assertThat(response.get("statusCode").asInt()).isEqualTo(500);
+        assertThat(objectMapper.readTree(response.get("body").asText()).get("errorMessages").get(0).asText())
+                .isEqualTo("Internal server error");
+    }
+
+    private JsonNode dispatch(String path, String body) throws Exception {
+        var event = new AwsProxyRequestBuilder(path, "POST").json().body(body).buildStream();
+        var outputStream = new ByteArrayOutputStream();
+        directDispatcher.dispatch(event, outputStream);
+        return objectMapper.readTree(outputStream.toByteArray());
+    }
+
+    private String getUser() throws Exception {
+        return objectMapper.writeValueAsString(new User("", "", "email", "username", "password"));
+    }
+}
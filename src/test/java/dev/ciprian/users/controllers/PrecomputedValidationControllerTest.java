@@ -0,0 +1,60 @@
+package dev.ciprian.users.controllers;
+
+import dev.ciprian.users.models.User;
+import dev.ciprian.users.services.LoginService;
+import dev.ciprian.users.services.RegistrationSaga;
+import dev.ciprian.users.services.VerifyService;
+import dev.ciprian.users.tenancy.Tenants;
+import dev.ciprian.users.validation.UserPolicyValidator;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.WebMvcTest;
+import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.context.ApplicationContext;
+import org.springframework.context.annotation.Import;
+import org.springframework.http.MediaType;
+import org.springframework.test.web.servlet.MockMvc;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+@WebMvcTest(controllers = {UserController.class}, properties = "validation.mode=precomputed")
+@Import(Tenants.class)
+class PrecomputedValidationControllerTest {
+
+    @MockBean
+    RegistrationSaga registrationSaga;
+
+    @MockBean
+    LoginService loginService;
+
+    @MockBean
+    VerifyService verifyService;
+
+    @MockBean
+    UserPolicyValidator userPolicyValidator;
+
+    @Autowired
+    MockMvc mockMvc;
+
+    @Autowired
+    ApplicationContext applicationContext;
+
+    @Test
+    @DisplayName("Invalid bodies are rejected with 400 without Hibernate Validator")
+    void test_0() throws Exception {
+        mockMvc.perform(post("/users/register").contentType(MediaType.APPLICATION_JSON)
+                        .content("{\"email\":\"email\",\"username\":\"\",\"password\":\"password\"}"))
+                .andExpect(status().isBadRequest());
+        mockMvc.perform(post("/users/refresh").contentType(MediaType.APPLICATION_JSON).content("{}"))
+                .andExpect(status().isBadRequest());
+
+        verify(registrationSaga, never()).register(any(User.class), any());
+        assertThat(applicationContext.getBeansOfType(jakarta.validation.Validator.class)).isEmpty();
+    }
+}
@@ -0,0 +1,103 @@
+package dev.ciprian.users.controllers;
+
+import com.amazonaws.xray.AWSXRay;
+import dev.ciprian.users.config.CognitoClients;
+import dev.ciprian.users.config.CognitoProperties;
+import dev.ciprian.users.hedging.Hedger;
+import dev.ciprian.users.metrics.InvocationMetrics;
+import dev.ciprian.users.models.User;
+import dev.ciprian.users.ratelimit.CognitoRateLimiter;
+import dev.ciprian.users.ratelimit.LoginFailureTracker;
+import dev.ciprian.users.ratelimit.QuotaCategory;
+import dev.ciprian.users.services.LoginService;
+import dev.ciprian.users.services.RegisterService;
+import dev.ciprian.users.services.RegistrationSaga;
+import dev.ciprian.users.services.VerifyService;
+import dev.ciprian.users.tenancy.Tenants;
+import dev.ciprian.users.tracing.NoopTracer;
+import dev.ciprian.users.validation.UserPolicyValidator;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.http.HttpStatus;
+import software.amazon.awssdk.services.cognitoidentityprovider.CognitoIdentityProviderClient;
+import software.amazon.awssdk.services.cognitoidentityprovider.model.AdminCreateUserRequest;
+import software.amazon.awssdk.services.cognitoidentityprovider.model.AdminInitiateAuthRequest;
+import software.amazon.awssdk.services.cognitoidentityprovider.model.AdminInitiateAuthResponse;
+import software.amazon.awssdk.services.cognitoidentityprovider.model.AdminSetUserPasswordRequest;
+import software.amazon.awssdk.services.cognitoidentityprovider.model.AdminUpdateUserAttributesRequest;
+import software.amazon.awssdk.services.cognitoidentityprovider.model.AuthenticationResultType;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.mockingDetails;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+@SpringBootTest(classes = {UserController.class, RegistrationSaga.class, RegisterService.class, LoginService.class,
+        Tenants.class, Hedger.class, NoopTracer.class})
+class RegisterRoundTripTest {
+
+    @MockBean
+    CognitoProperties cognitoProperties;
+
+    @MockBean
+    CognitoIdentityProviderClient cognitoIdentityProviderClient;
+
+    @MockBean
+    CognitoClients cognitoClients;
+
+    @MockBean
+    CognitoRateLimiter rateLimiter;
+
+    @MockBean
+    InvocationMetrics invocationMetrics;
+
+    @MockBean
+    LoginFailureTracker failureTracker;
+
+    @MockBean
+    VerifyService verifyService;
+
+    @MockBean
+    UserPolicyValidator userPolicyValidator;
+
+    @Autowired
+    UserController userController;
+
+    @BeforeEach
+    void setUp() {
+        AWSXRay.beginSegment("RegisterRoundTripTest");
+        when(cognitoClients.forRegion(any())).thenReturn(cognitoIdentityProviderClient);
+        when(rateLimiter.tryAcquire(any(), any(QuotaCategory.class))).thenReturn(true);
+        when(cognitoProperties.getHedging()).thenReturn(new CognitoProperties.Hedging());
+    }
+
+    @AfterEach
+    void tearDown() {
+        AWSXRay.clearTraceEntity();
+    }
+
+    @Test
+    @DisplayName("Register user needs three Cognito calls instead of four")
+    void test_0() {
+        var result = AuthenticationResultType.builder().accessToken("accessToken").build();
+        var authResponse = AdminInitiateAuthResponse.builder().authenticationResult(result).build();
+        when(cognitoIdentityProviderClient.adminInitiateAuth(any(AdminInitiateAuthRequest.class))).thenReturn(authResponse);
+        var user = new User("First name", "Last name", "email", "username", "password");
+
+        var response = userController.register(user, null);
+
+        assertThat(response.getStatusCode()).isEqualTo(HttpStatus.OK);
+        verify(cognitoIdentityProviderClient).adminCreateUser(any(AdminCreateUserRequest.class));
+        verify(cognitoIdentityProviderClient).adminSetUserPassword(any(AdminSetUserPasswordRequest.class));
+        verify(cognitoIdentityProviderClient).adminInitiateAuth(any(AdminInitiateAuthRequest.class));
+        verify(cognitoIdentityProviderClient, never()).adminUpdateUserAttributes(any(AdminUpdateUserAttributesRequest.class));
+        assertThat(mockingDetails(cognitoIdentityProviderClient).getInvocations()).hasSize(3);
+    }
+}
@@ -4,24 +4,39 @@ import com.fasterxml.jackson.core.JsonProcessingException;
 import com.fasterxml.jackson.databind.ObjectMapper;
 import dev.ciprian.users.models.AccessResponse;
 import dev.ciprian.users.models.GenericResponse;
+import dev.ciprian.users.models.RefreshRequest;
 import dev.ciprian.users.models.User;
+import dev.ciprian.users.models.UserStatusResponse;
+import dev.ciprian.users.models.VerifyRequest;
+import dev.ciprian.users.models.VerifyResponse;
+import dev.ciprian.users.ratelimit.CognitoRateLimiter;
 import dev.ciprian.users.services.LoginService;
 import dev.ciprian.users.services.RegisterService;
+import dev.ciprian.users.services.RegistrationSaga;
+import dev.ciprian.users.services.VerifyService;
+import dev.ciprian.users.tenancy.Tenants;
+import dev.ciprian.users.validation.UserPolicyValidator;
 import org.junit.jupiter.api.DisplayName;
 import org.junit.jupiter.api.Test;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.autoconfigure.web.servlet.WebMvcTest;
 import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.context.annotation.Import;
 import org.springframework.http.MediaType;
 import org.springframework.test.web.servlet.MockMvc;
 
+import java.util.List;
+
 import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
 
 @WebMvcTest(controllers = {UserController.class})
+@Import({RegistrationSaga.class, Tenants.class})
 class UserControllerTest {
 
     @MockBean
@@ -30,6 +45,12 @@ class UserControllerTest {
     @MockBean
     LoginService loginService;
 
+    @MockBean
+    VerifyService verifyService;
+
+    @MockBean
+    UserPolicyValidator userPolicyValidator;
+
     @Autowired
     MockMvc mockMvc;
 
@@ -41,7 +62,6 @@ class UserControllerTest {
     void test_0() throws Exception {
         when(registerService.createUser(any(User.class))).thenReturn(new GenericResponse(true));
         when(registerService.setUserPassword(any(User.class))).thenReturn(new GenericResponse(true));
-        when(registerService.confirmUserEmail(any(User.class))).thenReturn(new GenericResponse(true));
         when(loginService.login(any(User.class))).thenReturn(getAccessResponse());
 
         mockMvc.perform(post("/users/register").contentType(MediaType.APPLICATION_JSON).content(getUser()))
@@ -77,16 +97,16 @@ class UserControllerTest {
     }
 
     @Test
-    @DisplayName("Register user returns error message if an operation fails (3)")
+    @DisplayName("Register user does not confirm the email in a separate call")
     void test_3() throws Exception {
         when(registerService.createUser(any(User.class))).thenReturn(new GenericResponse(true));
         when(registerService.setUserPassword(any(User.class))).thenReturn(new GenericResponse(true));
-        when(registerService.confirmUserEmail(any(User.class))).thenReturn(new GenericResponse(false, "Could not confirm user email"));
+        when(loginService.login(any(User.class))).thenReturn(getAccessResponse());
 
         mockMvc.perform(post("/users/register").contentType(MediaType.APPLICATION_JSON).content(getUser()))
-                .andExpect(status().isInternalServerError())
-                .andExpect(jsonPath("$.errorMessages").isNotEmpty())
-                .andExpect(jsonPath("$.errorMessages[0]").value("Could not confirm user email"));
+                .andExpect(status().isOk());
+
+        verify(registerService, never()).confirmUserEmail(any(User.class));
     }
 
     @Test
@@ -94,7 +114,6 @@ class UserControllerTest {
     void test_4() throws Exception {
         when(registerService.createUser(any(User.class))).thenReturn(new GenericResponse(true));
         when(registerService.setUserPassword(any(User.class))).thenReturn(new GenericResponse(true));
-        when(registerService.confirmUserEmail(any(User.class))).thenReturn(new GenericResponse(true));
         when(loginService.login(any(User.class))).thenReturn(new AccessResponse(false, "Could not login user"));
 
         mockMvc.perform(post("/users/register").contentType(MediaType.APPLICATION_JSON).content(getUser()))
@@ -128,6 +147,128 @@ class UserControllerTest {
                 .andExpect(jsonPath("$.errorMessages[0]").value("Could not login user"));
     }
 
+    @Test
+    @DisplayName("Refresh tokens works")
+    void test_7() throws Exception {
+        var accessResponse = getAccessResponse();
+        accessResponse.setRefreshToken(null);
+        when(loginService.refresh(any(RefreshRequest.class))).thenReturn(accessResponse);
+
+        mockMvc.perform(post("/users/refresh").contentType(MediaType.APPLICATION_JSON).content(getRefreshRequest()))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.accessToken").isNotEmpty())
+                .andExpect(jsonPath("$.idToken").isNotEmpty())
+                .andExpect(jsonPath("$.refreshToken").doesNotExist());
+    }
+
+    @Test
+    @DisplayName("Refresh tokens returns error message if an operation fails")
+    void test_8() throws Exception {
+        when(loginService.refresh(any(RefreshRequest.class))).thenReturn(new AccessResponse(false, "Could not refresh tokens"));
+
+        mockMvc.perform(post("/users/refresh").contentType(MediaType.APPLICATION_JSON).content(getRefreshRequest()))
+                .andExpect(status().isForbidden())
+                .andExpect(jsonPath("$.errorMessages[0]").value("Could not refresh tokens"));
+    }
+
+    @Test
+    @DisplayName("Refresh tokens requires a refresh token")
+    void test_9() throws Exception {
+        mockMvc.perform(post("/users/refresh").contentType(MediaType.APPLICATION_JSON).content("{}"))
+                .andExpect(status().isBadRequest());
+    }
+
+    @Test
+    @DisplayName("Verify token works")
+    void test_10() throws Exception {
+        var verifyResponse = new VerifyResponse();
+        verifyResponse.setSubject("subject");
+        verifyResponse.setTokenUse("access");
+        when(verifyService.verify(any(VerifyRequest.class))).thenReturn(verifyResponse);
+
+        mockMvc.perform(post("/users/verify").contentType(MediaType.APPLICATION_JSON).content(getVerifyRequest()))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.subject").value("subject"))
+                .andExpect(jsonPath("$.tokenUse").value("access"));
+    }
+
+    @Test
+    @DisplayName("Verify token returns unauthorized for an invalid token")
+    void test_11() throws Exception {
+        when(verifyService.verify(any(VerifyRequest.class))).thenReturn(new VerifyResponse(false, "Invalid token"));
+
+        mockMvc.perform(post("/users/verify").contentType(MediaType.APPLICATION_JSON).content(getVerifyRequest()))
+                .andExpect(status().isUnauthorized())
+                .andExpect(jsonPath("$.errorMessages[0]").value("Invalid token"));
+    }
+
+    @Test
+    @DisplayName("Throttled login returns too many requests")
+    void test_12() throws Exception {
+        when(loginService.login(any(User.class))).thenReturn(CognitoRateLimiter.throttled(new AccessResponse(false)));
+
+        mockMvc.perform(post("/users/login").contentType(MediaType.APPLICATION_JSON).content(getUser()))
+                .andExpect(status().isTooManyRequests())
+                .andExpect(jsonPath("$.errorMessages[0]").value("Too many requests"));
+    }
+
+    @Test
+    @DisplayName("Register user returns conflict if the user exists and cannot be resumed")
+    void test_13() throws Exception {
+        var exists = new GenericResponse(false, "User already exists");
+        exists.setConflict(true);
+        var userStatus = new UserStatusResponse();
+        userStatus.setPasswordChangeRequired(true);
+        when(registerService.createUser(any(User.class))).thenReturn(exists);
+        when(registerService.describeUser(any(User.class))).thenReturn(userStatus);
+        when(loginService.verifyTemporaryPassword(any(User.class))).thenReturn(new GenericResponse(false, "Could not verify temporary password"));
+
+        mockMvc.perform(post("/users/register").contentType(MediaType.APPLICATION_JSON).content(getUser())
+                        .header(UserController.IDEMPOTENCY_KEY, "key-1"))
+                .andExpect(status().isConflict())
+                .andExpect(jsonPath("$.errorMessages[0]").value("User already exists"));
+
+        verify(registerService, never()).setUserPassword(any(User.class));
+    }
+
+    @Test
+    @DisplayName("Login for an unknown tenant returns not found")
+    void test_14() throws Exception {
+        mockMvc.perform(post("/tenants/unknown/users/login").contentType(MediaType.APPLICATION_JSON).content(getUser()))
+                .andExpect(status().isNotFound())
+                .andExpect(jsonPath("$.errorMessages[0]").value("Unknown tenant"));
+
+        mockMvc.perform(post("/users/login").contentType(MediaType.APPLICATION_JSON).content(getUser())
+                        .header(Tenants.TENANT_HEADER, "unknown"))
+                .andExpect(status().isNotFound());
+
+        verify(loginService, never()).login(any(User.class));
+    }
+
+    @Test
+    @DisplayName("Register user rejects a password the pool policy refuses before calling Cognito")
+    void test_15() throws Exception {
+        when(userPolicyValidator.validate(any(User.class))).thenReturn(List.of("Password must contain a number"));
+
+        mockMvc.perform(post("/users/register").contentType(MediaType.APPLICATION_JSON).content(getUser()))
+                .andExpect(status().isBadRequest())
+                .andExpect(jsonPath("$.errorMessages[0]").value("Password must contain a number"));
+
+        verify(registerService, never()).createUser(any(User.class));
+    }
+
+    @Test
+    @DisplayName("Login that timed out returns gateway timeout")
+    void test_16() throws Exception {
+        var response = new AccessResponse(false, "Could not login user");
+        response.setTimedOut(true);
+        when(loginService.login(any(User.class))).thenReturn(response);
+
+        mockMvc.perform(post("/users/login").contentType(MediaType.APPLICATION_JSON).content(getUser()))
+                .andExpect(status().isGatewayTimeout())
+                .andExpect(jsonPath("$.errorMessages[0]").value("Could not login user"));
+    }
+
     private AccessResponse getAccessResponse() {
         var accessResponse = new AccessResponse(true);
         accessResponse.setTokenType("access");
@@ -142,4 +283,12 @@ class UserControllerTest {
         var user = new User("", "", "email", "username", "password");
         return objectMapper.writeValueAsString(user);
     }
-}
\ No newline at end of file
+
+    private String getRefreshRequest() throws JsonProcessingException {
+        return objectMapper.writeValueAsString(new RefreshRequest("refreshToken"));
+    }
+
+    private String getVerifyRequest() throws JsonProcessingException {
+        return objectMapper.writeValueAsString(new VerifyRequest("token"));
+    }
+}
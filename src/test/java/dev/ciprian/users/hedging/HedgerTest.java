@@ -0,0 +1,109 @@
+package dev.ciprian.users.hedging;
+
+import dev.ciprian.users.config.CognitoProperties;
+import dev.ciprian.users.metrics.InvocationMetrics;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.timeout;
+import static org.mockito.Mockito.verify;
+
+class HedgerTest {
+
+    CognitoProperties cognitoProperties;
+    InvocationMetrics invocationMetrics;
+    Hedger hedger;
+
+    @BeforeEach
+    void setUp() {
+        cognitoProperties = new CognitoProperties();
+        cognitoProperties.getHedging().setEnabled(true);
+        cognitoProperties.getHedging().setInitialDelay(Duration.ofMillis(50));
+        cognitoProperties.getHedging().setMinDelay(Duration.ofMillis(10));
+        invocationMetrics = mock(InvocationMetrics.class);
+        hedger = new Hedger(cognitoProperties, invocationMetrics);
+    }
+
+    @Test
+    @DisplayName("Fast calls are not hedged")
+    void test_0() {
+        var attempts = new AtomicInteger();
+
+        var result = hedger.call("AdminInitiateAuth", () -> attempts.incrementAndGet(), () -> true);
+
+        assertThat(result).isEqualTo(1);
+        assertThat(attempts.get()).isEqualTo(1);
+        verify(invocationMetrics, never()).recordHedge("AdminInitiateAuth");
+    }
+
+    @Test
+    @DisplayName("Slow first attempt is overtaken by the hedge")
+    void test_1() {
+        var attempts = new AtomicInteger();
+
+        var result = hedger.call("AdminInitiateAuth", () -> {
+            if (attempts.incrementAndGet() == 1) {
+                sleep(2_000);
+                return "first";
+            }
+
+            return "hedge";
+        }, () -> true);
+
+        assertThat(result).isEqualTo("hedge");
+        verify(invocationMetrics).recordHedge("AdminInitiateAuth");
+        verify(invocationMetrics, timeout(1_000)).recordHedgeWin("AdminInitiateAuth");
+    }
+
+    @Test
+    @DisplayName("Refused hedge waits for the first attempt")
+    void test_2() {
+        var attempts = new AtomicInteger();
+
+        var result = hedger.call("AdminInitiateAuth", () -> {
+            attempts.incrementAndGet();
+            sleep(150);
+            return "first";
+        }, () -> false);
+
+        assertThat(result).isEqualTo("first");
+        assertThat(attempts.get()).isEqualTo(1);
+        verify(invocationMetrics, never()).recordHedge("AdminInitiateAuth");
+    }
+
+    @Test
+    @DisplayName("Failure is rethrown as is when every attempt fails")
+    void test_3() {
+        assertThatThrownBy(() -> hedger.call("AdminInitiateAuth", () -> {
+            sleep(100);
+            throw new IllegalStateException("failed");
+        }, () -> true)).isInstanceOf(IllegalStateException.class).hasMessage("failed");
+    }
+
+    @Test
+    @DisplayName("Hedging disabled runs the call on the caller's thread")
+    void test_4() {
+        cognitoProperties.getHedging().setEnabled(false);
+        var caller = Thread.currentThread();
+
+        var result = hedger.call("AdminInitiateAuth", () -> Thread.currentThread() == caller, () -> true);
+
+        assertThat(result).isTrue();
+    }
+
+    private static void sleep(long millis) {
+        try {
+            Thread.sleep(millis);
+        } catch (InterruptedException exception) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
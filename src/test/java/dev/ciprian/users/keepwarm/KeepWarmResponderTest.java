@@ -0,0 +1,89 @@
+package dev.ciprian.users.keepwarm;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import dev.ciprian.users.config.ReloadableHttpClient;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.io.BufferedInputStream;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+
+class KeepWarmResponderTest {
+
+    private static final String SCHEDULED_EVENT = """
+            {"version":"0","id":"89d1a02d-5ec7-412e-82f5-13505f849b41","detail-type":"Scheduled Event",\
+            "source":"aws.events","account":"123456789012","time":"2024-01-01T00:00:00Z","region":"eu-central-1",\
+            "resources":["arn:aws:events:eu-central-1:123456789012:rule/keep-warm"],"detail":{}}""";
+    private static final String PROXY_EVENT = """
+            {"path":"/users/login","httpMethod":"POST","body":"{\\"warmup\\":true}"}""";
+
+    final ObjectMapper objectMapper = new ObjectMapper();
+    ReloadableHttpClient httpClient;
+    KeepWarmResponder keepWarmResponder;
+
+    @BeforeEach
+    void setUp() {
+        httpClient = mock(ReloadableHttpClient.class);
+        keepWarmResponder = new KeepWarmResponder(objectMapper, httpClient);
+    }
+
+    @Test
+    @DisplayName("Scheduled events are answered with the container age and invocation count")
+    void test_0() throws IOException {
+        var output = new ByteArrayOutputStream();
+
+        assertThat(keepWarmResponder.answer(input(SCHEDULED_EVENT), output)).isTrue();
+
+        var response = objectMapper.readValue(output.toByteArray(), KeepWarmResponder.KeepWarmResponse.class);
+        assertThat(response.event()).isEqualTo("scheduled");
+        assertThat(response.coldStart()).isTrue();
+        assertThat(response.containerAgeMillis()).isNotNegative();
+        assertThat(response.invocations()).isEqualTo(1);
+        verify(httpClient, never()).warmUp();
+    }
+
+    @Test
+    @DisplayName("Constant warm-up and health inputs are answered, refreshing connections on request")
+    void test_1() throws IOException {
+        assertThat(keepWarmResponder.answer(input("{\"warmup\":true}"), new ByteArrayOutputStream())).isTrue();
+        verify(httpClient, never()).warmUp();
+
+        var output = new ByteArrayOutputStream();
+        assertThat(keepWarmResponder.answer(input("{\"health\":true,\"refreshConnections\":true}"), output)).isTrue();
+
+        var response = objectMapper.readValue(output.toByteArray(), KeepWarmResponder.KeepWarmResponse.class);
+        assertThat(response.event()).isEqualTo("health");
+        assertThat(response.coldStart()).isFalse();
+        assertThat(response.invocations()).isEqualTo(2);
+        verify(httpClient).warmUp();
+    }
+
+    @Test
+    @DisplayName("Other events are handed on from their first byte and nothing is written")
+    void test_2() throws IOException {
+        var largeEvent = "{\"source\":\"aws.events\",\"detail-type\":\"Scheduled Event\",\"padding\":\""
+                + "x".repeat(KeepWarmResponder.PEEK_LIMIT) + "\"}";
+
+        for (var event : new String[]{PROXY_EVENT, largeEvent, "{\"warmup\":", ""}) {
+            var input = input(event);
+            var output = new ByteArrayOutputStream();
+
+            assertThat(keepWarmResponder.answer(input, output)).as(event).isFalse();
+            assertThat(output.size()).isZero();
+            assertThat(new String(input.readAllBytes(), StandardCharsets.UTF_8)).isEqualTo(event);
+        }
+    }
+
+    private static BufferedInputStream input(String event) {
+        return new BufferedInputStream(new ByteArrayInputStream(event.getBytes(StandardCharsets.UTF_8)));
+    }
+}
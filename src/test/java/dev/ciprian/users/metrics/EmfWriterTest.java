@@ -0,0 +1,140 @@
+package dev.ciprian.users.metrics;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.HdrHistogram.Histogram;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.io.ByteArrayOutputStream;
+import java.io.PrintStream;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.offset;
+
+class EmfWriterTest {
+
+    final ObjectMapper objectMapper = new ObjectMapper();
+    final ByteArrayOutputStream output = new ByteArrayOutputStream();
+    final EmfWriter emfWriter = new EmfWriter("users-test", new PrintStream(output, true, StandardCharsets.UTF_8));
+
+    @Test
+    @DisplayName("Operation document declares the metrics and carries latencies in milliseconds")
+    void test_0() throws Exception {
+        var histogram = new Histogram(2);
+        histogram.recordValue(12_000);
+        histogram.recordValue(12_000);
+        histogram.recordValue(250_000);
+
+        emfWriter.writeOperation(1_700_000_000_000L, "AdminCreateUser", histogram, new OperationCounts(1, 0, 0, 0, 0));
+
+        var documents = documents();
+        assertThat(documents).hasSize(1);
+
+        var document = documents.get(0);
+        var metadata = document.get("_aws");
+        assertThat(metadata.get("Timestamp").asLong()).isEqualTo(1_700_000_000_000L);
+        assertThat(metadata.at("/CloudWatchMetrics/0/Namespace").asText()).isEqualTo("users-test");
+        assertThat(metadata.at("/CloudWatchMetrics/0/Dimensions/0/0").asText()).isEqualTo("Operation");
+        assertThat(metadata.at("/CloudWatchMetrics/0/Metrics")).hasSize(6);
+
+        assertThat(document.get("Operation").asText()).isEqualTo("AdminCreateUser");
+        assertThat(document.at("/Latency/Values")).hasSize(2);
+        assertThat(document.at("/Latency/Values/0").asDouble()).isCloseTo(12.0, offset(0.1));
+        assertThat(document.at("/Latency/Values/1").asDouble()).isCloseTo(250.0, offset(3.0));
+        assertThat(document.at("/Latency/Counts/0").asLong()).isEqualTo(2);
+        assertThat(document.at("/Latency/Counts/1").asLong()).isEqualTo(1);
+        assertThat(document.at("/Latency/Count").asLong()).isEqualTo(3);
+        assertThat(document.at("/Latency/Min").asDouble()).isCloseTo(12.0, offset(0.1));
+        assertThat(document.at("/Latency/Max").asDouble()).isCloseTo(250.0, offset(3.0));
+        assertThat(document.get("Errors").asLong()).isEqualTo(1);
+        assertThat(document.get("Throttles").asLong()).isZero();
+    }
+
+    @Test
+    @DisplayName("Latencies go out as one value per bucket with its count, in a single document")
+    void test_1() throws Exception {
+        var histogram = new Histogram(2);
+        histogram.recordValueWithCount(5_000, 150);
+        histogram.recordValueWithCount(9_000, 100);
+
+        emfWriter.writeOperation(0, "AdminInitiateAuth", histogram, new OperationCounts(0, 3, 2, 1, 4));
+
+        var documents = documents();
+        assertThat(documents).hasSize(1);
+
+        var document = documents.get(0);
+        assertThat(document.at("/Latency/Values")).hasSize(2);
+        assertThat(document.at("/Latency/Counts/0").asLong()).isEqualTo(150);
+        assertThat(document.at("/Latency/Counts/1").asLong()).isEqualTo(100);
+        assertThat(document.at("/Latency/Count").asLong()).isEqualTo(250);
+        assertThat(document.at("/Latency/Sum").asDouble()).isCloseTo(150 * 5.0 + 100 * 9.0, offset(10.0));
+        assertThat(document.get("Throttles").asLong()).isEqualTo(3);
+        assertThat(document.get("Hedges").asLong()).isEqualTo(2);
+        assertThat(document.get("HedgeWins").asLong()).isEqualTo(1);
+        assertThat(document.get("LocalRejections").asLong()).isEqualTo(4);
+    }
+
+    @Test
+    @DisplayName("Invocation document carries the duration and the cold start flag")
+    void test_2() throws Exception {
+        emfWriter.writeInvocation(0, "DirectStreamHandler", 42_500_000, true);
+        emfWriter.writeInvocation(0, "DirectStreamHandler", 7_000_000, false);
+
+        var documents = documents();
+        assertThat(documents).hasSize(2);
+        assertThat(documents.get(0).get("Handler").asText()).isEqualTo("DirectStreamHandler");
+        assertThat(documents.get(0).get("Duration").asDouble()).isEqualTo(42.5);
+        assertThat(documents.get(0).get("ColdStart").asInt()).isEqualTo(1);
+        assertThat(documents.get(1).get("ColdStart").asInt()).isZero();
+    }
+
+    @Test
+    @DisplayName("Buckets above the EMF limit are merged without losing any latency")
+    void test_3() throws Exception {
+        var histogram = new Histogram(2);
+
+        for (var micros = 1_000; micros <= 1_000_000; micros += 1_000) {
+            histogram.recordValue(micros);
+        }
+
+        emfWriter.writeOperation(0, "AdminCreateUser", histogram, new OperationCounts(0, 0, 0, 0, 0));
+
+        var latency = documents().get(0).get("Latency");
+        assertThat(latency.get("Values").size()).isLessThanOrEqualTo(100);
+        assertThat(latency.get("Counts").size()).isEqualTo(latency.get("Values").size());
+
+        var total = 0L;
+
+        for (var count : latency.get("Counts")) {
+            total += count.asLong();
+        }
+
+        assertThat(total).isEqualTo(1_000);
+        assertThat(latency.get("Count").asLong()).isEqualTo(1_000);
+    }
+
+    @Test
+    @DisplayName("Operation without latencies only declares its counters")
+    void test_4() throws Exception {
+        emfWriter.writeOperation(0, "AdminInitiateAuth", new Histogram(2), new OperationCounts(0, 0, 0, 0, 2));
+
+        var document = documents().get(0);
+        assertThat(document.at("/_aws/CloudWatchMetrics/0/Metrics")).hasSize(5);
+        assertThat(document.has("Latency")).isFalse();
+        assertThat(document.get("LocalRejections").asLong()).isEqualTo(2);
+    }
+
+    private List<JsonNode> documents() throws Exception {
+        var documents = new ArrayList<JsonNode>();
+
+        for (var line : output.toString(StandardCharsets.UTF_8).split("\n")) {
+            documents.add(objectMapper.readTree(line));
+        }
+
+        return documents;
+    }
+}
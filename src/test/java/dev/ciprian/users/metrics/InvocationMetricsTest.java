@@ -0,0 +1,44 @@
+package dev.ciprian.users.metrics;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.io.ByteArrayOutputStream;
+import java.io.PrintStream;
+import java.nio.charset.StandardCharsets;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class InvocationMetricsTest {
+
+    final ByteArrayOutputStream output = new ByteArrayOutputStream();
+    final InvocationMetrics invocationMetrics = new InvocationMetrics(new MetricsProperties(),
+            new PrintStream(output, true, StandardCharsets.UTF_8));
+
+    @Test
+    @DisplayName("Flush has written every document by the time it returns")
+    void test_0() {
+        invocationMetrics.recordOperation("AdminCreateUser", 12_000_000, false, false);
+        invocationMetrics.recordOperation("AdminSetUserPassword", 8_000_000, true, false);
+
+        invocationMetrics.flush("DirectStreamHandler", 30_000_000);
+
+        var lines = output.toString(StandardCharsets.UTF_8).split("\n");
+        assertThat(lines).hasSize(3);
+        assertThat(lines[2]).contains("\"Handler\":\"DirectStreamHandler\"", "\"ColdStart\":1");
+    }
+
+    @Test
+    @DisplayName("Operations without calls since the last flush are not written again")
+    void test_1() {
+        invocationMetrics.recordOperation("AdminCreateUser", 12_000_000, false, false);
+        invocationMetrics.flush("DirectStreamHandler", 30_000_000);
+        output.reset();
+
+        invocationMetrics.flush("DirectStreamHandler", 5_000_000);
+
+        var lines = output.toString(StandardCharsets.UTF_8).split("\n");
+        assertThat(lines).hasSize(1);
+        assertThat(lines[0]).contains("\"Handler\":\"DirectStreamHandler\"", "\"ColdStart\":0");
+    }
+}
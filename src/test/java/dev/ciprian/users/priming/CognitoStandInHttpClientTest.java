@@ -0,0 +1,78 @@
+package dev.ciprian.users.priming;
+
+import dev.ciprian.users.config.ReloadableHttpClient;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import software.amazon.awssdk.auth.credentials.AwsBasicCredentials;
+import software.amazon.awssdk.auth.credentials.StaticCredentialsProvider;
+import software.amazon.awssdk.http.SdkHttpClient;
+import software.amazon.awssdk.regions.Region;
+import software.amazon.awssdk.services.cognitoidentityprovider.CognitoIdentityProviderClient;
+import software.amazon.awssdk.services.cognitoidentityprovider.model.AdminCreateUserRequest;
+import software.amazon.awssdk.services.cognitoidentityprovider.model.AdminInitiateAuthRequest;
+import software.amazon.awssdk.services.cognitoidentityprovider.model.AuthFlowType;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+class CognitoStandInHttpClientTest {
+
+    SdkHttpClient realHttpClient;
+    ReloadableHttpClient httpClient;
+    CognitoIdentityProviderClient identityProviderClient;
+
+    @BeforeEach
+    void setUp() {
+        realHttpClient = mock(SdkHttpClient.class);
+        when(realHttpClient.clientName()).thenReturn("Apache");
+        httpClient = new ReloadableHttpClient(() -> realHttpClient);
+        httpClient.setStandIn(new CognitoStandInHttpClient());
+        identityProviderClient = CognitoIdentityProviderClient.builder()
+                .region(Region.EU_CENTRAL_1)
+                .httpClient(httpClient)
+                .credentialsProvider(StaticCredentialsProvider.create(AwsBasicCredentials.create("access", "secret")))
+                .build();
+    }
+
+    @AfterEach
+    void tearDown() {
+        identityProviderClient.close();
+    }
+
+    @Test
+    @DisplayName("Stand-in answers login with an authentication result")
+    void test_0() {
+        var request = AdminInitiateAuthRequest.builder()
+                .userPoolId("pool")
+                .clientId("client")
+                .authFlow(AuthFlowType.ADMIN_USER_PASSWORD_AUTH)
+                .build();
+
+        var response = identityProviderClient.adminInitiateAuth(request);
+
+        assertThat(response.authenticationResult().accessToken()).isEqualTo("priming");
+        verify(realHttpClient, never()).prepareRequest(any());
+    }
+
+    @Test
+    @DisplayName("Stand-in answers other operations with an empty result")
+    void test_1() {
+        var response = identityProviderClient.adminCreateUser(AdminCreateUserRequest.builder().userPoolId("pool").username("username").build());
+
+        assertThat(response.user()).isNull();
+    }
+
+    @Test
+    @DisplayName("Reloading closes the previous HTTP client")
+    void test_2() {
+        httpClient.reload();
+
+        verify(realHttpClient).close();
+    }
+}
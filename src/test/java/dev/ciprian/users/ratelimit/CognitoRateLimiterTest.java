@@ -0,0 +1,40 @@
+package dev.ciprian.users.ratelimit;
+
+import dev.ciprian.users.config.CognitoProperties;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class CognitoRateLimiterTest {
+
+    final AtomicLong nanoTime = new AtomicLong();
+
+    @Test
+    @DisplayName("Regions have buckets of their own")
+    void test_0() {
+        var cognitoProperties = new CognitoProperties();
+        cognitoProperties.getRateLimits().put(QuotaCategory.USER_CREATION, 2);
+        var rateLimiter = new CognitoRateLimiter(cognitoProperties, nanoTime::get);
+
+        assertThat(rateLimiter.tryAcquire("eu-central-1", QuotaCategory.USER_CREATION)).isTrue();
+        assertThat(rateLimiter.tryAcquire("eu-central-1", QuotaCategory.USER_CREATION)).isTrue();
+        assertThat(rateLimiter.tryAcquire("eu-central-1", QuotaCategory.USER_CREATION)).isFalse();
+        assertThat(rateLimiter.tryAcquire("us-east-1", QuotaCategory.USER_CREATION)).isTrue();
+    }
+
+    @Test
+    @DisplayName("Throttling in one region leaves the rate of the other regions alone")
+    void test_1() {
+        var rateLimiter = new CognitoRateLimiter(new CognitoProperties(), nanoTime::get);
+        var limit = QuotaCategory.USER_AUTHENTICATION.defaultLimit();
+
+        rateLimiter.onThrottled("eu-central-1", QuotaCategory.USER_AUTHENTICATION);
+
+        assertThat(rateLimiter.rate("eu-central-1", QuotaCategory.USER_AUTHENTICATION)).isEqualTo(limit / 2.0);
+        assertThat(rateLimiter.rate("us-east-1", QuotaCategory.USER_AUTHENTICATION)).isEqualTo(limit);
+        assertThat(rateLimiter.rate("eu-central-1", QuotaCategory.USER_CREATION)).isEqualTo(QuotaCategory.USER_CREATION.defaultLimit());
+    }
+}
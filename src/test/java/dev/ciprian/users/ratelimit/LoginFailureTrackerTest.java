@@ -0,0 +1,98 @@
+package dev.ciprian.users.ratelimit;
+
+import dev.ciprian.users.config.CognitoProperties;
+import dev.ciprian.users.metrics.InvocationMetrics;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+
+class LoginFailureTrackerTest {
+
+    final AtomicLong nanoTime = new AtomicLong();
+    final InvocationMetrics invocationMetrics = mock(InvocationMetrics.class);
+    CognitoProperties cognitoProperties;
+
+    @BeforeEach
+    void setUp() {
+        cognitoProperties = new CognitoProperties();
+        cognitoProperties.getLoginFailures().setMaxFailures(3);
+        cognitoProperties.getLoginFailures().setWindow(Duration.ofMinutes(1));
+        cognitoProperties.getLoginFailures().setCoolingOff(Duration.ofMinutes(5));
+    }
+
+    @Test
+    @DisplayName("Username is locked out after the threshold and released after the cooling off window")
+    void test_0() {
+        var tracker = tracker();
+
+        tracker.onFailure("username");
+        tracker.onFailure("username");
+        assertThat(tracker.isLockedOut("username")).isFalse();
+
+        tracker.onFailure("username");
+        assertThat(tracker.isLockedOut("username")).isTrue();
+        assertThat(tracker.isLockedOut("USERNAME")).isTrue();
+        verify(invocationMetrics, times(2)).recordLocalRejection("AdminInitiateAuth");
+
+        advance(Duration.ofMinutes(5).plusSeconds(1));
+        assertThat(tracker.isLockedOut("username")).isFalse();
+    }
+
+    @Test
+    @DisplayName("Failures older than the window do not count")
+    void test_1() {
+        var tracker = tracker();
+
+        tracker.onFailure("username");
+        tracker.onFailure("username");
+        advance(Duration.ofMinutes(2));
+        tracker.onFailure("username");
+
+        assertThat(tracker.isLockedOut("username")).isFalse();
+    }
+
+    @Test
+    @DisplayName("Successful login clears the failures")
+    void test_2() {
+        var tracker = tracker();
+
+        tracker.onFailure("username");
+        tracker.onFailure("username");
+        tracker.onSuccess("username");
+        tracker.onFailure("username");
+
+        assertThat(tracker.isLockedOut("username")).isFalse();
+    }
+
+    @Test
+    @DisplayName("Tracker keeps at most the configured number of usernames")
+    void test_3() {
+        cognitoProperties.getLoginFailures().setMaxUsernames(2);
+        var tracker = tracker();
+
+        for (var i = 0; i < 3; i++) {
+            tracker.onFailure("first");
+        }
+
+        tracker.onFailure("second");
+        tracker.onFailure("third");
+
+        assertThat(tracker.isLockedOut("first")).isFalse();
+    }
+
+    private LoginFailureTracker tracker() {
+        return new LoginFailureTracker(cognitoProperties, invocationMetrics, nanoTime::get);
+    }
+
+    private void advance(Duration duration) {
+        nanoTime.addAndGet(duration.toNanos());
+    }
+}
@@ -0,0 +1,67 @@
+package dev.ciprian.users.ratelimit;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class TokenBucketTest {
+
+    final AtomicLong nanoTime = new AtomicLong();
+
+    @Test
+    @DisplayName("Bucket allows a one second burst and then refills at its rate")
+    void test_0() {
+        var bucket = new TokenBucket(10, nanoTime::get);
+
+        assertThat(acquire(bucket, 20)).isEqualTo(10);
+
+        advance(Duration.ofMillis(500));
+        assertThat(acquire(bucket, 20)).isEqualTo(5);
+    }
+
+    @Test
+    @DisplayName("Throttling halves the rate and successes grow it back to the limit")
+    void test_1() {
+        var bucket = new TokenBucket(10, nanoTime::get);
+
+        bucket.onThrottled();
+        assertThat(bucket.rate()).isEqualTo(5);
+        bucket.onThrottled();
+        bucket.onThrottled();
+        bucket.onThrottled();
+        assertThat(bucket.rate()).isEqualTo(1);
+
+        for (var i = 0; i < 1000; i++) {
+            bucket.onSuccess();
+        }
+        assertThat(bucket.rate()).isEqualTo(10);
+    }
+
+    @Test
+    @DisplayName("Throttling drops the tokens above the new rate")
+    void test_2() {
+        var bucket = new TokenBucket(10, nanoTime::get);
+
+        bucket.onThrottled();
+
+        assertThat(acquire(bucket, 20)).isEqualTo(5);
+    }
+
+    private int acquire(TokenBucket bucket, int attempts) {
+        var acquired = 0;
+        for (var i = 0; i < attempts; i++) {
+            if (bucket.tryAcquire()) {
+                acquired++;
+            }
+        }
+        return acquired;
+    }
+
+    private void advance(Duration duration) {
+        nanoTime.addAndGet(duration.toNanos());
+    }
+}
@@ -0,0 +1,166 @@
+package dev.ciprian.users.services;
+
+import com.amazonaws.xray.AWSXRay;
+import dev.ciprian.users.config.CognitoProperties;
+import dev.ciprian.users.models.User;
+import dev.ciprian.users.ratelimit.CognitoRateLimiter;
+import dev.ciprian.users.ratelimit.LoginFailureTracker;
+import dev.ciprian.users.ratelimit.QuotaCategory;
+import dev.ciprian.users.tenancy.Tenants;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.mock.mockito.MockBean;
+import software.amazon.awssdk.core.exception.SdkServiceException;
+import software.amazon.awssdk.services.cognitoidentityprovider.CognitoIdentityProviderAsyncClient;
+import software.amazon.awssdk.services.cognitoidentityprovider.model.AdminInitiateAuthRequest;
+import software.amazon.awssdk.services.cognitoidentityprovider.model.AdminInitiateAuthResponse;
+import software.amazon.awssdk.services.cognitoidentityprovider.model.AuthenticationResultType;
+import software.amazon.awssdk.services.cognitoidentityprovider.model.NotAuthorizedException;
+import software.amazon.awssdk.services.cognitoidentityprovider.model.TooManyRequestsException;
+
+import java.util.concurrent.CompletableFuture;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+@SpringBootTest(classes = {AsyncLoginService.class, Tenants.class}, properties = "cognito.async-enabled=true")
+class AsyncLoginServiceTest {
+
+    @MockBean
+    CognitoProperties cognitoProperties;
+
+    @MockBean
+    CognitoIdentityProviderAsyncClient cognitoIdentityProviderAsyncClient;
+
+    @MockBean
+    CognitoRateLimiter rateLimiter;
+
+    @MockBean
+    LoginFailureTracker failureTracker;
+
+    @Autowired
+    AsyncLoginService loginService;
+
+    @BeforeEach
+    void setUp() {
+        AWSXRay.beginSegment("AsyncLoginServiceTest");
+        when(rateLimiter.tryAcquire(any(), any(QuotaCategory.class))).thenReturn(true);
+    }
+
+    @AfterEach
+    void tearDown() {
+        AWSXRay.clearTraceEntity();
+    }
+
+    @Test
+    @DisplayName("Login user works")
+    void test_0() {
+        var result = AuthenticationResultType.builder().build();
+        var authResponse = AdminInitiateAuthResponse.builder().authenticationResult(result).build();
+        when(cognitoIdentityProviderAsyncClient.adminInitiateAuth(any(AdminInitiateAuthRequest.class))).thenReturn(CompletableFuture.completedFuture(authResponse));
+        var user = new User("First name", "Last name", "email", "username", "password");
+        var response = loginService.login(user).join();
+
+        assertThat(response.isValid()).isTrue();
+        assertThat(response.getErrorMessages()).isEmpty();
+    }
+
+    @Test
+    @DisplayName("Login user returns error message if auth result is not present")
+    void test_1() {
+        var authResponse = AdminInitiateAuthResponse.builder().authenticationResult((AuthenticationResultType) null).build();
+        when(cognitoIdentityProviderAsyncClient.adminInitiateAuth(any(AdminInitiateAuthRequest.class))).thenReturn(CompletableFuture.completedFuture(authResponse));
+        var user = new User("First name", "Last name", "email", "username", "password");
+        var response = loginService.login(user).join();
+
+        assertThat(response.isValid()).isFalse();
+        assertThat(response.getErrorMessages().size()).isEqualTo(1);
+        assertThat(response.getErrorMessages().getFirst()).isEqualTo("Could not login user");
+    }
+
+    @Test
+    @DisplayName("Login user returns error message if the AWS SDK fails")
+    void test_2() {
+        var failure = CompletableFuture.<AdminInitiateAuthResponse>failedFuture(SdkServiceException.builder().message("failure").build());
+        when(cognitoIdentityProviderAsyncClient.adminInitiateAuth(any(AdminInitiateAuthRequest.class))).thenReturn(failure);
+        var user = new User("First name", "Last name", "email", "username", "password");
+        var response = loginService.login(user).join();
+
+        assertThat(response.isValid()).isFalse();
+        assertThat(response.getErrorMessages().size()).isEqualTo(1);
+        assertThat(response.getErrorMessages().getFirst()).isEqualTo("Could not login user");
+    }
+
+    @Test
+    @DisplayName("Login user gives the calling thread its trace entity back")
+    void test_3() {
+        var segment = AWSXRay.getTraceEntity();
+        when(cognitoIdentityProviderAsyncClient.adminInitiateAuth(any(AdminInitiateAuthRequest.class))).thenReturn(new CompletableFuture<>());
+        var user = new User("First name", "Last name", "email", "username", "password");
+        loginService.login(user);
+
+        assertThat(AWSXRay.getTraceEntity()).isSameAs(segment);
+    }
+
+    @Test
+    @DisplayName("Login user is rejected without calling Cognito while the username cools off")
+    void test_4() {
+        when(failureTracker.isLockedOut(anyString())).thenReturn(true);
+        var user = new User("First name", "Last name", "email", "username", "password");
+        var response = loginService.login(user).join();
+
+        assertThat(response.isValid()).isFalse();
+        assertThat(response.isThrottled()).isTrue();
+        assertThat(response.getErrorMessages()).containsExactly(LoginFailureTracker.LOCKED_OUT_MESSAGE);
+        verify(cognitoIdentityProviderAsyncClient, never()).adminInitiateAuth(any(AdminInitiateAuthRequest.class));
+    }
+
+    @Test
+    @DisplayName("Login user counts wrong passwords and clears the count on success")
+    void test_5() {
+        var failure = CompletableFuture.<AdminInitiateAuthResponse>failedFuture(NotAuthorizedException.builder().message("Incorrect username or password").build());
+        when(cognitoIdentityProviderAsyncClient.adminInitiateAuth(any(AdminInitiateAuthRequest.class))).thenReturn(failure);
+        var user = new User("First name", "Last name", "email", "username", "password");
+
+        assertThat(loginService.login(user).join().isValid()).isFalse();
+        verify(failureTracker).onFailure("default:username");
+
+        var authResponse = AdminInitiateAuthResponse.builder().authenticationResult(AuthenticationResultType.builder().build()).build();
+        when(cognitoIdentityProviderAsyncClient.adminInitiateAuth(any(AdminInitiateAuthRequest.class))).thenReturn(CompletableFuture.completedFuture(authResponse));
+
+        assertThat(loginService.login(user).join().isValid()).isTrue();
+        verify(failureTracker).onSuccess("default:username");
+    }
+
+    @Test
+    @DisplayName("Login user is throttled without calling Cognito when there is no token")
+    void test_6() {
+        when(rateLimiter.tryAcquire(any(), any(QuotaCategory.class))).thenReturn(false);
+        var user = new User("First name", "Last name", "email", "username", "password");
+        var response = loginService.login(user).join();
+
+        assertThat(response.isThrottled()).isTrue();
+        verify(cognitoIdentityProviderAsyncClient, never()).adminInitiateAuth(any(AdminInitiateAuthRequest.class));
+    }
+
+    @Test
+    @DisplayName("Login user reports Cognito throttling to the rate limiter")
+    void test_7() {
+        var failure = CompletableFuture.<AdminInitiateAuthResponse>failedFuture(TooManyRequestsException.builder().message("Too many requests").build());
+        when(cognitoIdentityProviderAsyncClient.adminInitiateAuth(any(AdminInitiateAuthRequest.class))).thenReturn(failure);
+        var user = new User("First name", "Last name", "email", "username", "password");
+        var response = loginService.login(user).join();
+
+        assertThat(response.isThrottled()).isTrue();
+        verify(rateLimiter).onThrottled(any(), eq(QuotaCategory.USER_AUTHENTICATION));
+    }
+}
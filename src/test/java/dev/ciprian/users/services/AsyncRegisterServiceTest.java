@@ -0,0 +1,129 @@
+package dev.ciprian.users.services;
+
+import com.amazonaws.xray.AWSXRay;
+import dev.ciprian.users.config.CognitoProperties;
+import dev.ciprian.users.models.User;
+import dev.ciprian.users.ratelimit.CognitoRateLimiter;
+import dev.ciprian.users.ratelimit.QuotaCategory;
+import dev.ciprian.users.tenancy.Tenants;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.mock.mockito.MockBean;
+import software.amazon.awssdk.core.exception.SdkServiceException;
+import software.amazon.awssdk.services.cognitoidentityprovider.CognitoIdentityProviderAsyncClient;
+import software.amazon.awssdk.services.cognitoidentityprovider.model.AdminCreateUserRequest;
+import software.amazon.awssdk.services.cognitoidentityprovider.model.AdminCreateUserResponse;
+import software.amazon.awssdk.services.cognitoidentityprovider.model.AdminSetUserPasswordRequest;
+import software.amazon.awssdk.services.cognitoidentityprovider.model.AdminSetUserPasswordResponse;
+import software.amazon.awssdk.services.cognitoidentityprovider.model.TooManyRequestsException;
+
+import java.util.concurrent.CompletableFuture;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.any;
+import static org.mockito.Mockito.eq;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+@SpringBootTest(classes = {AsyncRegisterService.class, Tenants.class}, properties = "cognito.async-enabled=true")
+class AsyncRegisterServiceTest {
+
+    @MockBean
+    CognitoProperties cognitoProperties;
+
+    @MockBean
+    CognitoIdentityProviderAsyncClient cognitoIdentityProviderAsyncClient;
+
+    @MockBean
+    CognitoRateLimiter rateLimiter;
+
+    @Autowired
+    AsyncRegisterService registerService;
+
+    @BeforeEach
+    void setUp() {
+        AWSXRay.beginSegment("AsyncRegisterServiceTest");
+        when(rateLimiter.tryAcquire(any(), any(QuotaCategory.class))).thenReturn(true);
+    }
+
+    @AfterEach
+    void tearDown() {
+        AWSXRay.clearTraceEntity();
+    }
+
+    @Test
+    @DisplayName("Create user works")
+    void test_0() {
+        when(cognitoIdentityProviderAsyncClient.adminCreateUser(any(AdminCreateUserRequest.class))).thenReturn(CompletableFuture.completedFuture(AdminCreateUserResponse.builder().build()));
+        var user = new User("First name", "Last name", "email", "username", "password");
+        var response = registerService.createUser(user).join();
+
+        assertThat(response.isValid()).isTrue();
+        assertThat(response.getErrorMessages()).isEmpty();
+    }
+
+    @Test
+    @DisplayName("Create user returns error message if the AWS SDK fails")
+    void test_1() {
+        var failure = CompletableFuture.<AdminCreateUserResponse>failedFuture(SdkServiceException.builder().message("failure").build());
+        when(cognitoIdentityProviderAsyncClient.adminCreateUser(any(AdminCreateUserRequest.class))).thenReturn(failure);
+        var user = new User("First name", "Last name", "email", "username", "password");
+        var response = registerService.createUser(user).join();
+
+        assertThat(response.isValid()).isFalse();
+        assertThat(response.getErrorMessages().size()).isEqualTo(1);
+        assertThat(response.getErrorMessages().getFirst()).isEqualTo("Could not create user");
+    }
+
+    @Test
+    @DisplayName("Set user password works")
+    void test_2() {
+        when(cognitoIdentityProviderAsyncClient.adminSetUserPassword(any(AdminSetUserPasswordRequest.class))).thenReturn(CompletableFuture.completedFuture(AdminSetUserPasswordResponse.builder().build()));
+        var user = new User("First name", "Last name", "email", "username", "password");
+        var response = registerService.setUserPassword(user).join();
+
+        assertThat(response.isValid()).isTrue();
+        assertThat(response.getErrorMessages()).isEmpty();
+    }
+
+    @Test
+    @DisplayName("Set user password returns error message if the AWS SDK fails")
+    void test_3() {
+        var failure = CompletableFuture.<AdminSetUserPasswordResponse>failedFuture(SdkServiceException.builder().message("failure").build());
+        when(cognitoIdentityProviderAsyncClient.adminSetUserPassword(any(AdminSetUserPasswordRequest.class))).thenReturn(failure);
+        var user = new User("First name", "Last name", "email", "username", "password");
+        var response = registerService.setUserPassword(user).join();
+
+        assertThat(response.isValid()).isFalse();
+        assertThat(response.getErrorMessages().size()).isEqualTo(1);
+        assertThat(response.getErrorMessages().getFirst()).isEqualTo("Could not set user password");
+    }
+
+    @Test
+    @DisplayName("Create user is throttled without calling Cognito when there is no token")
+    void test_4() {
+        when(rateLimiter.tryAcquire(any(), eq(QuotaCategory.USER_CREATION))).thenReturn(false);
+        var user = new User("First name", "Last name", "email", "username", "password");
+        var response = registerService.createUser(user).join();
+
+        assertThat(response.isThrottled()).isTrue();
+        verify(cognitoIdentityProviderAsyncClient, never()).adminCreateUser(any(AdminCreateUserRequest.class));
+    }
+
+    @Test
+    @DisplayName("Set user password reports Cognito throttling to the rate limiter")
+    void test_5() {
+        var failure = CompletableFuture.<AdminSetUserPasswordResponse>failedFuture(TooManyRequestsException.builder().message("Too many requests").build());
+        when(cognitoIdentityProviderAsyncClient.adminSetUserPassword(any(AdminSetUserPasswordRequest.class))).thenReturn(failure);
+        var user = new User("First name", "Last name", "email", "username", "password");
+        var response = registerService.setUserPassword(user).join();
+
+        assertThat(response.isThrottled()).isTrue();
+        verify(rateLimiter).onThrottled(any(), eq(QuotaCategory.USER_UPDATE));
+    }
+}
@@ -0,0 +1,175 @@
+package dev.ciprian.users.services;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import dev.ciprian.users.config.CognitoClients;
+import dev.ciprian.users.config.CognitoProperties;
+import dev.ciprian.users.models.GenericResponse;
+import dev.ciprian.users.models.User;
+import dev.ciprian.users.ratelimit.CognitoRateLimiter;
+import dev.ciprian.users.tenancy.Tenants;
+import dev.ciprian.users.validation.PrecomputedValidator;
+import dev.ciprian.users.validation.UserPolicyValidator;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+class BulkRegisterServiceTest {
+
+    ObjectMapper objectMapper;
+    CognitoProperties cognitoProperties;
+    RegisterService registerService;
+    BulkRegisterService bulkRegisterService;
+
+    @BeforeEach
+    void setUp() {
+        objectMapper = Jackson2ObjectMapperBuilder.json().build();
+        cognitoProperties = new CognitoProperties();
+        registerService = mock(RegisterService.class);
+        var validator = new PrecomputedValidator();
+        var tenants = new Tenants(cognitoProperties);
+        var userPolicyValidator = new UserPolicyValidator(cognitoProperties, mock(CognitoClients.class), tenants,
+                new CognitoRateLimiter(cognitoProperties));
+        bulkRegisterService = new BulkRegisterService(cognitoProperties, registerService, tenants, objectMapper, validator,
+                userPolicyValidator);
+    }
+
+    @Test
+    @DisplayName("Bulk register writes one result line per user")
+    void test_0() throws Exception {
+        when(registerService.createUser(any(User.class))).thenReturn(new GenericResponse(true));
+        when(registerService.setUserPassword(any(User.class))).thenReturn(new GenericResponse(true));
+        var input = String.join("\n", getUser("first"), "", "{not json", objectMapper.writeValueAsString(new User(null, null, "email", "", "")), getUser("second"));
+
+        var results = registerAll(input);
+
+        assertThat(results).hasSize(4);
+        assertThat(result(results, 1).get("status").asInt()).isEqualTo(200);
+        assertThat(result(results, 1).get("username").asText()).isEqualTo("first");
+        assertThat(result(results, 3).get("status").asInt()).isEqualTo(400);
+        assertThat(result(results, 3).get("errorMessages").get(0).asText()).isEqualTo("Malformed request body");
+        assertThat(result(results, 4).get("status").asInt()).isEqualTo(400);
+        assertThat(result(results, 4).get("errorMessages")).hasSize(2);
+        assertThat(result(results, 5).get("status").asInt()).isEqualTo(200);
+    }
+
+    @Test
+    @DisplayName("Bulk register stops a user at the first failed step")
+    void test_1() throws Exception {
+        when(registerService.createUser(any(User.class))).thenReturn(new GenericResponse(false, "Could not create user"));
+
+        var results = registerAll(getUser("first"));
+
+        assertThat(results).hasSize(1);
+        assertThat(results.getFirst().get("status").asInt()).isEqualTo(500);
+        assertThat(results.getFirst().get("errorMessages").get(0).asText()).isEqualTo("Could not create user");
+        verify(registerService, never()).setUserPassword(any(User.class));
+    }
+
+    @Test
+    @DisplayName("Bulk register runs users concurrently up to the configured parallelism")
+    void test_2() throws Exception {
+        var users = 200;
+        var parallelism = 16;
+        var latency = Duration.ofMillis(20);
+        cognitoProperties.setBulkParallelism(parallelism);
+
+        var running = new AtomicInteger();
+        var maxRunning = new AtomicInteger();
+        when(registerService.createUser(any(User.class))).thenAnswer(invocation -> {
+            maxRunning.accumulateAndGet(running.incrementAndGet(), Math::max);
+            Thread.sleep(latency);
+            running.decrementAndGet();
+            return new GenericResponse(true);
+        });
+        when(registerService.setUserPassword(any(User.class))).thenAnswer(invocation -> {
+            Thread.sleep(latency);
+            return new GenericResponse(true);
+        });
+        var input = IntStream.range(0, users).mapToObj(index -> getUser("user" + index)).collect(Collectors.joining("\n"));
+
+        var start = System.nanoTime();
+        var results = registerAll(input);
+        var elapsed = Duration.ofNanos(System.nanoTime() - start);
+
+        var sequential = latency.multipliedBy(2L * users);
+        assertThat(results).hasSize(users);
+        assertThat(maxRunning.get()).isLessThanOrEqualTo(parallelism);
+        assertThat(elapsed).isLessThan(sequential.dividedBy(4));
+    }
+
+    @Test
+    @DisplayName("Bulk register rejects users the pool policy refuses without calling Cognito")
+    void test_3() throws Exception {
+        var weakPassword = objectMapper.writeValueAsString(new User(null, null, "weak@example.com", "weak", "password"));
+
+        var results = registerAll(weakPassword);
+
+        assertThat(results.getFirst().get("status").asInt()).isEqualTo(400);
+        assertThat(results.getFirst().get("username").asText()).isEqualTo("weak");
+        assertThat(results.getFirst().get("errorMessages")).hasSize(3);
+        verify(registerService, never()).createUser(any(User.class));
+    }
+
+    @Test
+    @DisplayName("Bulk register answers a user whose registration throws with a failed result line")
+    void test_4() throws Exception {
+        when(registerService.createUser(any(User.class))).thenAnswer(invocation -> {
+            if ("broken".equals(invocation.getArgument(0, User.class).username())) {
+                throw new IllegalStateException("Connection reset");
+            }
+
+            return new GenericResponse(true);
+        });
+        when(registerService.setUserPassword(any(User.class))).thenReturn(new GenericResponse(true));
+
+        var results = registerAll(String.join("\n", getUser("first"), getUser("broken"), getUser("second")));
+
+        assertThat(results).hasSize(3);
+        assertThat(result(results, 1).get("status").asInt()).isEqualTo(200);
+        assertThat(result(results, 2).get("status").asInt()).isEqualTo(500);
+        assertThat(result(results, 2).get("errorMessages").get(0).asText()).isEqualTo("Could not register user");
+        assertThat(result(results, 3).get("status").asInt()).isEqualTo(200);
+    }
+
+    private List<JsonNode> registerAll(String input) throws Exception {
+        var outputStream = new ByteArrayOutputStream();
+        bulkRegisterService.registerAll(new ByteArrayInputStream(input.getBytes(StandardCharsets.UTF_8)), outputStream);
+
+        var results = new ArrayList<JsonNode>();
+        for (var line : outputStream.toString(StandardCharsets.UTF_8).split("\n")) {
+            results.add(objectMapper.readTree(line));
+        }
+        return results;
+    }
+
+    private static JsonNode result(List<JsonNode> results, int line) {
+        return results.stream().filter(result -> result.get("line").asInt() == line).findFirst().orElseThrow();
+    }
+
+    private String getUser(String username) {
+        try {
+            return objectMapper.writeValueAsString(new User("First name", "Last name", username + "@example.com", username, "Password-1"));
+        } catch (Exception exception) {
+            throw new IllegalStateException(exception);
+        }
+    }
+}
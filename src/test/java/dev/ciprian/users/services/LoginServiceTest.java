@@ -1,26 +1,44 @@
 package dev.ciprian.users.services;
 
 import com.amazonaws.xray.AWSXRay;
+import dev.ciprian.users.config.CognitoClients;
 import dev.ciprian.users.config.CognitoProperties;
+import dev.ciprian.users.hedging.Hedger;
+import dev.ciprian.users.metrics.InvocationMetrics;
+import dev.ciprian.users.models.RefreshRequest;
 import dev.ciprian.users.models.User;
+import dev.ciprian.users.ratelimit.CognitoRateLimiter;
+import dev.ciprian.users.ratelimit.LoginFailureTracker;
+import dev.ciprian.users.ratelimit.QuotaCategory;
+import dev.ciprian.users.tenancy.Tenants;
+import dev.ciprian.users.tracing.NoopTracer;
 import org.junit.jupiter.api.AfterEach;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.DisplayName;
 import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.context.SpringBootTest;
 import org.springframework.boot.test.mock.mockito.MockBean;
+import software.amazon.awssdk.core.exception.ApiCallAttemptTimeoutException;
+import software.amazon.awssdk.core.exception.SdkClientException;
 import software.amazon.awssdk.core.exception.SdkServiceException;
 import software.amazon.awssdk.services.cognitoidentityprovider.CognitoIdentityProviderClient;
 import software.amazon.awssdk.services.cognitoidentityprovider.model.AdminInitiateAuthRequest;
 import software.amazon.awssdk.services.cognitoidentityprovider.model.AdminInitiateAuthResponse;
+import software.amazon.awssdk.services.cognitoidentityprovider.model.AuthFlowType;
 import software.amazon.awssdk.services.cognitoidentityprovider.model.AuthenticationResultType;
+import software.amazon.awssdk.services.cognitoidentityprovider.model.NotAuthorizedException;
+import software.amazon.awssdk.services.cognitoidentityprovider.model.TooManyRequestsException;
 
 import static org.assertj.core.api.Assertions.assertThat;
 import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
 
-@SpringBootTest(classes = {LoginService.class})
+@SpringBootTest(classes = {LoginService.class, Tenants.class, Hedger.class, NoopTracer.class})
 class LoginServiceTest {
 
     @MockBean
@@ -29,12 +47,27 @@ class LoginServiceTest {
     @MockBean
     CognitoIdentityProviderClient cognitoIdentityProviderClient;
 
+    @MockBean
+    CognitoClients cognitoClients;
+
+    @MockBean
+    CognitoRateLimiter rateLimiter;
+
+    @MockBean
+    InvocationMetrics invocationMetrics;
+
+    @MockBean
+    LoginFailureTracker failureTracker;
+
     @Autowired
     LoginService loginService;
 
     @BeforeEach
     void setUp() {
         AWSXRay.beginSegment("RegisterServiceTest");
+        when(cognitoClients.forRegion(any())).thenReturn(cognitoIdentityProviderClient);
+        when(rateLimiter.tryAcquire(any(), any(QuotaCategory.class))).thenReturn(true);
+        when(cognitoProperties.getHedging()).thenReturn(new CognitoProperties.Hedging());
     }
 
     @AfterEach
@@ -79,4 +112,106 @@ class LoginServiceTest {
         assertThat(response.getErrorMessages().size()).isEqualTo(1);
         assertThat(response.getErrorMessages().getFirst()).isEqualTo("Could not login user");
     }
-}
\ No newline at end of file
+
+    @Test
+    @DisplayName("Refresh tokens works and does not return a refresh token")
+    void test_3() {
+        var result = AuthenticationResultType.builder().accessToken("accessToken").refreshToken("refreshToken").build();
+        var authResponse = AdminInitiateAuthResponse.builder().authenticationResult(result).build();
+        when(cognitoIdentityProviderClient.adminInitiateAuth(any(AdminInitiateAuthRequest.class))).thenReturn(authResponse);
+        var response = loginService.refresh(new RefreshRequest("refreshToken"));
+
+        var captor = ArgumentCaptor.forClass(AdminInitiateAuthRequest.class);
+        verify(cognitoIdentityProviderClient).adminInitiateAuth(captor.capture());
+        assertThat(captor.getValue().authFlow()).isEqualTo(AuthFlowType.REFRESH_TOKEN_AUTH);
+        assertThat(captor.getValue().authParameters()).containsEntry("REFRESH_TOKEN", "refreshToken");
+        assertThat(response.isValid()).isTrue();
+        assertThat(response.getAccessToken()).isEqualTo("accessToken");
+        assertThat(response.getRefreshToken()).isNull();
+    }
+
+    @Test
+    @DisplayName("Refresh tokens returns error message if the AWS SDK fails")
+    void test_4() {
+        when(cognitoIdentityProviderClient.adminInitiateAuth(any(AdminInitiateAuthRequest.class))).thenThrow(SdkServiceException.class);
+        var response = loginService.refresh(new RefreshRequest("refreshToken"));
+
+        assertThat(response.isValid()).isFalse();
+        assertThat(response.getErrorMessages().size()).isEqualTo(1);
+        assertThat(response.getErrorMessages().getFirst()).isEqualTo("Could not refresh tokens");
+    }
+
+    @Test
+    @DisplayName("Login user is throttled without calling Cognito when the limiter has no tokens")
+    void test_5() {
+        when(rateLimiter.tryAcquire(any(), eq(QuotaCategory.USER_AUTHENTICATION))).thenReturn(false);
+        var user = new User("First name", "Last name", "email", "username", "password");
+        var response = loginService.login(user);
+
+        assertThat(response.isValid()).isFalse();
+        assertThat(response.isThrottled()).isTrue();
+        verify(cognitoIdentityProviderClient, never()).adminInitiateAuth(any(AdminInitiateAuthRequest.class));
+    }
+
+    @Test
+    @DisplayName("Login user reports Cognito throttling to the limiter")
+    void test_6() {
+        when(cognitoIdentityProviderClient.adminInitiateAuth(any(AdminInitiateAuthRequest.class))).thenThrow(TooManyRequestsException.class);
+        var user = new User("First name", "Last name", "email", "username", "password");
+        var response = loginService.login(user);
+
+        assertThat(response.isThrottled()).isTrue();
+        verify(rateLimiter).onThrottled(any(), eq(QuotaCategory.USER_AUTHENTICATION));
+    }
+
+    @Test
+    @DisplayName("Failed login is reported to the failure tracker")
+    void test_7() {
+        when(cognitoIdentityProviderClient.adminInitiateAuth(any(AdminInitiateAuthRequest.class))).thenThrow(NotAuthorizedException.class);
+        var user = new User("First name", "Last name", "email", "username", "password");
+        var response = loginService.login(user);
+
+        assertThat(response.isValid()).isFalse();
+        assertThat(response.isThrottled()).isFalse();
+        verify(failureTracker).onFailure("default:username");
+    }
+
+    @Test
+    @DisplayName("Login for a username cooling off is rejected without calling Cognito")
+    void test_8() {
+        when(failureTracker.isLockedOut("default:username")).thenReturn(true);
+        var user = new User("First name", "Last name", "email", "username", "password");
+        var response = loginService.login(user);
+
+        assertThat(response.isThrottled()).isTrue();
+        assertThat(response.getErrorMessages()).containsExactly(LoginFailureTracker.LOCKED_OUT_MESSAGE);
+        verify(cognitoIdentityProviderClient, never()).adminInitiateAuth(any(AdminInitiateAuthRequest.class));
+    }
+
+    @Test
+    @DisplayName("Login that times out is answered as timed out instead of escaping")
+    void test_9() {
+        when(cognitoIdentityProviderClient.adminInitiateAuth(any(AdminInitiateAuthRequest.class)))
+                .thenThrow(ApiCallAttemptTimeoutException.create(1500));
+        var user = new User("First name", "Last name", "email", "username", "password");
+        var response = loginService.login(user);
+
+        assertThat(response.isValid()).isFalse();
+        assertThat(response.isTimedOut()).isTrue();
+        assertThat(response.getErrorMessages()).containsExactly("Could not login user");
+        verify(failureTracker, never()).onFailure(any());
+    }
+
+    @Test
+    @DisplayName("Client errors other than timeouts fail the login without a timeout")
+    void test_10() {
+        when(cognitoIdentityProviderClient.adminInitiateAuth(any(AdminInitiateAuthRequest.class)))
+                .thenThrow(SdkClientException.create("Unable to execute HTTP request"));
+        var user = new User("First name", "Last name", "email", "username", "password");
+        var response = loginService.login(user);
+
+        assertThat(response.isValid()).isFalse();
+        assertThat(response.isTimedOut()).isFalse();
+        assertThat(response.getErrorMessages()).containsExactly("Could not login user");
+    }
+}
@@ -1,26 +1,41 @@
 package dev.ciprian.users.services;
 
 import com.amazonaws.xray.AWSXRay;
+import dev.ciprian.users.config.CognitoClients;
 import dev.ciprian.users.config.CognitoProperties;
 import dev.ciprian.users.models.User;
+import dev.ciprian.users.ratelimit.CognitoRateLimiter;
+import dev.ciprian.users.ratelimit.QuotaCategory;
+import dev.ciprian.users.tenancy.Tenants;
+import dev.ciprian.users.tracing.NoopTracer;
 import org.junit.jupiter.api.AfterEach;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.DisplayName;
 import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.context.SpringBootTest;
 import org.springframework.boot.test.mock.mockito.MockBean;
 import software.amazon.awssdk.core.exception.SdkServiceException;
 import software.amazon.awssdk.services.cognitoidentityprovider.CognitoIdentityProviderClient;
 import software.amazon.awssdk.services.cognitoidentityprovider.model.AdminCreateUserRequest;
+import software.amazon.awssdk.services.cognitoidentityprovider.model.AdminGetUserRequest;
+import software.amazon.awssdk.services.cognitoidentityprovider.model.AdminGetUserResponse;
 import software.amazon.awssdk.services.cognitoidentityprovider.model.AdminSetUserPasswordRequest;
 import software.amazon.awssdk.services.cognitoidentityprovider.model.AdminUpdateUserAttributesRequest;
+import software.amazon.awssdk.services.cognitoidentityprovider.model.AttributeType;
+import software.amazon.awssdk.services.cognitoidentityprovider.model.TooManyRequestsException;
+import software.amazon.awssdk.services.cognitoidentityprovider.model.UserStatusType;
+import software.amazon.awssdk.services.cognitoidentityprovider.model.UsernameExistsException;
 
+import static dev.ciprian.users.constants.UserConstants.EMAIL_VERIFIED;
 import static org.assertj.core.api.Assertions.assertThat;
 import static org.mockito.Mockito.any;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
 
-@SpringBootTest(classes = {RegisterService.class})
+@SpringBootTest(classes = {RegisterService.class, Tenants.class, NoopTracer.class})
 class RegisterServiceTest {
 
     @MockBean
@@ -29,12 +44,20 @@ class RegisterServiceTest {
     @MockBean
     CognitoIdentityProviderClient cognitoIdentityProviderClient;
 
+    @MockBean
+    CognitoClients cognitoClients;
+
+    @MockBean
+    CognitoRateLimiter rateLimiter;
+
     @Autowired
     RegisterService registerService;
 
     @BeforeEach
     void setUp() {
         AWSXRay.beginSegment("RegisterServiceTest");
+        when(cognitoClients.forRegion(any())).thenReturn(cognitoIdentityProviderClient);
+        when(rateLimiter.tryAcquire(any(), any(QuotaCategory.class))).thenReturn(true);
     }
 
     @AfterEach
@@ -52,6 +75,18 @@ class RegisterServiceTest {
         assertThat(response.getErrorMessages()).isEmpty();
     }
 
+    @Test
+    @DisplayName("Create user marks the email as verified")
+    void test_6() {
+        var user = new User("First name", "Last name", "email", "username", "password");
+        registerService.createUser(user);
+
+        var captor = ArgumentCaptor.forClass(AdminCreateUserRequest.class);
+        verify(cognitoIdentityProviderClient).adminCreateUser(captor.capture());
+        assertThat(captor.getValue().userAttributes())
+                .contains(AttributeType.builder().name(EMAIL_VERIFIED).value("true").build());
+    }
+
     @Test
     @DisplayName("Create user returns error message if the AWS SDK fails")
     void test_1() {
@@ -107,4 +142,57 @@ class RegisterServiceTest {
         assertThat(response.getErrorMessages().size()).isEqualTo(1);
         assertThat(response.getErrorMessages().getFirst()).isEqualTo("Could not confirm user email");
     }
-}
\ No newline at end of file
+
+    @Test
+    @DisplayName("Create user is throttled without calling Cognito when the limiter has no tokens")
+    void test_7() {
+        when(rateLimiter.tryAcquire(any(), eq(QuotaCategory.USER_CREATION))).thenReturn(false);
+        var user = new User("First name", "Last name", "email", "username", "password");
+        var response = registerService.createUser(user);
+
+        assertThat(response.isValid()).isFalse();
+        assertThat(response.isThrottled()).isTrue();
+        assertThat(response.getErrorMessages().getFirst()).isEqualTo("Too many requests");
+        verify(cognitoIdentityProviderClient, never()).adminCreateUser(any(AdminCreateUserRequest.class));
+    }
+
+    @Test
+    @DisplayName("Create user reports Cognito throttling to the limiter")
+    void test_8() {
+        when(cognitoIdentityProviderClient.adminCreateUser(any(AdminCreateUserRequest.class))).thenThrow(TooManyRequestsException.class);
+        var user = new User("First name", "Last name", "email", "username", "password");
+        var response = registerService.createUser(user);
+
+        assertThat(response.isThrottled()).isTrue();
+        verify(rateLimiter).onThrottled(any(), eq(QuotaCategory.USER_CREATION));
+    }
+
+    @Test
+    @DisplayName("Create user flags an existing username as a conflict")
+    void test_9() {
+        when(cognitoIdentityProviderClient.adminCreateUser(any(AdminCreateUserRequest.class))).thenThrow(UsernameExistsException.class);
+        var user = new User("First name", "Last name", "email", "username", "password");
+        var response = registerService.createUser(user);
+
+        assertThat(response.isValid()).isFalse();
+        assertThat(response.isConflict()).isTrue();
+        assertThat(response.getErrorMessages()).containsExactly("User already exists");
+    }
+
+    @Test
+    @DisplayName("Describe user reads the password and email steps")
+    void test_10() {
+        var adminGetUserResponse = AdminGetUserResponse.builder()
+                .userStatus(UserStatusType.FORCE_CHANGE_PASSWORD)
+                .userAttributes(AttributeType.builder().name(EMAIL_VERIFIED).value("true").build())
+                .build();
+        when(cognitoIdentityProviderClient.adminGetUser(any(AdminGetUserRequest.class))).thenReturn(adminGetUserResponse);
+        var user = new User("First name", "Last name", "email", "username", "password");
+        var response = registerService.describeUser(user);
+
+        assertThat(response.isValid()).isTrue();
+        assertThat(response.isPasswordChangeRequired()).isTrue();
+        assertThat(response.isConfirmed()).isFalse();
+        assertThat(response.isEmailVerified()).isTrue();
+    }
+}
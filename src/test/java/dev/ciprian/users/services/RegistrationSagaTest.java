@@ -0,0 +1,188 @@
+package dev.ciprian.users.services;
+
+import dev.ciprian.users.config.CognitoProperties;
+import dev.ciprian.users.models.AccessResponse;
+import dev.ciprian.users.models.GenericResponse;
+import dev.ciprian.users.models.User;
+import dev.ciprian.users.models.UserStatusResponse;
+import dev.ciprian.users.tenancy.Tenants;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.mock.mockito.MockBean;
+
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.inOrder;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+@SpringBootTest(classes = {RegistrationSaga.class, Tenants.class})
+class RegistrationSagaTest {
+
+    @MockBean
+    CognitoProperties cognitoProperties;
+
+    @MockBean
+    RegisterService registerService;
+
+    @MockBean
+    LoginService loginService;
+
+    @Autowired
+    RegistrationSaga registrationSaga;
+
+    @Test
+    @DisplayName("New user is created, given its password and logged in")
+    void test_0() {
+        when(registerService.createUser(any(User.class))).thenReturn(new GenericResponse(true));
+        when(registerService.setUserPassword(any(User.class))).thenReturn(new GenericResponse(true));
+        when(loginService.login(any(User.class))).thenReturn(accessResponse());
+
+        var result = registrationSaga.register(user("password"), null);
+
+        assertThat(result.isSuccessful()).isTrue();
+        verify(registerService, never()).describeUser(any(User.class));
+        verify(registerService, never()).confirmUserEmail(any(User.class));
+    }
+
+    @Test
+    @DisplayName("Retry after a failed password step proves ownership and runs only the missing steps")
+    void test_1() {
+        var userStatus = new UserStatusResponse();
+        userStatus.setPasswordChangeRequired(true);
+        userStatus.setEmailVerified(true);
+        when(registerService.createUser(any(User.class))).thenReturn(userExists());
+        when(registerService.describeUser(any(User.class))).thenReturn(userStatus);
+        when(loginService.verifyTemporaryPassword(any(User.class))).thenReturn(new GenericResponse(true));
+        when(registerService.setUserPassword(any(User.class))).thenReturn(new GenericResponse(true));
+        when(loginService.login(any(User.class))).thenReturn(accessResponse());
+
+        var result = registrationSaga.register(user("password"), null);
+
+        assertThat(result.isSuccessful()).isTrue();
+        var order = inOrder(registerService, loginService);
+        order.verify(loginService).verifyTemporaryPassword(any(User.class));
+        order.verify(registerService).setUserPassword(any(User.class));
+        order.verify(loginService).login(any(User.class));
+        verify(registerService, never()).confirmUserEmail(any(User.class));
+    }
+
+    @Test
+    @DisplayName("Retry with another password does not touch the existing user")
+    void test_2() {
+        var userStatus = new UserStatusResponse();
+        userStatus.setPasswordChangeRequired(true);
+        when(registerService.createUser(any(User.class))).thenReturn(userExists());
+        when(registerService.describeUser(any(User.class))).thenReturn(userStatus);
+        when(loginService.verifyTemporaryPassword(any(User.class))).thenReturn(new GenericResponse(false, "Could not verify temporary password"));
+
+        var result = registrationSaga.register(user("other password"), null);
+
+        assertThat(result.failedStep()).isEqualTo(RegistrationSaga.Step.CREATE_USER);
+        assertThat(result.response().isConflict()).isTrue();
+        verify(registerService, never()).setUserPassword(any(User.class));
+        verify(registerService, never()).confirmUserEmail(any(User.class));
+    }
+
+    @Test
+    @DisplayName("Confirmed user with an unverified email logs in before the email is verified")
+    void test_3() {
+        var userStatus = new UserStatusResponse();
+        userStatus.setConfirmed(true);
+        when(registerService.createUser(any(User.class))).thenReturn(userExists());
+        when(registerService.describeUser(any(User.class))).thenReturn(userStatus);
+        when(loginService.login(any(User.class))).thenReturn(accessResponse());
+        when(registerService.confirmUserEmail(any(User.class))).thenReturn(new GenericResponse(true));
+
+        var result = registrationSaga.register(user("password"), null);
+
+        assertThat(result.isSuccessful()).isTrue();
+        var order = inOrder(registerService, loginService);
+        order.verify(loginService).login(any(User.class));
+        order.verify(registerService).confirmUserEmail(any(User.class));
+        verify(registerService, never()).setUserPassword(any(User.class));
+        verify(loginService, never()).verifyTemporaryPassword(any(User.class));
+    }
+
+    @Test
+    @DisplayName("Concurrent requests with the same idempotency key run once")
+    void test_4() throws Exception {
+        var started = new CountDownLatch(1);
+        var release = new CountDownLatch(1);
+        when(registerService.createUser(any(User.class))).thenAnswer(invocation -> {
+            started.countDown();
+            release.await(5, TimeUnit.SECONDS);
+            return new GenericResponse(true);
+        });
+        when(registerService.setUserPassword(any(User.class))).thenReturn(new GenericResponse(true));
+        when(loginService.login(any(User.class))).thenReturn(accessResponse());
+
+        try (var executor = Executors.newVirtualThreadPerTaskExecutor()) {
+            var first = executor.submit(() -> registrationSaga.register(user("password"), "key-1"));
+            assertThat(started.await(5, TimeUnit.SECONDS)).isTrue();
+            var second = executor.submit(() -> registrationSaga.register(user("password"), "key-1"));
+
+            // give the duplicate time to find the registration in progress
+            Thread.sleep(100);
+            release.countDown();
+
+            assertThat(first.get().isSuccessful()).isTrue();
+            assertThat(second.get()).isSameAs(first.get());
+        }
+
+        verify(registerService, times(1)).createUser(any(User.class));
+        verify(loginService, times(1)).login(any(User.class));
+    }
+
+    @Test
+    @DisplayName("Idempotency key reused for another registration is rejected")
+    void test_5() throws Exception {
+        var started = new CountDownLatch(1);
+        var release = new CountDownLatch(1);
+        when(registerService.createUser(any(User.class))).thenAnswer(invocation -> {
+            started.countDown();
+            release.await(5, TimeUnit.SECONDS);
+            return new GenericResponse(true);
+        });
+        when(registerService.setUserPassword(any(User.class))).thenReturn(new GenericResponse(true));
+        when(loginService.login(any(User.class))).thenReturn(accessResponse());
+
+        try (var executor = Executors.newVirtualThreadPerTaskExecutor()) {
+            var first = executor.submit(() -> registrationSaga.register(user("password"), "key-1"));
+            assertThat(started.await(5, TimeUnit.SECONDS)).isTrue();
+
+            var second = registrationSaga.register(user("other password"), "key-1");
+            release.countDown();
+
+            assertThat(second.isSuccessful()).isFalse();
+            assertThat(second.response().isConflict()).isTrue();
+            assertThat(first.get().isSuccessful()).isTrue();
+        }
+
+        verify(registerService, times(1)).createUser(any(User.class));
+    }
+
+    private static User user(String password) {
+        return new User("First name", "Last name", "email", "username", password);
+    }
+
+    private static GenericResponse userExists() {
+        var response = new GenericResponse(false, "User already exists");
+        response.setConflict(true);
+        return response;
+    }
+
+    private static AccessResponse accessResponse() {
+        var accessResponse = new AccessResponse(true);
+        accessResponse.setAccessToken("accessToken");
+        return accessResponse;
+    }
+}
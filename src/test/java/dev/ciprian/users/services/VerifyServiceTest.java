@@ -0,0 +1,169 @@
+package dev.ciprian.users.services;
+
+import com.amazonaws.xray.AWSXRay;
+import com.nimbusds.jose.JWSAlgorithm;
+import com.nimbusds.jose.JWSHeader;
+import com.nimbusds.jose.crypto.RSASSASigner;
+import com.nimbusds.jose.jwk.JWKSet;
+import com.nimbusds.jose.jwk.RSAKey;
+import com.nimbusds.jose.jwk.gen.RSAKeyGenerator;
+import com.nimbusds.jwt.JWTClaimsSet;
+import com.nimbusds.jwt.SignedJWT;
+import dev.ciprian.users.config.CognitoProperties;
+import dev.ciprian.users.config.JwksConfig;
+import dev.ciprian.users.models.VerifyRequest;
+import dev.ciprian.users.tenancy.Tenants;
+import dev.ciprian.users.tracing.NoopTracer;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.context.TestConfiguration;
+import org.springframework.core.io.ClassPathResource;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.Date;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@SpringBootTest(classes = {VerifyService.class, JwksConfig.class, Tenants.class, NoopTracer.class, VerifyServiceTest.Config.class}, properties = {
+        "cognito.region=eu-central-1",
+        "cognito.user-pool-id=eu-central-1_test",
+        "cognito.client-id=client",
+        "cognito.jwks-location=classpath:jwks.json"})
+class VerifyServiceTest {
+
+    private static final String ISSUER = "https://cognito-idp.eu-central-1.amazonaws.com/eu-central-1_test";
+
+    @Autowired
+    VerifyService verifyService;
+
+    RSAKey signingKey;
+
+    @BeforeEach
+    void setUp() throws Exception {
+        AWSXRay.beginSegment("VerifyServiceTest");
+
+        try (var inputStream = new ClassPathResource("jwks.json").getInputStream()) {
+            signingKey = JWKSet.load(inputStream).getKeyByKeyId("test-key").toRSAKey();
+        }
+    }
+
+    @AfterEach
+    void tearDown() {
+        AWSXRay.clearTraceEntity();
+    }
+
+    @Test
+    @DisplayName("Verify access token works")
+    void test_0() throws Exception {
+        var token = sign(signingKey, accessClaims().build());
+        var response = verifyService.verify(new VerifyRequest(token));
+
+        assertThat(response.isValid()).isTrue();
+        assertThat(response.getSubject()).isEqualTo("subject");
+        assertThat(response.getUsername()).isEqualTo("username");
+        assertThat(response.getTokenUse()).isEqualTo("access");
+    }
+
+    @Test
+    @DisplayName("Verify id token works")
+    void test_1() throws Exception {
+        var claims = baseClaims()
+                .audience("client")
+                .claim("token_use", "id")
+                .claim("cognito:username", "username")
+                .build();
+        var response = verifyService.verify(new VerifyRequest(sign(signingKey, claims)));
+
+        assertThat(response.isValid()).isTrue();
+        assertThat(response.getUsername()).isEqualTo("username");
+        assertThat(response.getTokenUse()).isEqualTo("id");
+    }
+
+    @Test
+    @DisplayName("Verify token rejects a token signed with an unknown key")
+    void test_2() throws Exception {
+        var otherKey = new RSAKeyGenerator(2048).keyID("other-key").generate();
+        var response = verifyService.verify(new VerifyRequest(sign(otherKey, accessClaims().build())));
+
+        assertThat(response.isValid()).isFalse();
+        assertThat(response.getErrorMessages().getFirst()).isEqualTo("Invalid token");
+    }
+
+    @Test
+    @DisplayName("Verify token rejects an expired token")
+    void test_3() throws Exception {
+        var claims = accessClaims().expirationTime(Date.from(Instant.now().minus(Duration.ofHours(1)))).build();
+        var response = verifyService.verify(new VerifyRequest(sign(signingKey, claims)));
+
+        assertThat(response.isValid()).isFalse();
+    }
+
+    @Test
+    @DisplayName("Verify token rejects a token from another issuer")
+    void test_4() throws Exception {
+        var claims = accessClaims().issuer("https://cognito-idp.eu-central-1.amazonaws.com/other").build();
+        var response = verifyService.verify(new VerifyRequest(sign(signingKey, claims)));
+
+        assertThat(response.isValid()).isFalse();
+    }
+
+    @Test
+    @DisplayName("Verify token rejects a token for another client")
+    void test_5() throws Exception {
+        var claims = accessClaims().claim("client_id", "other").build();
+        var response = verifyService.verify(new VerifyRequest(sign(signingKey, claims)));
+
+        assertThat(response.isValid()).isFalse();
+    }
+
+    @Test
+    @DisplayName("Verify token rejects a token without token use")
+    void test_6() throws Exception {
+        var claims = baseClaims().claim("client_id", "client").build();
+        var response = verifyService.verify(new VerifyRequest(sign(signingKey, claims)));
+
+        assertThat(response.isValid()).isFalse();
+    }
+
+    @Test
+    @DisplayName("Verify token rejects a malformed token")
+    void test_7() {
+        var response = verifyService.verify(new VerifyRequest("not-a-token"));
+
+        assertThat(response.isValid()).isFalse();
+        assertThat(response.getErrorMessages().getFirst()).isEqualTo("Invalid token");
+    }
+
+    private static JWTClaimsSet.Builder baseClaims() {
+        var now = Instant.now();
+        return new JWTClaimsSet.Builder()
+                .issuer(ISSUER)
+                .subject("subject")
+                .issueTime(Date.from(now))
+                .expirationTime(Date.from(now.plus(Duration.ofHours(1))));
+    }
+
+    private static JWTClaimsSet.Builder accessClaims() {
+        return baseClaims()
+                .claim("token_use", "access")
+                .claim("client_id", "client")
+                .claim("username", "username");
+    }
+
+    private static String sign(RSAKey key, JWTClaimsSet claims) throws Exception {
+        var jwt = new SignedJWT(new JWSHeader.Builder(JWSAlgorithm.RS256).keyID(key.getKeyID()).build(), claims);
+        jwt.sign(new RSASSASigner(key));
+        return jwt.serialize();
+    }
+
+    @TestConfiguration
+    @EnableConfigurationProperties(CognitoProperties.class)
+    static class Config {
+    }
+}
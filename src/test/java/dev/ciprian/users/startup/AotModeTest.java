@@ -0,0 +1,48 @@
+package dev.ciprian.users.startup;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.util.Map;
+import java.util.Properties;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class AotModeTest {
+
+    @Test
+    @DisplayName("AOT mode is on when the application was AOT processed")
+    void test_0() {
+        assertThat(AotMode.enabled(Map.<String, String>of()::get, Map.<String, String>of()::get, new Properties())).isTrue();
+        assertThat(AotMode.enabled(Map.<String, String>of()::get, Map.<String, String>of()::get, null)).isFalse();
+        assertThat(AotMode.enabled(Map.of("SPRING_AOT_ENABLED", "true")::get, Map.<String, String>of()::get, null)).isFalse();
+    }
+
+    @Test
+    @DisplayName("Switch turns AOT mode off, the system property wins over the environment")
+    void test_1() {
+        assertThat(AotMode.enabled(Map.of("SPRING_AOT_ENABLED", "false")::get, Map.<String, String>of()::get, new Properties()))
+                .isFalse();
+        assertThat(AotMode.enabled(Map.of("SPRING_AOT_ENABLED", "false")::get, Map.of("spring.aot.enabled", "true")::get,
+                new Properties())).isTrue();
+        assertThat(AotMode.enabled(Map.<String, String>of()::get, Map.of("spring.aot.enabled", "false")::get, new Properties()))
+                .isFalse();
+    }
+
+    @Test
+    @DisplayName("Conditional properties set differently than at build time fall back to regular mode")
+    void test_2() {
+        var buildProperties = new Properties();
+        buildProperties.setProperty("validation.mode", "precomputed");
+
+        assertThat(AotMode.enabled(Map.of("VALIDATION_MODE", "precomputed")::get, Map.<String, String>of()::get, buildProperties))
+                .isTrue();
+        assertThat(AotMode.enabled(Map.<String, String>of()::get, Map.of("validation.mode", "precomputed")::get, buildProperties))
+                .isTrue();
+        assertThat(AotMode.enabled(Map.<String, String>of()::get, Map.<String, String>of()::get, buildProperties)).isFalse();
+        assertThat(AotMode.enabled(Map.of("VALIDATION_MODE", "precomputed", "COGNITO_ASYNC_ENABLED", "true")::get,
+                Map.<String, String>of()::get, buildProperties)).isFalse();
+        assertThat(AotMode.enabled(Map.of("COGNITO_ASYNCENABLED", "true")::get, Map.<String, String>of()::get, new Properties()))
+                .isFalse();
+    }
+}
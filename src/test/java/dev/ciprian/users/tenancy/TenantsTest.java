@@ -0,0 +1,70 @@
+package dev.ciprian.users.tenancy;
+
+import dev.ciprian.users.config.CognitoProperties;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.util.Map;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class TenantsTest {
+
+    Tenants tenants;
+
+    @BeforeEach
+    void setUp() {
+        var acme = new CognitoProperties.TenantPool();
+        acme.setUserPoolId("eu-central-1_acme");
+        acme.setClientId("acme");
+
+        var globex = new CognitoProperties.TenantPool();
+        globex.setRegion("us-east-1");
+        globex.setUserPoolId("us-east-1_globex");
+        globex.setClientId("globex");
+
+        var cognitoProperties = new CognitoProperties();
+        cognitoProperties.setRegion("eu-central-1");
+        cognitoProperties.setUserPoolId("eu-central-1_default");
+        cognitoProperties.setClientId("client");
+        cognitoProperties.setTenants(Map.of("acme", acme, "globex", globex));
+
+        tenants = new Tenants(cognitoProperties);
+    }
+
+    @Test
+    @DisplayName("Tenants are found by id and fall back to the default region")
+    void test_0() {
+        assertThat(tenants.find("acme")).isEqualTo(new Tenant("acme", "eu-central-1", "eu-central-1_acme", "acme"));
+        assertThat(tenants.find("globex").region()).isEqualTo("us-east-1");
+        assertThat(tenants.find("globex").issuer()).isEqualTo("https://cognito-idp.us-east-1.amazonaws.com/us-east-1_globex");
+        assertThat(tenants.find("unknown")).isNull();
+    }
+
+    @Test
+    @DisplayName("Requests without a tenant id use the default tenant")
+    void test_1() {
+        assertThat(tenants.find(null)).isSameAs(tenants.defaultTenant());
+        assertThat(tenants.find(" ")).isSameAs(tenants.defaultTenant());
+        assertThat(tenants.find(Tenant.DEFAULT_ID)).isSameAs(tenants.defaultTenant());
+        assertThat(tenants.defaultTenant().userPoolId()).isEqualTo("eu-central-1_default");
+    }
+
+    @Test
+    @DisplayName("Current tenant is only set while the action runs")
+    void test_2() {
+        var acme = tenants.find("acme");
+        var globex = tenants.find("globex");
+
+        var nested = tenants.callAs(acme, () -> {
+            assertThat(tenants.current()).isSameAs(acme);
+            var inner = tenants.callAs(globex, tenants::current);
+            assertThat(tenants.current()).isSameAs(acme);
+            return inner;
+        });
+
+        assertThat(nested).isSameAs(globex);
+        assertThat(tenants.current()).isSameAs(tenants.defaultTenant());
+    }
+}
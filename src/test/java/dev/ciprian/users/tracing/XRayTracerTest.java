@@ -0,0 +1,73 @@
+package dev.ciprian.users.tracing;
+
+import com.amazonaws.xray.AWSXRay;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.util.Map;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class XRayTracerTest {
+
+    TracingProperties tracingProperties;
+    XRayTracer tracer;
+
+    @BeforeEach
+    void setUp() {
+        tracingProperties = new TracingProperties();
+        tracer = new XRayTracer(tracingProperties);
+    }
+
+    @AfterEach
+    void tearDown() {
+        AWSXRay.clearTraceEntity();
+    }
+
+    @Test
+    @DisplayName("Sampled traces record a subsegment that is closed once")
+    void test_0() {
+        var segment = AWSXRay.beginSegment("XRayTracerTest");
+
+        var span = tracer.startSpan("Create user");
+        span.putAnnotation("username", "username");
+        span.close();
+        span.close();
+
+        assertThat(segment.getSubsegments()).hasSize(1);
+        assertThat(segment.getSubsegments().getFirst().getName()).isEqualTo("Create user");
+        assertThat(segment.getSubsegments().getFirst().getAnnotations()).containsEntry("username", "username");
+        assertThat(AWSXRay.getTraceEntity()).isSameAs(segment);
+    }
+
+    @Test
+    @DisplayName("Unsampled traces get a no-op span")
+    void test_1() {
+        var segment = AWSXRay.beginSegment("XRayTracerTest");
+        segment.setSampled(false);
+
+        var span = tracer.startSpan("Create user");
+
+        assertThat(span).isSameAs(Span.NOOP);
+        assertThat(segment.getSubsegments()).isEmpty();
+    }
+
+    @Test
+    @DisplayName("Operations with a zero sampling rate get a no-op span")
+    void test_2() {
+        tracingProperties.setOperations(Map.of("login-user", 0.0));
+        var segment = AWSXRay.beginSegment("XRayTracerTest");
+
+        assertThat(tracer.startSpan("Login user")).isSameAs(Span.NOOP);
+        assertThat(tracer.startSpan("Create user")).isNotSameAs(Span.NOOP);
+        assertThat(segment.getSubsegments()).hasSize(1);
+    }
+
+    @Test
+    @DisplayName("Spans outside a trace are no-ops")
+    void test_3() {
+        assertThat(tracer.startSpan("Create user")).isSameAs(Span.NOOP);
+    }
+}
@@ -0,0 +1,64 @@
+package dev.ciprian.users.validation;
+
+import dev.ciprian.users.models.RefreshRequest;
+import dev.ciprian.users.models.User;
+import dev.ciprian.users.models.VerifyRequest;
+import jakarta.validation.Validation;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.validation.BeanPropertyBindingResult;
+import org.springframework.validation.FieldError;
+
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class PrecomputedValidatorTest {
+
+    private static final List<Object> BODIES = List.of(
+            new User("First name", "Last name", "email", "username", "password"),
+            new User(null, null, null, null, null),
+            new User("", "", "", "", ""),
+            new User(null, null, "email", "", "password"),
+            new User(null, null, " ", " ", " "),
+            new RefreshRequest("refreshToken"),
+            new RefreshRequest(null),
+            new RefreshRequest(""),
+            new VerifyRequest("token"),
+            new VerifyRequest(null),
+            new VerifyRequest(""));
+
+    final PrecomputedValidator precomputedValidator = new PrecomputedValidator();
+    final BeanRequestValidator beanRequestValidator = new BeanRequestValidator(Validation.buildDefaultValidatorFactory().getValidator());
+
+    @Test
+    @DisplayName("Precomputed checks give the same messages as Hibernate Validator")
+    void test_0() {
+        for (var body : BODIES) {
+            assertThat(precomputedValidator.validate(body)).as(body.toString()).isEqualTo(beanRequestValidator.validate(body));
+        }
+    }
+
+    @Test
+    @DisplayName("Spring MVC binding result gets a field error per broken constraint")
+    void test_1() {
+        var user = new User(null, null, "email", "", null);
+        var errors = new BeanPropertyBindingResult(user, "user");
+
+        precomputedValidator.validate(user, errors);
+
+        assertThat(errors.getFieldErrors()).extracting(FieldError::getField).containsExactly("username", "password");
+        assertThat(errors.getFieldErrors()).extracting(FieldError::getDefaultMessage)
+                .containsExactly("Username is required", "Password is required");
+        assertThat(errors.getFieldError("username").getRejectedValue()).isEqualTo("");
+    }
+
+    @Test
+    @DisplayName("Only the request bodies are supported")
+    void test_2() {
+        assertThat(precomputedValidator.supports(User.class)).isTrue();
+        assertThat(precomputedValidator.supports(RefreshRequest.class)).isTrue();
+        assertThat(precomputedValidator.supports(VerifyRequest.class)).isTrue();
+        assertThat(precomputedValidator.supports(String.class)).isFalse();
+    }
+}
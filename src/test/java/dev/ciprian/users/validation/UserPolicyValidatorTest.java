@@ -0,0 +1,144 @@
+package dev.ciprian.users.validation;
+
+import dev.ciprian.users.config.CognitoClients;
+import dev.ciprian.users.config.CognitoProperties;
+import dev.ciprian.users.models.User;
+import dev.ciprian.users.ratelimit.CognitoRateLimiter;
+import dev.ciprian.users.ratelimit.QuotaCategory;
+import dev.ciprian.users.tenancy.Tenants;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import software.amazon.awssdk.core.exception.SdkClientException;
+import software.amazon.awssdk.services.cognitoidentityprovider.CognitoIdentityProviderClient;
+import software.amazon.awssdk.services.cognitoidentityprovider.model.DescribeUserPoolRequest;
+import software.amazon.awssdk.services.cognitoidentityprovider.model.DescribeUserPoolResponse;
+import software.amazon.awssdk.services.cognitoidentityprovider.model.PasswordPolicyType;
+import software.amazon.awssdk.services.cognitoidentityprovider.model.TooManyRequestsException;
+import software.amazon.awssdk.services.cognitoidentityprovider.model.UserPoolPolicyType;
+import software.amazon.awssdk.services.cognitoidentityprovider.model.UserPoolType;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+class UserPolicyValidatorTest {
+
+    CognitoProperties cognitoProperties;
+    CognitoIdentityProviderClient cognitoIdentityProviderClient;
+    CognitoClients cognitoClients;
+    CognitoRateLimiter rateLimiter;
+
+    @BeforeEach
+    void setUp() {
+        cognitoProperties = new CognitoProperties();
+        cognitoProperties.setRegion("eu-central-1");
+        cognitoProperties.setUserPoolId("eu-central-1_test");
+        cognitoIdentityProviderClient = mock(CognitoIdentityProviderClient.class);
+        cognitoClients = mock(CognitoClients.class);
+        when(cognitoClients.forRegion(any())).thenReturn(cognitoIdentityProviderClient);
+        rateLimiter = mock(CognitoRateLimiter.class);
+        when(rateLimiter.tryAcquire(any(), any(QuotaCategory.class))).thenReturn(true);
+    }
+
+    @Test
+    @DisplayName("Users that meet the default policy have no errors")
+    void test_0() {
+        assertThat(validator().validate(user("username", "user@example.com", "Password-1"))).isEmpty();
+        assertThat(validator().validate(user("üser", "user@example.com", "Pässwort 1Ä"))).isEmpty();
+    }
+
+    @Test
+    @DisplayName("Every password requirement that is missed gets its own message")
+    void test_1() {
+        var errors = validator().validate(user("username", "user@example.com", " pass"));
+
+        assertThat(errors).containsExactly(
+                "Password must contain a number",
+                "Password must contain a symbol",
+                "Password must contain an uppercase letter",
+                "Password must have at least 8 characters",
+                "Password must not start or end with whitespace");
+    }
+
+    @Test
+    @DisplayName("Malformed emails and usernames are rejected")
+    void test_2() {
+        assertThat(validator().validate(user("user name", "user@example.com", "Password-1")))
+                .containsExactly("Username must have at most 128 characters and no whitespace");
+        assertThat(validator().validate(user("username", "user@example", "Password-1"))).containsExactly("Email is not valid");
+        assertThat(validator().validate(user("username", "@example.com", "Password-1"))).containsExactly("Email is not valid");
+        assertThat(validator().validate(user("username", "user @example.com", "Password-1"))).containsExactly("Email is not valid");
+    }
+
+    @Test
+    @DisplayName("Policy of the pool is described once and used instead of the configured one")
+    void test_3() {
+        cognitoProperties.getPasswordPolicy().setDescribeUserPool(true);
+        var passwordPolicy = PasswordPolicyType.builder().minimumLength(12).requireLowercase(true).build();
+        var userPool = UserPoolType.builder().policies(UserPoolPolicyType.builder().passwordPolicy(passwordPolicy).build()).build();
+        when(cognitoIdentityProviderClient.describeUserPool(any(DescribeUserPoolRequest.class)))
+                .thenReturn(DescribeUserPoolResponse.builder().userPool(userPool).build());
+        var validator = validator();
+
+        assertThat(validator.validate(user("username", "user@example.com", "Password-1")))
+                .containsExactly("Password must have at least 12 characters");
+        assertThat(validator.validate(user("username", "user@example.com", "long password"))).isEmpty();
+        verify(cognitoIdentityProviderClient, times(1)).describeUserPool(any(DescribeUserPoolRequest.class));
+        verify(rateLimiter).tryAcquire("eu-central-1", QuotaCategory.USER_READ);
+        verify(rateLimiter).onSuccess("eu-central-1", QuotaCategory.USER_READ);
+    }
+
+    @Test
+    @DisplayName("Configured policy is used when the pool cannot be described")
+    void test_4() {
+        cognitoProperties.getPasswordPolicy().setDescribeUserPool(true);
+        when(cognitoIdentityProviderClient.describeUserPool(any(DescribeUserPoolRequest.class)))
+                .thenThrow(TooManyRequestsException.builder().message("Too many requests").build());
+
+        assertThat(validator().validate(user("username", "user@example.com", "password")))
+                .containsExactly("Password must contain a number", "Password must contain a symbol",
+                        "Password must contain an uppercase letter");
+        verify(rateLimiter).onThrottled("eu-central-1", QuotaCategory.USER_READ);
+    }
+
+    @Test
+    @DisplayName("Configured policy is not kept when the pool cannot be described")
+    void test_5() {
+        cognitoProperties.getPasswordPolicy().setDescribeUserPool(true);
+        var passwordPolicy = PasswordPolicyType.builder().minimumLength(12).build();
+        var userPool = UserPoolType.builder().policies(UserPoolPolicyType.builder().passwordPolicy(passwordPolicy).build()).build();
+        when(cognitoIdentityProviderClient.describeUserPool(any(DescribeUserPoolRequest.class)))
+                .thenThrow(SdkClientException.create("Unable to execute HTTP request"))
+                .thenReturn(DescribeUserPoolResponse.builder().userPool(userPool).build());
+        var validator = validator();
+
+        assertThat(validator.validate(user("username", "user@example.com", "Password-1"))).isEmpty();
+        assertThat(validator.validate(user("username", "user@example.com", "Password-1")))
+                .containsExactly("Password must have at least 12 characters");
+        verify(cognitoIdentityProviderClient, times(2)).describeUserPool(any(DescribeUserPoolRequest.class));
+    }
+
+    @Test
+    @DisplayName("Pool is not described without a rate limiter token")
+    void test_6() {
+        cognitoProperties.getPasswordPolicy().setDescribeUserPool(true);
+        when(rateLimiter.tryAcquire(any(), eq(QuotaCategory.USER_READ))).thenReturn(false);
+
+        assertThat(validator().validate(user("username", "user@example.com", "Password-1"))).isEmpty();
+        verify(cognitoIdentityProviderClient, never()).describeUserPool(any(DescribeUserPoolRequest.class));
+    }
+
+    private UserPolicyValidator validator() {
+        return new UserPolicyValidator(cognitoProperties, cognitoClients, new Tenants(cognitoProperties), rateLimiter);
+    }
+
+    private static User user(String username, String email, String password) {
+        return new User("First name", "Last name", email, username, password);
+    }
+}